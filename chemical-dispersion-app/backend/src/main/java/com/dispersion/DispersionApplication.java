@@ -1,13 +1,17 @@
 package com.dispersion;
 
+import com.dispersion.config.GridMessageConverter;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @SpringBootApplication
 @EnableScheduling
 @EnableTransactionManagement
@@ -27,6 +31,11 @@ public class DispersionApplication {
             public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
                 configurer.setDefaultTimeout(60 * 60 * 1000L); // Set a long timeout for SSE connection
             }
+
+            @Override
+            public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+                converters.add(new GridMessageConverter()); // After JSON so JSON stays the default
+            }
         };
     }
 }
\ No newline at end of file
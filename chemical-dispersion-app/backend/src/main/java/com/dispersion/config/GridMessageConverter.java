@@ -0,0 +1,69 @@
+package com.dispersion.config;
+
+import com.dispersion.grid.GridCodec;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link DispersionGrid} in the binary frame format of
+ * {@link GridCodec} when the client asks for it in Accept:
+ *
+ * <ul>
+ * <li>{@code application/vnd.dispersion.grid.f32} - float32 values</li>
+ * <li>{@code application/vnd.dispersion.grid.u16} - uint16 values quantized
+ * against the grid maximum, roughly half the size again</li>
+ * </ul>
+ *
+ * Registered after the JSON converter so JSON stays the default for clients
+ * that accept anything.
+ */
+public class GridMessageConverter extends AbstractHttpMessageConverter<DispersionGrid> {
+
+    public static final MediaType GRID_F32 = new MediaType("application", "vnd.dispersion.grid.f32");
+    public static final MediaType GRID_U16 = new MediaType("application", "vnd.dispersion.grid.u16");
+
+    public GridMessageConverter() {
+        super(GRID_F32, GRID_U16);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return DispersionGrid.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected DispersionGrid readInternal(Class<? extends DispersionGrid> clazz, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        throw new HttpMessageNotReadableException("Binary grids are response-only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(DispersionGrid grid, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        MediaType contentType = outputMessage.getHeaders().getContentType();
+        GridCodec.Format format = GRID_U16.isCompatibleWith(contentType)
+                ? GridCodec.Format.UINT16
+                : GridCodec.Format.FLOAT32;
+        byte[] frame = GridCodec.encodeFrame(grid.getCenterLat(), grid.getCenterLon(), grid.getCellSize(),
+                grid.getStorage(), format);
+        outputMessage.getBody().write(frame);
+    }
+
+    @Override
+    protected Long getContentLength(DispersionGrid grid, MediaType contentType) {
+        // Length is only known after encoding
+        return null;
+    }
+}
@@ -1,14 +1,119 @@
 package com.dispersion.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outbound HTTP for every WebClient in the application.
+ *
+ * Spring Boot's WebClient.Builder (a fresh one per injection point, with
+ * request metrics as http.client.requests tagged by client.name) picks up the
+ * connector defined here. Connections are pooled per remote host, so a slow
+ * upstream can only tie up its own pool: each upstream under external-apis
+ * may override max-connections and response-timeout-ms, everything else uses
+ * app.http. Pool gauges are published as reactor.netty.connection.provider.*.
+ */
 @Configuration
 public class WebClientConfig {
 
+    private static final List<String> UPSTREAMS = List.of("nws", "noaa", "pubchem");
+
+    @Value("${app.http.max-connections:50}")
+    private int maxConnections;
+
+    @Value("${app.http.pending-acquire-max:200}")
+    private int pendingAcquireMax;
+
+    @Value("${app.http.pending-acquire-timeout-ms:5000}")
+    private long pendingAcquireTimeoutMs;
+
+    @Value("${app.http.max-idle-time-seconds:30}")
+    private long maxIdleTimeSeconds;
+
+    @Value("${app.http.connect-timeout-ms:5000}")
+    private int connectTimeoutMs;
+
+    @Value("${app.http.response-timeout-ms:15000}")
+    private long responseTimeoutMs;
+
+    @Value("${app.http.compression:true}")
+    private boolean compression;
+
+    @Value("${app.http.http2:true}")
+    private boolean http2;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider outboundConnectionProvider(Environment environment) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("outbound")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMax)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofSeconds(maxIdleTimeSeconds))
+                .evictInBackground(Duration.ofSeconds(maxIdleTimeSeconds))
+                .metrics(true);
+        for (String upstream : UPSTREAMS) {
+            URI baseUrl = baseUrl(environment, upstream);
+            Integer upstreamMax = environment.getProperty("external-apis." + upstream + ".max-connections",
+                    Integer.class);
+            if (baseUrl != null && upstreamMax != null) {
+                builder.forRemoteHost(InetSocketAddress.createUnresolved(baseUrl.getHost(), port(baseUrl)),
+                        spec -> spec.maxConnections(upstreamMax));
+            }
+        }
+        return builder.build();
+    }
+
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public ClientHttpConnector outboundHttpConnector(ConnectionProvider outboundConnectionProvider,
+            Environment environment) {
+        Duration defaultTimeout = Duration.ofMillis(responseTimeoutMs);
+        Map<String, Duration> timeouts = new HashMap<>();
+        for (String upstream : UPSTREAMS) {
+            URI baseUrl = baseUrl(environment, upstream);
+            Long timeoutMs = environment.getProperty("external-apis." + upstream + ".response-timeout-ms",
+                    Long.class);
+            if (baseUrl != null && timeoutMs != null) {
+                timeouts.put(baseUrl.getHost(), Duration.ofMillis(timeoutMs));
+            }
+        }
+
+        HttpClient httpClient = HttpClient.create(outboundConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .compress(compression)
+                // Time allowed between reads of the response, i.e. the read timeout
+                .doOnRequest((request, connection) -> request.responseTimeout(
+                        timeouts.getOrDefault(URI.create(request.resourceUrl()).getHost(), defaultTimeout)));
+        if (http2) {
+            // Negotiated through ALPN on TLS connections; plain HTTP stays on 1.1
+            httpClient = httpClient.protocol(HttpProtocol.H2, HttpProtocol.HTTP11);
+        }
+        return new ReactorClientHttpConnector(httpClient);
+    }
+
+    private static URI baseUrl(Environment environment, String upstream) {
+        String url = environment.getProperty("external-apis." + upstream + ".base-url");
+        return url != null ? URI.create(url) : null;
+    }
+
+    private static int port(URI uri) {
+        if (uri.getPort() > 0) {
+            return uri.getPort();
+        }
+        return "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.dispersion.config;
+
+import com.dispersion.controller.GridSocketHandler;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket endpoints; the binary grid stream sits next to the SSE stream
+ * of StreamController
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final GridSocketHandler gridSocketHandler;
+
+    public WebSocketConfig(GridSocketHandler gridSocketHandler) {
+        this.gridSocketHandler = gridSocketHandler;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(gridSocketHandler, "/api/real-time-updates/grids").setAllowedOrigins("*");
+    }
+}
@@ -6,6 +6,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/dispersion/chemicals")
 @CrossOrigin(origins = "*")
@@ -42,6 +46,25 @@ public class ChemicalController {
         }
     }
 
+    // Resolves many names in one go, e.g. before importing a batch of spills
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> getChemicalPropertiesBatch(@RequestBody List<String> names) {
+        try {
+            System.out.println("Fetching chemical properties for " + names.size() + " names");
+            Map<String, ChemicalProperties> resolved = chemicalService.getOrFetchChemicalProperties(names);
+            List<String> unknown = new ArrayList<>();
+            for (String name : names) {
+                if (!resolved.containsKey(name) && !unknown.contains(name)) {
+                    unknown.add(name);
+                }
+            }
+            return ResponseEntity.ok(Map.of("resolved", resolved, "unknown", unknown));
+        } catch (Exception e) {
+            System.err.println("Error fetching chemical properties batch: " + e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/search/{query}")
     public ResponseEntity<ChemicalProperties> searchChemical(@PathVariable String query) {
         try {
@@ -2,8 +2,10 @@ package com.dispersion.controller;
 
 import com.dispersion.dto.DispersionResponse;
 import com.dispersion.model.Spill;
+import com.dispersion.model.SpillSeverity;
 import com.dispersion.service.DispersionService;
 import com.dispersion.service.FluidDynamicsService;
+import com.dispersion.service.SimulationOptions;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -11,6 +13,8 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.time.LocalDateTime;
 
 @RestController
@@ -46,20 +50,35 @@ public class DispersionController {
     }
 
     @PostMapping("/calculate")
-    public ResponseEntity<DispersionResponse> calculateDispersion(
+    public CompletableFuture<ResponseEntity<DispersionResponse>> calculateDispersion(
             @RequestParam UUID spillId,
-            @RequestParam(defaultValue = "24") int simulationHours) {
-        try {
-            System.out.println("Calculate dispersion requested for spill: " + spillId);
-            DispersionResponse response = dispersionService.calculateDispersion(spillId);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
+            @RequestParam(required = false) Integer simulationHours,
+            @RequestParam(required = false) Integer gridSize,
+            @RequestParam(required = false) Double cellSize,
+            @RequestParam(defaultValue = "false") boolean frames) {
+        System.out.println("Calculate dispersion requested for spill: " + spillId);
+        // The request thread is released while weather, tide and chemical data are fetched
+        return dispersionService
+                .calculateDispersionAsync(spillId, new SimulationOptions(simulationHours, gridSize, cellSize, frames))
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(DispersionController::calculationFailed);
+    }
+
+    /**
+     * Status for a failed calculation, logged the same way by every endpoint that runs one
+     */
+    static ResponseEntity<DispersionResponse> calculationFailed(Throwable error) {
+        Throwable e = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (e instanceof IllegalArgumentException) {
+            System.err.println("Invalid dispersion parameters: " + e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        if (e instanceof RuntimeException) {
             System.err.println("Error calculating dispersion: " + e.getMessage());
             return ResponseEntity.notFound().build();
-        } catch (Exception e) {
-            System.err.println("Unexpected error in dispersion calculation: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
         }
+        System.err.println("Unexpected error in dispersion calculation: " + e.getMessage());
+        return ResponseEntity.internalServerError().build();
     }
 
     @GetMapping("/models")
@@ -71,12 +90,12 @@ public class DispersionController {
         return ResponseEntity.ok(models);
     }
 
+    // JSON by default; Accept application/vnd.dispersion.grid.f32 or .u16 for the binary frame
     @GetMapping("/grid/{spillId}")
     public ResponseEntity<Object> getDispersionGrid(@PathVariable UUID spillId) {
         try {
             System.out.println("Grid data requested for spill: " + spillId);
-            DispersionResponse response = dispersionService.calculateDispersion(spillId);
-            return ResponseEntity.ok(response.getDispersionGrid());
+            return ResponseEntity.ok(dispersionService.getLatestGrid(spillId));
         } catch (RuntimeException e) {
             System.err.println("Error getting dispersion grid: " + e.getMessage());
             return ResponseEntity.notFound().build();
@@ -95,10 +114,7 @@ public class DispersionController {
                     .sum();
 
             long criticalSpills = activeSpills.stream()
-                    .filter(s -> s.getVolume() != null && s.getChemicalType() != null)
-                    .filter(s -> s.getVolume().doubleValue() > 10000 ||
-                            s.getChemicalType().toLowerCase().contains("toxic") ||
-                            s.getChemicalType().toLowerCase().contains("hazard"))
+                    .filter(s -> SpillSeverity.of(s) == SpillSeverity.CRITICAL)
                     .count();
 
             return ResponseEntity.ok(Map.of(
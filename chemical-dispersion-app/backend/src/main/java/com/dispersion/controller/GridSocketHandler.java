@@ -0,0 +1,469 @@
+package com.dispersion.controller;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.event.DispersionCalculatedEvent;
+import com.dispersion.grid.GridCodec;
+import com.dispersion.service.DispersionService;
+import com.dispersion.service.FluidDynamicsService.DispersionFrame;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import com.dispersion.service.SimulationOptions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Binary grid frames over WebSocket at /api/real-time-updates/grids, for
+ * plume playback and live grids without JSON overhead.
+ *
+ * The client drives the stream with JSON text messages:
+ *
+ * <ul>
+ * <li>{@code {"type":"play","spillId":..,"simulationHours":72,"format":"u16","credit":8}}
+ * - calculate (or reuse) the time-stepped simulation and stream its frames;
+ * gridSize and cellSize may be given as for /calculate</li>
+ * <li>{@code {"type":"watch","spillId":..,"format":"u16"}} - also send each
+ * new grid of the spill's regular recalculation</li>
+ * <li>{@code {"type":"credit","n":8}} - allow n more binary messages</li>
+ * <li>{@code {"type":"stop"}} - end playback and watching</li>
+ * </ul>
+ *
+ * Flow control is credit based: every binary message uses one credit and
+ * nothing is sent without credit, so a slow client never has frames piling
+ * up on the server. Of the live grids only the newest not yet sent is kept.
+ * Each binary message is a 16-byte envelope followed by a {@link GridCodec}
+ * frame (f32, or u16 for roughly half the size):
+ *
+ * <pre>
+ *  0  u8  kind (1 = playback frame, 2 = live grid)
+ *  1  u8  reserved x3
+ *  4  i32 frame index
+ *  8  i32 frame count (1 for live grids)
+ * 12  f32 simulation hour of the frame
+ * 16  GridCodec frame
+ * </pre>
+ *
+ * Text messages from the server: {@code playback} (frame count and grid
+ * geometry) when a playback starts, {@code end} after its last frame and
+ * {@code error}.
+ */
+@Component
+public class GridSocketHandler extends TextWebSocketHandler {
+
+    public static final int ENVELOPE_BYTES = 16;
+    private static final byte KIND_PLAYBACK = 1;
+    private static final byte KIND_LIVE = 2;
+
+    private final DispersionService dispersionService;
+    private final ObjectMapper objectMapper;
+    private final int defaultCredit;
+    private final int maxCredit;
+    private final int sendTimeLimitMs;
+    private final int sendBufferBytes;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<String, GridStream> streams = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, Set<GridStream>> watchers = new ConcurrentHashMap<>();
+
+    public GridSocketHandler(
+            DispersionService dispersionService,
+            ObjectMapper objectMapper,
+            @Value("${app.ws.initial-credit:8}") int defaultCredit,
+            @Value("${app.ws.max-credit:64}") int maxCredit,
+            @Value("${app.ws.send-time-limit-ms:10000}") int sendTimeLimitMs,
+            @Value("${app.ws.send-buffer-bytes:8388608}") int sendBufferBytes,
+            @Value("${app.ws.threads:2}") int threads) {
+        this.dispersionService = dispersionService;
+        this.objectMapper = objectMapper;
+        this.maxCredit = Math.max(1, maxCredit);
+        this.defaultCredit = Math.min(Math.max(0, defaultCredit), this.maxCredit);
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferBytes = sendBufferBytes;
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        // At most one pending pump per session, so the task queue is bounded by the session count
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "grid-socket-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        // Sends come from the pump and from control replies; the decorator serializes them
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs,
+                sendBufferBytes);
+        streams.put(session.getId(), new GridStream(concurrent, defaultCredit));
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        GridStream stream = streams.remove(session.getId());
+        if (stream != null) {
+            unwatch(stream);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        System.err.println("Grid socket error: " + exception.getMessage());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        GridStream stream = streams.get(session.getId());
+        if (stream == null) {
+            return;
+        }
+        try {
+            JsonNode request = objectMapper.readTree(message.getPayload());
+            String type = request.path("type").asText();
+            switch (type) {
+                case "play":
+                    play(stream, request);
+                    break;
+                case "watch":
+                    stream.setFormat(format(request));
+                    watch(stream, spillId(request));
+                    break;
+                case "credit":
+                    stream.grant(request.path("n").asInt(0), maxCredit);
+                    break;
+                case "stop":
+                    stream.stopPlayback();
+                    unwatch(stream);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown message type: " + type);
+            }
+            schedule(stream);
+        } catch (Exception e) {
+            sendError(stream, e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onDispersionCalculated(DispersionCalculatedEvent event) {
+        DispersionResponse response = event.getResponse();
+        if (response.getDispersionGrid() == null || !event.getOptions().isDefault()) {
+            return;
+        }
+        Set<GridStream> interested = watchers.get(response.getSpillId());
+        if (interested == null) {
+            return;
+        }
+        double hour = response.getSimulationHours() != null ? response.getSimulationHours() : 0.0;
+        for (GridStream stream : interested) {
+            stream.offerLive(response.getDispersionGrid(), hour);
+            schedule(stream);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void play(GridStream stream, JsonNode request) {
+        UUID spillId = spillId(request);
+        SimulationOptions options = new SimulationOptions(
+                request.hasNonNull("simulationHours") ? request.get("simulationHours").asInt() : null,
+                request.hasNonNull("gridSize") ? request.get("gridSize").asInt() : null,
+                request.hasNonNull("cellSize") ? request.get("cellSize").asDouble() : null,
+                true);
+        GridCodec.Format format = format(request);
+        if (request.has("credit")) {
+            stream.grant(request.get("credit").asInt(0), maxCredit);
+        }
+        long playback = stream.newPlayback();
+        dispersionService.calculateDispersionAsync(spillId, options).whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause()
+                        : error;
+                sendError(stream, cause.getMessage());
+                return;
+            }
+            List<DispersionFrame> frames = response.getFrames();
+            if (frames == null || frames.isEmpty()) {
+                DispersionGrid grid = response.getDispersionGrid();
+                double hours = response.getSimulationHours() != null ? response.getSimulationHours() : 0.0;
+                frames = List.of(new DispersionFrame(hours, response.getMaxConcentration() != null
+                        ? response.getMaxConcentration() : 0.0, grid));
+            }
+            if (!stream.startPlayback(playback, frames, format)) {
+                return; // Superseded by a later play or stop
+            }
+            DispersionGrid first = frames.get(0).getGrid();
+            Map<String, Object> started = new LinkedHashMap<>();
+            started.put("type", "playback");
+            started.put("spillId", spillId);
+            started.put("frames", frames.size());
+            started.put("gridSize", first.getGridSize());
+            started.put("cellSize", first.getCellSize());
+            started.put("centerLat", first.getCenterLat());
+            started.put("centerLon", first.getCenterLon());
+            started.put("format", format == GridCodec.Format.UINT16 ? "u16" : "f32");
+            sendText(stream, started);
+            schedule(stream);
+        });
+    }
+
+    private void watch(GridStream stream, UUID spillId) {
+        unwatch(stream);
+        stream.watching = spillId;
+        // Added inside compute, so a concurrent unwatch cannot drop the set between lookup and add
+        watchers.compute(spillId, (id, current) -> {
+            Set<GridStream> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            set.add(stream);
+            return set;
+        });
+    }
+
+    private void unwatch(GridStream stream) {
+        UUID spillId = stream.watching;
+        if (spillId != null) {
+            stream.watching = null;
+            watchers.computeIfPresent(spillId, (id, set) -> set.remove(stream) && set.isEmpty() ? null : set);
+        }
+        stream.clearLive();
+    }
+
+    private static GridCodec.Format format(JsonNode request) {
+        return "u16".equalsIgnoreCase(request.path("format").asText("f32"))
+                ? GridCodec.Format.UINT16
+                : GridCodec.Format.FLOAT32;
+    }
+
+    private static UUID spillId(JsonNode request) {
+        String id = request.path("spillId").asText(null);
+        if (id == null) {
+            throw new IllegalArgumentException("spillId is required");
+        }
+        return UUID.fromString(id);
+    }
+
+    private void schedule(GridStream stream) {
+        if (stream.hasWork() && stream.pumping.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> pump(stream));
+            } catch (RejectedExecutionException e) {
+                stream.pumping.set(false);
+            }
+        }
+    }
+
+    /**
+     * Send while there is both something to send and credit for it
+     */
+    private void pump(GridStream stream) {
+        try {
+            Outgoing next;
+            while (stream.session.isOpen() && (next = stream.next()) != null) {
+                stream.session.sendMessage(next.encode());
+                if (next.lastOfPlayback) {
+                    sendText(stream, Map.of("type", "end"));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Failed to send grid frame: " + e.getMessage());
+            return;
+        } finally {
+            stream.pumping.set(false);
+        }
+        // Credit or data may have arrived after the last check
+        if (stream.session.isOpen()) {
+            schedule(stream);
+        }
+    }
+
+    private void sendText(GridStream stream, Object body) {
+        try {
+            send(stream, new TextMessage(objectMapper.writeValueAsString(body)));
+        } catch (IOException e) {
+            System.err.println("Failed to serialize grid socket message: " + e.getMessage());
+        }
+    }
+
+    private void sendError(GridStream stream, String message) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("type", "error");
+        error.put("message", message != null ? message : "Unknown error");
+        sendText(stream, error);
+    }
+
+    private static void send(GridStream stream, WebSocketMessage<?> message) {
+        try {
+            if (stream.session.isOpen()) {
+                stream.session.sendMessage(message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Failed to send grid socket message: " + e.getMessage());
+        }
+    }
+
+    /**
+     * One binary message waiting to be encoded
+     */
+    private static final class Outgoing {
+        final byte kind;
+        final int index;
+        final int count;
+        final double hour;
+        final DispersionGrid grid;
+        final GridCodec.Format format;
+        final boolean lastOfPlayback;
+
+        Outgoing(byte kind, int index, int count, double hour, DispersionGrid grid, GridCodec.Format format,
+                boolean lastOfPlayback) {
+            this.kind = kind;
+            this.index = index;
+            this.count = count;
+            this.hour = hour;
+            this.grid = grid;
+            this.format = format;
+            this.lastOfPlayback = lastOfPlayback;
+        }
+
+        BinaryMessage encode() {
+            byte[] frame = GridCodec.encodeFrame(grid.getCenterLat(), grid.getCenterLon(), grid.getCellSize(),
+                    grid.getStorage(), format);
+            ByteBuffer message = ByteBuffer.allocate(ENVELOPE_BYTES + frame.length).order(ByteOrder.LITTLE_ENDIAN);
+            message.put(kind);
+            message.put((byte) 0);
+            message.put((byte) 0);
+            message.put((byte) 0);
+            message.putInt(index);
+            message.putInt(count);
+            message.putFloat((float) hour);
+            message.put(frame);
+            message.flip();
+            return new BinaryMessage(message);
+        }
+    }
+
+    /**
+     * Playback position, pending live grid and credit of one session
+     */
+    private static final class GridStream {
+        final WebSocketSession session;
+        final AtomicBoolean pumping = new AtomicBoolean();
+        volatile UUID watching;
+
+        private int credit;
+        private long playbackId;
+        private List<DispersionFrame> frames;
+        private GridCodec.Format format = GridCodec.Format.FLOAT32;
+        private int nextFrame;
+        private DispersionGrid liveGrid;
+        private double liveHour;
+
+        GridStream(WebSocketSession session, int credit) {
+            this.session = session;
+            this.credit = credit;
+        }
+
+        synchronized void grant(int n, int maxCredit) {
+            if (n > 0) {
+                credit = (int) Math.min((long) credit + n, maxCredit);
+            }
+        }
+
+        /**
+         * Start a new playback request; results of earlier ones are discarded
+         */
+        synchronized long newPlayback() {
+            frames = null;
+            return ++playbackId;
+        }
+
+        synchronized boolean startPlayback(long id, List<DispersionFrame> frames, GridCodec.Format format) {
+            if (id != playbackId) {
+                return false;
+            }
+            this.frames = frames;
+            this.format = format;
+            this.nextFrame = 0;
+            return true;
+        }
+
+        synchronized void setFormat(GridCodec.Format format) {
+            this.format = format;
+        }
+
+        synchronized void stopPlayback() {
+            frames = null;
+            playbackId++;
+        }
+
+        synchronized void offerLive(DispersionGrid grid, double hour) {
+            // Only the newest unsent grid matters
+            liveGrid = grid;
+            liveHour = hour;
+        }
+
+        synchronized void clearLive() {
+            liveGrid = null;
+        }
+
+        synchronized boolean hasWork() {
+            return credit > 0 && (liveGrid != null || (frames != null && nextFrame < frames.size()));
+        }
+
+        /**
+         * Take the next message and the credit it uses; null without either
+         */
+        synchronized Outgoing next() {
+            if (credit <= 0) {
+                return null;
+            }
+            if (liveGrid != null) {
+                Outgoing live = new Outgoing(KIND_LIVE, 0, 1, liveHour, liveGrid, format, false);
+                liveGrid = null;
+                credit--;
+                return live;
+            }
+            if (frames != null && nextFrame < frames.size()) {
+                DispersionFrame frame = frames.get(nextFrame);
+                boolean last = nextFrame == frames.size() - 1;
+                Outgoing out = new Outgoing(KIND_PLAYBACK, nextFrame, frames.size(), frame.getHour(),
+                        frame.getGrid(), format, last);
+                nextFrame++;
+                if (last) {
+                    frames = null;
+                }
+                credit--;
+                return out;
+            }
+            return null;
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.dispersion.dto.DispersionResponse;
 import com.dispersion.dto.SpillRequest;
 import com.dispersion.model.Spill;
 import com.dispersion.service.DispersionService;
+import com.dispersion.service.SimulationOptions;
 import com.dispersion.service.SpillService;
 import com.dispersion.service.WeatherService;
 import com.dispersion.service.TideService;
@@ -15,6 +16,7 @@ import org.springframework.web.bind.annotation.*;
 import jakarta.validation.Valid;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/dispersion")
@@ -74,20 +76,25 @@ public class MapController {
     }
 
     @PostMapping("/spills/{id}/calculate")
-    public ResponseEntity<DispersionResponse> calculateDispersion(
+    public CompletableFuture<ResponseEntity<DispersionResponse>> calculateDispersion(
             @PathVariable UUID id,
-            @RequestParam(defaultValue = "24") int simulationHours) {
-        try {
-            DispersionResponse response = dispersionService.calculateDispersion(id);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
-        }
+            @RequestParam(required = false) Integer simulationHours,
+            @RequestParam(required = false) Integer gridSize,
+            @RequestParam(required = false) Double cellSize,
+            @RequestParam(defaultValue = "false") boolean frames) {
+        return dispersionService
+                .calculateDispersionAsync(id, new SimulationOptions(simulationHours, gridSize, cellSize, frames))
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(DispersionController::calculationFailed);
     }
 
     @GetMapping("/spills/{id}/calculations")
-    public ResponseEntity<List<DispersionResponse>> getCalculationHistory(@PathVariable UUID id) {
-        List<DispersionResponse> history = dispersionService.getCalculationHistory(id);
+    public ResponseEntity<List<DispersionResponse>> getCalculationHistory(
+            @PathVariable UUID id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "true") boolean includeGrid) {
+        List<DispersionResponse> history = dispersionService.getCalculationHistory(id, page, size, includeGrid);
         return ResponseEntity.ok(history);
     }
 
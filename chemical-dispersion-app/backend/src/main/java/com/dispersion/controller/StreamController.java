@@ -1,18 +1,25 @@
 package com.dispersion.controller;
 
+import com.dispersion.dto.StreamSnapshot;
 import com.dispersion.model.Spill;
+import com.dispersion.model.SpillSeverity;
 import com.dispersion.service.DispersionService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.dispersion.service.SpillChangeTracker;
+import com.dispersion.service.SseBroadcastHub;
+import com.dispersion.service.SubscriptionFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.http.MediaType;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/real-time-updates")
@@ -23,51 +30,53 @@ public class StreamController {
     private DispersionService dispersionService;
 
     @Autowired
-    private ObjectMapper objectMapper;
-
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private SseBroadcastHub broadcastHub;
 
+    @Autowired
+    private SpillChangeTracker changeTracker;
+
+    /**
+     * Changes only (spill created, status changed, deleted, grid tiles).
+     * A client resuming with Last-Event-ID (or ?lastEventId= when it opens
+     * a new EventSource itself) gets what it missed; any other client first
+     * receives the active spills and their current grids as an "initial"
+     * event.
+     *
+     * Optional filters, all of which must match: a bounding box
+     * (minLat, maxLat, minLon, maxLon, as for /spills/area), a list of
+     * spillIds and a minSeverity (LOW, MEDIUM, HIGH, CRITICAL).
+     */
     @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamUpdates() {
-        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
-
+    public SseEmitter streamUpdates(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+            @RequestParam(value = "lastEventId", required = false) String lastEventIdParam,
+            @RequestParam(required = false) Double minLat,
+            @RequestParam(required = false) Double maxLat,
+            @RequestParam(required = false) Double minLon,
+            @RequestParam(required = false) Double maxLon,
+            @RequestParam(required = false) List<UUID> spillIds,
+            @RequestParam(required = false) SpillSeverity minSeverity) {
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        SubscriptionFilter filter = SubscriptionFilter.of(minLat, maxLat, minLon, maxLon, spillIds, minSeverity);
         try {
-            System.out.println("New SSE client connected");
-
-            // Send initial data
-            List<Spill> activeSpills = dispersionService.getActiveSpills();
-            String jsonData = objectMapper.writeValueAsString(activeSpills);
-            emitter.send(SseEmitter.event().data(jsonData).name("initial"));
-
-            // Add emitter to list for future updates
-            emitters.add(emitter);
-
-            // Handle client disconnect
-            emitter.onCompletion(() -> {
-                System.out.println("SSE client disconnected");
-                emitters.remove(emitter);
+            return broadcastHub.subscribe(lastEventId, filter, "initial", () -> {
+                List<Spill> spills = dispersionService.getActiveSpills().stream()
+                        .filter(filter::matches)
+                        .collect(Collectors.toList());
+                return new StreamSnapshot(spills, changeTracker.currentGrids(spills.stream()
+                        .map(Spill::getId)
+                        .collect(Collectors.toList())));
             });
-
-            emitter.onTimeout(() -> {
-                System.out.println("SSE client timeout");
-                emitters.remove(emitter);
-            });
-
-            emitter.onError((ex) -> {
-                System.err.println("SSE client error: " + ex.getMessage());
-                emitters.remove(emitter);
-            });
-
         } catch (Exception e) {
             System.err.println("Error setting up SSE: " + e.getMessage());
+            SseEmitter emitter = new SseEmitter();
             emitter.completeWithError(e);
+            return emitter;
         }
-
-        return emitter;
     }
 
     @GetMapping("/health")
     public String healthCheck() {
-        return "SSE service is running. Connected clients: " + emitters.size();
+        return "SSE service is running. Connected clients: " + broadcastHub.clientCount();
     }
 }
@@ -1,6 +1,8 @@
 package com.dispersion.controller;
 
+import com.dispersion.model.TideConstituent;
 import com.dispersion.model.TideData;
+import com.dispersion.service.HarmonicTideService;
 import com.dispersion.service.TideService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -14,10 +16,12 @@ import java.util.Map;
 public class TideController {
 
     private final TideService tideService;
+    private final HarmonicTideService harmonicTideService;
 
     // FIXED: Removed unnecessary @Autowired (Spring handles this automatically)
-    public TideController(TideService tideService) {
+    public TideController(TideService tideService, HarmonicTideService harmonicTideService) {
         this.tideService = tideService;
+        this.harmonicTideService = harmonicTideService;
     }
 
     @GetMapping("/forecast")
@@ -36,11 +40,45 @@ public class TideController {
         }
     }
 
+    @GetMapping("/constituents/{stationId}")
+    public ResponseEntity<List<TideConstituent>> getConstituents(@PathVariable String stationId) {
+        return ResponseEntity.ok(harmonicTideService.getConstituents(stationId));
+    }
+
+    // Re-seeds the station's harmonic constants from NOAA
+    @PostMapping("/constituents/{stationId}/refresh")
+    public ResponseEntity<Map<String, Object>> refreshConstituents(@PathVariable String stationId) {
+        try {
+            Integer stored = harmonicTideService.refreshConstituents(stationId).block();
+            return ResponseEntity.ok(Map.of("stationId", stationId, "constituents", stored));
+        } catch (Exception e) {
+            System.err.println("Error refreshing tide constituents: " + e.getMessage());
+            return ResponseEntity.status(502)
+                    .body(Map.of("stationId", stationId, "error", String.valueOf(e.getMessage())));
+        }
+    }
+
+    // Compares the local harmonic prediction against NOAA's
+    @GetMapping("/validate")
+    public ResponseEntity<Map<String, Object>> validateHarmonicModel(
+            @RequestParam String stationId,
+            @RequestParam(defaultValue = "24") int hours) {
+        try {
+            return ResponseEntity.ok(tideService.validateHarmonicModel(stationId, hours));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            System.err.println("Error validating harmonic tide model: " + e.getMessage());
+            return ResponseEntity.status(502)
+                    .body(Map.of("stationId", stationId, "error", String.valueOf(e.getMessage())));
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, String>> healthCheck() {
         return ResponseEntity.ok(Map.of(
                 "status", "UP",
                 "service", "TideController",
-                "source", "NOAA Tides and Currents"));
+                "source", "Harmonic constituents, NOAA Tides and Currents"));
     }
 }
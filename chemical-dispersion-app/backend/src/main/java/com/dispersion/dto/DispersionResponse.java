@@ -1,7 +1,9 @@
 package com.dispersion.dto;
 
+import com.dispersion.service.FluidDynamicsService.DispersionFrame;
 import com.dispersion.service.FluidDynamicsService.DispersionGrid;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -25,6 +27,12 @@ public class DispersionResponse {
 
     private Double maxConcentration;
 
+    private Integer simulationHours;
+
+    // Time-stepped sequence up to simulationHours; the last frame is dispersionGrid
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private List<DispersionFrame> frames;
+
     private String status;
 
     // Default constructor
@@ -94,6 +102,22 @@ public class DispersionResponse {
         this.maxConcentration = maxConcentration;
     }
 
+    public Integer getSimulationHours() {
+        return simulationHours;
+    }
+
+    public void setSimulationHours(Integer simulationHours) {
+        this.simulationHours = simulationHours;
+    }
+
+    public List<DispersionFrame> getFrames() {
+        return frames;
+    }
+
+    public void setFrames(List<DispersionFrame> frames) {
+        this.frames = frames;
+    }
+
     public String getStatus() {
         return status;
     }
@@ -207,6 +231,7 @@ public class DispersionResponse {
                 ", calculationTime=" + calculationTime +
                 ", affectedAreaKm2=" + affectedAreaKm2 +
                 ", maxConcentration=" + maxConcentration +
+                ", simulationHours=" + simulationHours +
                 ", status='" + status + '\'' +
                 '}';
     }
@@ -0,0 +1,170 @@
+package com.dispersion.dto;
+
+import com.dispersion.grid.GridDelta.Tile;
+import com.dispersion.model.Spill;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One change pushed on /api/real-time-updates
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class SpillUpdate {
+
+    public static final String SPILL_CREATED = "spill_created";
+    public static final String SPILL_STATUS_CHANGED = "spill_status_changed";
+    public static final String SPILL_DELETED = "spill_deleted";
+    public static final String GRID_UPDATED = "grid_updated";
+
+    private String type;
+
+    private UUID spillId;
+
+    // The spill itself, for spill_created
+    private Spill data;
+
+    private Spill.SpillStatus newStatus;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime calculationTime;
+
+    private Double maxConcentration;
+
+    private BigDecimal affectedAreaKm2;
+
+    private GridUpdate grid;
+
+    public SpillUpdate() {
+    }
+
+    public SpillUpdate(String type, UUID spillId) {
+        this.type = type;
+        this.spillId = spillId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public UUID getSpillId() {
+        return spillId;
+    }
+
+    public void setSpillId(UUID spillId) {
+        this.spillId = spillId;
+    }
+
+    public Spill getData() {
+        return data;
+    }
+
+    public void setData(Spill data) {
+        this.data = data;
+    }
+
+    public Spill.SpillStatus getNewStatus() {
+        return newStatus;
+    }
+
+    public void setNewStatus(Spill.SpillStatus newStatus) {
+        this.newStatus = newStatus;
+    }
+
+    public LocalDateTime getCalculationTime() {
+        return calculationTime;
+    }
+
+    public void setCalculationTime(LocalDateTime calculationTime) {
+        this.calculationTime = calculationTime;
+    }
+
+    public Double getMaxConcentration() {
+        return maxConcentration;
+    }
+
+    public void setMaxConcentration(Double maxConcentration) {
+        this.maxConcentration = maxConcentration;
+    }
+
+    public BigDecimal getAffectedAreaKm2() {
+        return affectedAreaKm2;
+    }
+
+    public void setAffectedAreaKm2(BigDecimal affectedAreaKm2) {
+        this.affectedAreaKm2 = affectedAreaKm2;
+    }
+
+    public GridUpdate getGrid() {
+        return grid;
+    }
+
+    public void setGrid(GridUpdate grid) {
+        this.grid = grid;
+    }
+
+    /**
+     * Changed tiles of a spill's concentration grid. With reset the client
+     * starts from an all-zero grid of the given geometry; otherwise the
+     * tiles are applied to the grid it already has.
+     */
+    public static class GridUpdate {
+        private double centerLat;
+        private double centerLon;
+        private double cellSize;
+        private int gridSize;
+        private int tileSize;
+        private boolean reset;
+        private List<Tile> tiles;
+
+        public GridUpdate() {
+        }
+
+        public GridUpdate(double centerLat, double centerLon, double cellSize, int gridSize, int tileSize,
+                boolean reset, List<Tile> tiles) {
+            this.centerLat = centerLat;
+            this.centerLon = centerLon;
+            this.cellSize = cellSize;
+            this.gridSize = gridSize;
+            this.tileSize = tileSize;
+            this.reset = reset;
+            this.tiles = tiles;
+        }
+
+        public double getCenterLat() {
+            return centerLat;
+        }
+
+        public double getCenterLon() {
+            return centerLon;
+        }
+
+        public double getCellSize() {
+            return cellSize;
+        }
+
+        public int getGridSize() {
+            return gridSize;
+        }
+
+        public int getTileSize() {
+            return tileSize;
+        }
+
+        public boolean isReset() {
+            return reset;
+        }
+
+        public List<Tile> getTiles() {
+            return tiles;
+        }
+    }
+}
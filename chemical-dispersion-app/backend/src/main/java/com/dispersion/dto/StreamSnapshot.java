@@ -0,0 +1,41 @@
+package com.dispersion.dto;
+
+import com.dispersion.model.Spill;
+
+import java.util.List;
+
+/**
+ * First event of a client on /api/real-time-updates that cannot resume:
+ * the active spills and, as reset grid_updated changes, the grids streamed
+ * for them so far. Later grid tiles apply on top of these grids.
+ */
+public class StreamSnapshot {
+
+    private List<Spill> spills;
+
+    private List<SpillUpdate> grids;
+
+    public StreamSnapshot() {
+    }
+
+    public StreamSnapshot(List<Spill> spills, List<SpillUpdate> grids) {
+        this.spills = spills;
+        this.grids = grids;
+    }
+
+    public List<Spill> getSpills() {
+        return spills;
+    }
+
+    public void setSpills(List<Spill> spills) {
+        this.spills = spills;
+    }
+
+    public List<SpillUpdate> getGrids() {
+        return grids;
+    }
+
+    public void setGrids(List<SpillUpdate> grids) {
+        this.grids = grids;
+    }
+}
@@ -0,0 +1,17 @@
+package com.dispersion.event;
+
+/**
+ * Published after a chemical's properties have been saved
+ */
+public class ChemicalUpdatedEvent {
+
+    private final String chemicalName;
+
+    public ChemicalUpdatedEvent(String chemicalName) {
+        this.chemicalName = chemicalName;
+    }
+
+    public String getChemicalName() {
+        return chemicalName;
+    }
+}
@@ -0,0 +1,33 @@
+package com.dispersion.event;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.model.Spill;
+import com.dispersion.service.SimulationOptions;
+
+/**
+ * Published for every completed dispersion calculation
+ */
+public class DispersionCalculatedEvent {
+
+    private final Spill spill;
+    private final DispersionResponse response;
+    private final SimulationOptions options;
+
+    public DispersionCalculatedEvent(Spill spill, DispersionResponse response, SimulationOptions options) {
+        this.spill = spill;
+        this.response = response;
+        this.options = options != null ? options : SimulationOptions.defaults();
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+
+    public DispersionResponse getResponse() {
+        return response;
+    }
+
+    public SimulationOptions getOptions() {
+        return options;
+    }
+}
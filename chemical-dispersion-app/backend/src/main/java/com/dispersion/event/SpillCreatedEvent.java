@@ -0,0 +1,19 @@
+package com.dispersion.event;
+
+import com.dispersion.model.Spill;
+
+/**
+ * Published once a new spill has been saved
+ */
+public class SpillCreatedEvent {
+
+    private final Spill spill;
+
+    public SpillCreatedEvent(Spill spill) {
+        this.spill = spill;
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+}
@@ -0,0 +1,19 @@
+package com.dispersion.event;
+
+import com.dispersion.model.Spill;
+
+/**
+ * Published after a spill has been deleted
+ */
+public class SpillDeletedEvent {
+
+    private final Spill spill;
+
+    public SpillDeletedEvent(Spill spill) {
+        this.spill = spill;
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+}
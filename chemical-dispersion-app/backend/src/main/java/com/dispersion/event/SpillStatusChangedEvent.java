@@ -0,0 +1,25 @@
+package com.dispersion.event;
+
+import com.dispersion.model.Spill;
+
+/**
+ * Published after a spill's status has been changed and saved
+ */
+public class SpillStatusChangedEvent {
+
+    private final Spill spill;
+    private final Spill.SpillStatus previousStatus;
+
+    public SpillStatusChangedEvent(Spill spill, Spill.SpillStatus previousStatus) {
+        this.spill = spill;
+        this.previousStatus = previousStatus;
+    }
+
+    public Spill getSpill() {
+        return spill;
+    }
+
+    public Spill.SpillStatus getPreviousStatus() {
+        return previousStatus;
+    }
+}
@@ -0,0 +1,17 @@
+package com.dispersion.event;
+
+/**
+ * Published after a station's harmonic tide constituents have been replaced
+ */
+public class TideModelUpdatedEvent {
+
+    private final String stationId;
+
+    public TideModelUpdatedEvent(String stationId) {
+        this.stationId = stationId;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+}
@@ -0,0 +1,18 @@
+package com.dispersion.event;
+
+/**
+ * Published when an NWS hourly forecast has been fetched with values that
+ * differ from the ones cached for its grid URL
+ */
+public class WeatherForecastUpdatedEvent {
+
+    private final String forecastUrl;
+
+    public WeatherForecastUpdatedEvent(String forecastUrl) {
+        this.forecastUrl = forecastUrl;
+    }
+
+    public String getForecastUrl() {
+        return forecastUrl;
+    }
+}
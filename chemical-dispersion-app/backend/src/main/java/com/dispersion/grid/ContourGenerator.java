@@ -0,0 +1,302 @@
+package com.dispersion.grid;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Isolines of a grid by marching squares, plus Douglas-Peucker simplification.
+ *
+ * Samples sit on integer grid coordinates (x = row, y = column). The grid is
+ * treated as surrounded by zeros, so every isoline for a positive level is a
+ * closed ring, which is what a map needs to draw a filled plume outline.
+ * Segments are stitched through the cell edges they cross: every crossed edge
+ * is shared by exactly two cells, so each ring is walked edge to edge without
+ * any coordinate matching. Saddle cells are resolved with the cell average.
+ */
+public final class ContourGenerator {
+
+    private ContourGenerator() {
+    }
+
+    /**
+     * Closed isolines at {@code level}, each as {x0, y0, x1, y1, ...} in grid
+     * coordinates with the first point repeated at the end
+     */
+    public static List<double[]> isolines(GridStorage grid, double level) {
+        int rows = grid.rows();
+        int cols = grid.cols();
+        // Padded by one sample of zero on every side
+        int width = cols + 2;
+        double[] lower = new double[width];
+        double[] upper = new double[width];
+        Map<Integer, Node> nodes = new LinkedHashMap<>();
+
+        for (int i = -1; i < rows; i++) {
+            if (i == -1) {
+                Arrays.fill(lower, 0.0);
+            } else {
+                double[] tmp = lower;
+                lower = upper;
+                upper = tmp;
+            }
+            if (i + 1 < rows) {
+                grid.readRow(i + 1, upper, 1);
+                upper[0] = 0.0;
+                upper[width - 1] = 0.0;
+            } else {
+                Arrays.fill(upper, 0.0);
+            }
+
+            for (int j = -1; j < cols; j++) {
+                double a = lower[j + 1];
+                double b = upper[j + 1];
+                double c = upper[j + 2];
+                double d = lower[j + 2];
+                int index = (a > level ? 1 : 0) | (b > level ? 2 : 0) | (c > level ? 4 : 0) | (d > level ? 8 : 0);
+                if (index == 0 || index == 15) {
+                    continue;
+                }
+                marchCell(nodes, width, i, j, a, b, c, d, index, level);
+            }
+        }
+        return walkRings(nodes);
+    }
+
+    /**
+     * Douglas-Peucker simplification of a polyline in the same flat layout;
+     * endpoints are always kept
+     */
+    public static double[] simplify(double[] line, double tolerance) {
+        int points = line.length / 2;
+        if (points <= 2 || tolerance <= 0.0) {
+            return line;
+        }
+        boolean[] keep = new boolean[points];
+        keep[0] = true;
+        keep[points - 1] = true;
+        double toleranceSq = tolerance * tolerance;
+
+        Deque<int[]> spans = new ArrayDeque<>();
+        spans.push(new int[] { 0, points - 1 });
+        while (!spans.isEmpty()) {
+            int[] span = spans.pop();
+            int from = span[0];
+            int to = span[1];
+            double worst = -1.0;
+            int worstIndex = -1;
+            for (int k = from + 1; k < to; k++) {
+                double distanceSq = segmentDistanceSq(line, k, from, to);
+                if (distanceSq > worst) {
+                    worst = distanceSq;
+                    worstIndex = k;
+                }
+            }
+            if (worstIndex >= 0 && worst > toleranceSq) {
+                keep[worstIndex] = true;
+                spans.push(new int[] { from, worstIndex });
+                spans.push(new int[] { worstIndex, to });
+            }
+        }
+
+        int kept = 0;
+        for (boolean k : keep) {
+            if (k) {
+                kept++;
+            }
+        }
+        double[] out = new double[kept * 2];
+        int n = 0;
+        for (int k = 0; k < points; k++) {
+            if (keep[k]) {
+                out[n++] = line[2 * k];
+                out[n++] = line[2 * k + 1];
+            }
+        }
+        return out;
+    }
+
+    /*
+     * Corners: a = (i, j), b = (i + 1, j), c = (i + 1, j + 1), d = (i, j + 1).
+     * Edges: 0 = a-b, 1 = b-c, 2 = d-c, 3 = a-d.
+     */
+    private static void marchCell(Map<Integer, Node> nodes, int width, int i, int j, double a, double b, double c,
+            double d, int index, double level) {
+        switch (index) {
+            case 1:
+            case 14:
+                link(nodes, width, i, j, 3, 0, a, b, c, d, level);
+                break;
+            case 2:
+            case 13:
+                link(nodes, width, i, j, 0, 1, a, b, c, d, level);
+                break;
+            case 3:
+            case 12:
+                link(nodes, width, i, j, 3, 1, a, b, c, d, level);
+                break;
+            case 4:
+            case 11:
+                link(nodes, width, i, j, 1, 2, a, b, c, d, level);
+                break;
+            case 6:
+            case 9:
+                link(nodes, width, i, j, 0, 2, a, b, c, d, level);
+                break;
+            case 7:
+            case 8:
+                link(nodes, width, i, j, 3, 2, a, b, c, d, level);
+                break;
+            case 5:
+            case 10:
+                boolean centreAbove = (a + b + c + d) / 4.0 > level;
+                if ((index == 5) == centreAbove) {
+                    // Cut off corners b and d
+                    link(nodes, width, i, j, 0, 1, a, b, c, d, level);
+                    link(nodes, width, i, j, 2, 3, a, b, c, d, level);
+                } else {
+                    // Cut off corners a and c
+                    link(nodes, width, i, j, 3, 0, a, b, c, d, level);
+                    link(nodes, width, i, j, 1, 2, a, b, c, d, level);
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    private static void link(Map<Integer, Node> nodes, int width, int i, int j, int edgeA, int edgeB, double a,
+            double b, double c, double d, double level) {
+        Node first = node(nodes, width, i, j, edgeA, a, b, c, d, level);
+        Node second = node(nodes, width, i, j, edgeB, a, b, c, d, level);
+        first.connect(second.key);
+        second.connect(first.key);
+    }
+
+    private static Node node(Map<Integer, Node> nodes, int width, int i, int j, int edge, double a, double b,
+            double c, double d, double level) {
+        // Horizontal edges (along i) get even keys, vertical ones (along j) odd keys
+        int key;
+        switch (edge) {
+            case 0:
+                key = sampleKey(width, i, j) * 2;
+                break;
+            case 1:
+                key = sampleKey(width, i + 1, j) * 2 + 1;
+                break;
+            case 2:
+                key = sampleKey(width, i, j + 1) * 2;
+                break;
+            default:
+                key = sampleKey(width, i, j) * 2 + 1;
+                break;
+        }
+        Node existing = nodes.get(key);
+        if (existing != null) {
+            return existing;
+        }
+
+        double x;
+        double y;
+        switch (edge) {
+            case 0:
+                x = i + fraction(a, b, level);
+                y = j;
+                break;
+            case 1:
+                x = i + 1;
+                y = j + fraction(b, c, level);
+                break;
+            case 2:
+                x = i + fraction(d, c, level);
+                y = j + 1;
+                break;
+            default:
+                x = i;
+                y = j + fraction(a, d, level);
+                break;
+        }
+        Node created = new Node(key, x, y);
+        nodes.put(key, created);
+        return created;
+    }
+
+    private static int sampleKey(int width, int i, int j) {
+        return (i + 1) * width + (j + 1);
+    }
+
+    private static double fraction(double from, double to, double level) {
+        double t = (level - from) / (to - from);
+        return t < 0.0 ? 0.0 : (t > 1.0 ? 1.0 : t);
+    }
+
+    private static List<double[]> walkRings(Map<Integer, Node> nodes) {
+        List<double[]> rings = new ArrayList<>();
+        for (Node start : nodes.values()) {
+            if (start.visited) {
+                continue;
+            }
+            List<Node> ring = new ArrayList<>();
+            Node previous = null;
+            Node current = start;
+            while (current != null && !current.visited) {
+                current.visited = true;
+                ring.add(current);
+                int next = previous == null || current.first != previous.key ? current.first : current.second;
+                previous = current;
+                current = next >= 0 ? nodes.get(next) : null;
+            }
+            double[] line = new double[(ring.size() + 1) * 2];
+            for (int k = 0; k < ring.size(); k++) {
+                line[2 * k] = ring.get(k).x;
+                line[2 * k + 1] = ring.get(k).y;
+            }
+            line[line.length - 2] = start.x;
+            line[line.length - 1] = start.y;
+            rings.add(line);
+        }
+        return rings;
+    }
+
+    private static double segmentDistanceSq(double[] line, int k, int from, int to) {
+        double px = line[2 * k];
+        double py = line[2 * k + 1];
+        double ax = line[2 * from];
+        double ay = line[2 * from + 1];
+        double dx = line[2 * to] - ax;
+        double dy = line[2 * to + 1] - ay;
+        double lengthSq = dx * dx + dy * dy;
+        double t = lengthSq > 0.0 ? ((px - ax) * dx + (py - ay) * dy) / lengthSq : 0.0;
+        t = t < 0.0 ? 0.0 : (t > 1.0 ? 1.0 : t);
+        double ex = ax + t * dx - px;
+        double ey = ay + t * dy - py;
+        return ex * ex + ey * ey;
+    }
+
+    private static final class Node {
+        final int key;
+        final double x;
+        final double y;
+        int first = -1;
+        int second = -1;
+        boolean visited;
+
+        Node(int key, double x, double y) {
+            this.key = key;
+            this.x = x;
+            this.y = y;
+        }
+
+        void connect(int other) {
+            if (first < 0) {
+                first = other;
+            } else {
+                second = other;
+            }
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.dispersion.grid;
+
+import java.util.Arrays;
+
+/**
+ * Heap storage backed by a single double[]
+ */
+public class DoubleGridStorage implements GridStorage {
+
+    private final int rows;
+    private final int cols;
+    private final double[] values;
+
+    public DoubleGridStorage(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.values = new double[rows * cols];
+    }
+
+    @Override
+    public Type type() {
+        return Type.DOUBLE;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public void set(int index, double value) {
+        values[index] = value;
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(values, value);
+    }
+
+    @Override
+    public void readRow(int row, double[] dst, int offset) {
+        System.arraycopy(values, row * cols, dst, offset, cols);
+    }
+
+    @Override
+    public void writeRow(int row, double[] src, int offset) {
+        System.arraycopy(src, offset, values, row * cols, cols);
+    }
+
+    @Override
+    public double max() {
+        double max = 0.0;
+        for (double v : values) {
+            if (v > max) {
+                max = v;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int countAbove(double threshold) {
+        int count = 0;
+        for (double v : values) {
+            if (v > threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public double[] toArray() {
+        return values.clone();
+    }
+}
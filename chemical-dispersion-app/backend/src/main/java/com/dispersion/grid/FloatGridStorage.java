@@ -0,0 +1,88 @@
+package com.dispersion.grid;
+
+import java.util.Arrays;
+
+/**
+ * Heap storage backed by a single float[]; half the footprint of
+ * {@link DoubleGridStorage} at single precision
+ */
+public class FloatGridStorage implements GridStorage {
+
+    private final int rows;
+    private final int cols;
+    private final float[] values;
+
+    public FloatGridStorage(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.values = new float[rows * cols];
+    }
+
+    @Override
+    public Type type() {
+        return Type.FLOAT;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double get(int index) {
+        return values[index];
+    }
+
+    @Override
+    public void set(int index, double value) {
+        values[index] = (float) value;
+    }
+
+    @Override
+    public void fill(double value) {
+        Arrays.fill(values, (float) value);
+    }
+
+    @Override
+    public void readRow(int row, double[] dst, int offset) {
+        int base = row * cols;
+        for (int c = 0; c < cols; c++) {
+            dst[offset + c] = values[base + c];
+        }
+    }
+
+    @Override
+    public void writeRow(int row, double[] src, int offset) {
+        int base = row * cols;
+        for (int c = 0; c < cols; c++) {
+            values[base + c] = (float) src[offset + c];
+        }
+    }
+
+    @Override
+    public double max() {
+        float max = 0.0f;
+        for (float v : values) {
+            if (v > max) {
+                max = v;
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int countAbove(double threshold) {
+        int count = 0;
+        for (float v : values) {
+            if (v > threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,232 @@
+package com.dispersion.grid;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Compact binary encoding of grid values.
+ *
+ * Plumes are mostly zero, so values are written as alternating runs: a
+ * varint count of zero cells, a varint count of literal cells, then the
+ * literal values (little-endian float32, or uint16 quantized against a
+ * scale). Runs repeat until every cell of the grid is covered.
+ *
+ * {@link #encodeFrame} wraps a payload in a self-describing frame:
+ *
+ * <pre>
+ *  0  magic "DGRD"
+ *  4  u8  version (1)
+ *  5  u8  format (1 = float32, 2 = uint16)
+ *  6  u8  flags (bit 0: zero-run encoded)
+ *  7  u8  reserved
+ *  8  i32 gridSize (cells per side, row-major, row = east-west index)
+ * 12  f64 centerLat
+ * 20  f64 centerLon
+ * 28  f64 cellSize (m)
+ * 36  f64 scale (uint16: value = q * scale; float32: 1.0)
+ * 44  i32 payload length
+ * 48  payload
+ * </pre>
+ *
+ * All multi-byte fields are little-endian.
+ */
+public final class GridCodec {
+
+    public enum Format {
+        FLOAT32(1),
+        UINT16(2);
+
+        private final int code;
+
+        Format(int code) {
+            this.code = code;
+        }
+
+        public int getCode() {
+            return code;
+        }
+
+        static Format fromCode(int code) {
+            for (Format format : values()) {
+                if (format.code == code) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown grid format code " + code);
+        }
+    }
+
+    public static final int HEADER_BYTES = 48;
+
+    private static final byte[] MAGIC = { 'D', 'G', 'R', 'D' };
+    private static final int VERSION = 1;
+    private static final int FLAG_ZERO_RUNS = 1;
+    private static final int UINT16_MAX = 0xFFFF;
+
+    private GridCodec() {
+    }
+
+    /**
+     * Zero-run encoded float32 values of the whole grid, row-major
+     */
+    public static byte[] encodeFloat32(GridStorage storage) {
+        return encodeValues(storage, Format.FLOAT32, 1.0);
+    }
+
+    /**
+     * Decode {@link #encodeFloat32} output into {@code target}, which must
+     * have the same number of cells as the encoded grid
+     */
+    public static void decodeFloat32(byte[] encoded, GridStorage target) {
+        decodeValues(ByteBuffer.wrap(encoded).order(ByteOrder.LITTLE_ENDIAN), target, Format.FLOAT32, 1.0);
+    }
+
+    /**
+     * Quantization step that maps the grid maximum to the top uint16 value
+     */
+    public static double uint16Scale(GridStorage storage) {
+        double max = storage.max();
+        return max > 0.0 ? max / UINT16_MAX : 1.0;
+    }
+
+    /**
+     * Complete frame (header and zero-run payload) for one grid
+     */
+    public static byte[] encodeFrame(double centerLat, double centerLon, double cellSize, GridStorage storage,
+            Format format) {
+        double scale = format == Format.UINT16 ? uint16Scale(storage) : 1.0;
+        byte[] payload = encodeValues(storage, format, scale);
+
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + payload.length).order(ByteOrder.LITTLE_ENDIAN);
+        frame.put(MAGIC);
+        frame.put((byte) VERSION);
+        frame.put((byte) format.getCode());
+        frame.put((byte) FLAG_ZERO_RUNS);
+        frame.put((byte) 0);
+        frame.putInt(storage.rows());
+        frame.putDouble(centerLat);
+        frame.putDouble(centerLon);
+        frame.putDouble(cellSize);
+        frame.putDouble(scale);
+        frame.putInt(payload.length);
+        frame.put(payload);
+        return frame.array();
+    }
+
+    /**
+     * Decode the values of a frame produced by {@link #encodeFrame} into
+     * {@code target}; header fields other than the format are not checked
+     * against the target beyond the cell count
+     */
+    public static void decodeFrame(byte[] frame, GridStorage target) {
+        ByteBuffer in = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+        for (byte b : MAGIC) {
+            if (in.get() != b) {
+                throw new IllegalArgumentException("Not a grid frame");
+            }
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported grid frame version " + version);
+        }
+        Format format = Format.fromCode(in.get());
+        in.get(); // flags
+        in.get(); // reserved
+        int gridSize = in.getInt();
+        if ((long) gridSize * gridSize != target.length()) {
+            throw new IllegalArgumentException("Frame is " + gridSize + "x" + gridSize + ", target has "
+                    + target.length() + " cells");
+        }
+        in.position(36);
+        double scale = in.getDouble();
+        int payloadLength = in.getInt();
+        ByteBuffer payload = in.slice().order(ByteOrder.LITTLE_ENDIAN);
+        payload.limit(payloadLength);
+        decodeValues(payload, target, format, scale);
+    }
+
+    static byte[] encodeValues(GridStorage storage, Format format, double scale) {
+        int length = storage.length();
+        double[] values = storage.toArray();
+        int width = format == Format.UINT16 ? 2 : 4;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, length / 4));
+        byte[] literal = new byte[4];
+
+        // Quantize in place so zero detection matches what is written
+        for (int k = 0; k < length; k++) {
+            values[k] = format == Format.UINT16
+                    ? Math.min(UINT16_MAX, Math.max(0, Math.round(values[k] / scale)))
+                    : (float) values[k];
+        }
+
+        int k = 0;
+        while (k < length) {
+            int zeroStart = k;
+            while (k < length && values[k] == 0.0) {
+                k++;
+            }
+            int literalStart = k;
+            while (k < length && values[k] != 0.0) {
+                k++;
+            }
+            writeVarint(out, literalStart - zeroStart);
+            writeVarint(out, k - literalStart);
+            for (int n = literalStart; n < k; n++) {
+                int bits = format == Format.UINT16 ? (int) values[n] : Float.floatToRawIntBits((float) values[n]);
+                literal[0] = (byte) bits;
+                literal[1] = (byte) (bits >>> 8);
+                literal[2] = (byte) (bits >>> 16);
+                literal[3] = (byte) (bits >>> 24);
+                out.write(literal, 0, width);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    static void decodeValues(ByteBuffer in, GridStorage target, Format format, double scale) {
+        int length = target.length();
+        int k = 0;
+        while (k < length && in.hasRemaining()) {
+            int zeros = readVarint(in);
+            int literals = readVarint(in);
+            if (k + zeros + literals > length) {
+                throw new IllegalArgumentException("Encoded grid is larger than the target grid");
+            }
+            for (int n = 0; n < zeros; n++) {
+                target.set(k++, 0.0);
+            }
+            for (int n = 0; n < literals; n++) {
+                double value = format == Format.UINT16 ? (in.getShort() & UINT16_MAX) * scale : in.getFloat();
+                target.set(k++, value);
+            }
+        }
+        if (k != length) {
+            throw new IllegalArgumentException("Encoded grid has " + k + " cells, expected " + length);
+        }
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    static int readVarint(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 28) {
+                throw new IllegalArgumentException("Malformed varint in encoded grid");
+            }
+        }
+    }
+}
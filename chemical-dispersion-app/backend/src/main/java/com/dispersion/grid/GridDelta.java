@@ -0,0 +1,125 @@
+package com.dispersion.grid;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tile-level difference between two versions of the same grid.
+ *
+ * The grid is cut into square tiles of {@code tileSize} cells (smaller at
+ * the right and bottom edges). A tile is reported, with all of its values,
+ * when any cell differs from the previous version by more than the
+ * tolerance; a client applying the tiles to its copy of the previous grid
+ * ends up with the current one. Without a previous version every tile that
+ * has a value above the tolerance is reported and the rest are zero.
+ */
+public final class GridDelta {
+
+    private GridDelta() {
+    }
+
+    /**
+     * @param previous row-major values of the last version sent, or null
+     * @param current  row-major values of the new version, same dimensions
+     */
+    public static List<Tile> changedTiles(double[] previous, double[] current, int rows, int cols, int tileSize,
+            double tolerance) {
+        if (current.length != rows * cols || (previous != null && previous.length != current.length)) {
+            throw new IllegalArgumentException("Grid dimensions do not match " + rows + "x" + cols);
+        }
+        int size = Math.max(1, tileSize);
+        List<Tile> tiles = new ArrayList<>();
+        for (int tileRow = 0; tileRow < rows; tileRow += size) {
+            int tileRows = Math.min(size, rows - tileRow);
+            for (int tileCol = 0; tileCol < cols; tileCol += size) {
+                int tileCols = Math.min(size, cols - tileCol);
+                if (changed(previous, current, cols, tileRow, tileCol, tileRows, tileCols, tolerance)) {
+                    tiles.add(tile(current, cols, tileRow, tileCol, tileRows, tileCols));
+                }
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * Write the tiles into {@code grid} (row-major, {@code cols} wide), as a
+     * client does with the tiles it receives
+     */
+    public static void apply(double[] grid, int cols, List<Tile> tiles) {
+        for (Tile tile : tiles) {
+            float[] values = tile.getValues();
+            int k = 0;
+            for (int r = tile.getRow(); r < tile.getRow() + tile.getRows(); r++) {
+                int base = r * cols;
+                for (int c = tile.getCol(); c < tile.getCol() + tile.getCols(); c++) {
+                    grid[base + c] = values[k++];
+                }
+            }
+        }
+    }
+
+    private static boolean changed(double[] previous, double[] current, int cols, int tileRow, int tileCol,
+            int tileRows, int tileCols, double tolerance) {
+        for (int r = tileRow; r < tileRow + tileRows; r++) {
+            int base = r * cols;
+            for (int c = tileCol; c < tileCol + tileCols; c++) {
+                double before = previous != null ? previous[base + c] : 0.0;
+                if (Math.abs(current[base + c] - before) > tolerance) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static Tile tile(double[] current, int cols, int tileRow, int tileCol, int tileRows, int tileCols) {
+        float[] values = new float[tileRows * tileCols];
+        int k = 0;
+        for (int r = tileRow; r < tileRow + tileRows; r++) {
+            int base = r * cols;
+            for (int c = tileCol; c < tileCol + tileCols; c++) {
+                values[k++] = (float) current[base + c];
+            }
+        }
+        return new Tile(tileRow, tileCol, tileRows, tileCols, values);
+    }
+
+    /**
+     * Replacement values for a block of cells, row-major within the block
+     */
+    public static final class Tile {
+        private final int row;
+        private final int col;
+        private final int rows;
+        private final int cols;
+        private final float[] values;
+
+        public Tile(int row, int col, int rows, int cols, float[] values) {
+            this.row = row;
+            this.col = col;
+            this.rows = rows;
+            this.cols = cols;
+            this.values = values;
+        }
+
+        public int getRow() {
+            return row;
+        }
+
+        public int getCol() {
+            return col;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public float[] getValues() {
+            return values;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.dispersion.grid;
+
+import java.util.Locale;
+
+/**
+ * Row-major addressed storage for a concentration grid.
+ *
+ * Cells are addressed by a flat index ({@code row * cols + col}). The indexed
+ * accessors do not validate their arguments beyond what the backing buffer
+ * does itself; callers that scan the whole grid should use the bulk row
+ * accessors instead of going cell by cell.
+ */
+public interface GridStorage {
+
+    enum Type {
+        DOUBLE,
+        FLOAT,
+        OFF_HEAP,
+        SPARSE;
+
+        /**
+         * Parse a configuration value such as "double", "float", "off-heap" or "sparse"
+         */
+        public static Type fromProperty(String value) {
+            if (value == null || value.isBlank()) {
+                return DOUBLE;
+            }
+            return Type.valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        }
+    }
+
+    static GridStorage allocate(Type type, int rows, int cols) {
+        return allocate(type, rows, cols, SparseGridStorage.DEFAULT_FLOOR);
+    }
+
+    /**
+     * @param floor values at or below this are not stored by {@link Type#SPARSE}
+     *              storage; ignored by the dense types
+     */
+    static GridStorage allocate(Type type, int rows, int cols, double floor) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Grid dimensions must be positive: " + rows + "x" + cols);
+        }
+        switch (type) {
+            case FLOAT:
+                return new FloatGridStorage(rows, cols);
+            case OFF_HEAP:
+                return new OffHeapGridStorage(rows, cols);
+            case SPARSE:
+                return new SparseGridStorage(rows, cols, floor);
+            case DOUBLE:
+            default:
+                return new DoubleGridStorage(rows, cols);
+        }
+    }
+
+    Type type();
+
+    int rows();
+
+    int cols();
+
+    default int length() {
+        return rows() * cols();
+    }
+
+    default int index(int row, int col) {
+        return row * cols() + col;
+    }
+
+    double get(int index);
+
+    void set(int index, double value);
+
+    default void fill(double value) {
+        for (int k = 0, n = length(); k < n; k++) {
+            set(k, value);
+        }
+    }
+
+    /**
+     * Copy one row into {@code dst} starting at {@code offset}
+     */
+    default void readRow(int row, double[] dst, int offset) {
+        int base = row * cols();
+        for (int c = 0, n = cols(); c < n; c++) {
+            dst[offset + c] = get(base + c);
+        }
+    }
+
+    /**
+     * Overwrite one row with values from {@code src} starting at {@code offset}
+     */
+    default void writeRow(int row, double[] src, int offset) {
+        int base = row * cols();
+        for (int c = 0, n = cols(); c < n; c++) {
+            set(base + c, src[offset + c]);
+        }
+    }
+
+    default double max() {
+        double max = 0.0;
+        for (int k = 0, n = length(); k < n; k++) {
+            double v = get(k);
+            if (v > max) {
+                max = v;
+            }
+        }
+        return max;
+    }
+
+    default int countAbove(double threshold) {
+        int count = 0;
+        for (int k = 0, n = length(); k < n; k++) {
+            if (get(k) > threshold) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Copy the whole grid into a new row-major array
+     */
+    default double[] toArray() {
+        double[] out = new double[length()];
+        for (int r = 0, n = rows(); r < n; r++) {
+            readRow(r, out, r * cols());
+        }
+        return out;
+    }
+}
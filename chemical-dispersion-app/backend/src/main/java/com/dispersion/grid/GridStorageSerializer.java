@@ -0,0 +1,34 @@
+package com.dispersion.grid;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a grid as nested JSON arrays (one array per row) straight from the
+ * backing storage, without materialising a double[][] first.
+ */
+public class GridStorageSerializer extends StdSerializer<GridStorage> {
+
+    private static final long serialVersionUID = 1L;
+
+    public GridStorageSerializer() {
+        super(GridStorage.class);
+    }
+
+    @Override
+    public void serialize(GridStorage storage, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        int rows = storage.rows();
+        int cols = storage.cols();
+        double[] row = new double[cols];
+
+        gen.writeStartArray(storage, rows);
+        for (int r = 0; r < rows; r++) {
+            storage.readRow(r, row, 0);
+            gen.writeArray(row, 0, cols);
+        }
+        gen.writeEndArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.dispersion.grid;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Direct (off-heap) storage so large or long-lived grids stay out of the
+ * Java heap. The native memory is released when the storage is collected.
+ */
+public class OffHeapGridStorage implements GridStorage {
+
+    private final int rows;
+    private final int cols;
+    private final DoubleBuffer values;
+
+    public OffHeapGridStorage(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.values = ByteBuffer.allocateDirect(rows * cols * Double.BYTES)
+                .order(ByteOrder.nativeOrder())
+                .asDoubleBuffer();
+    }
+
+    @Override
+    public Type type() {
+        return Type.OFF_HEAP;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public void set(int index, double value) {
+        values.put(index, value);
+    }
+
+    @Override
+    public void readRow(int row, double[] dst, int offset) {
+        values.get(row * cols, dst, offset, cols);
+    }
+
+    @Override
+    public void writeRow(int row, double[] src, int offset) {
+        values.put(row * cols, src, offset, cols);
+    }
+}
@@ -0,0 +1,215 @@
+package com.dispersion.grid;
+
+import java.util.Arrays;
+
+/**
+ * Tiled storage that only allocates the parts of the grid a plume reaches.
+ *
+ * The grid is split into {@link #TILE_SIZE} x {@link #TILE_SIZE} tiles. A
+ * tile is allocated the first time a value above the floor is written into
+ * it; values at or below the floor read back as zero. Memory, scans and
+ * serialization therefore scale with the plume footprint rather than with
+ * the grid extent. Tiles hold doubles, so allocated cells keep full
+ * precision.
+ *
+ * Writers of distinct tile rows may run concurrently (the plume kernel
+ * splits its work on tile-row boundaries); anything else needs external
+ * synchronization, as with the other storages.
+ */
+public class SparseGridStorage implements GridStorage {
+
+    public static final int TILE_SIZE = 16;
+
+    /** Floor used when none is configured */
+    public static final double DEFAULT_FLOOR = 1e-3;
+
+    private static final int TILE_SHIFT = 4;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+    private static final int TILE_CELLS = TILE_SIZE * TILE_SIZE;
+
+    private final int rows;
+    private final int cols;
+    private final int tileCols;
+    private final double floor;
+    private final double[][] tiles;
+
+    public SparseGridStorage(int rows, int cols) {
+        this(rows, cols, DEFAULT_FLOOR);
+    }
+
+    public SparseGridStorage(int rows, int cols, double floor) {
+        this.rows = rows;
+        this.cols = cols;
+        this.tileCols = (cols + TILE_MASK) >> TILE_SHIFT;
+        this.floor = Math.max(0.0, floor);
+        this.tiles = new double[((rows + TILE_MASK) >> TILE_SHIFT) * tileCols][];
+    }
+
+    @Override
+    public Type type() {
+        return Type.SPARSE;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    public double getFloor() {
+        return floor;
+    }
+
+    /**
+     * Number of tiles currently holding values
+     */
+    public int allocatedTiles() {
+        int count = 0;
+        for (double[] tile : tiles) {
+            if (tile != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public double get(int index) {
+        int row = index / cols;
+        int col = index - row * cols;
+        double[] tile = tiles[tileIndex(row, col)];
+        return tile != null ? tile[cellIndex(row, col)] : 0.0;
+    }
+
+    @Override
+    public void set(int index, double value) {
+        int row = index / cols;
+        int col = index - row * cols;
+        int t = tileIndex(row, col);
+        double[] tile = tiles[t];
+        if (value <= floor) {
+            if (tile != null) {
+                tile[cellIndex(row, col)] = 0.0;
+            }
+            return;
+        }
+        if (tile == null) {
+            tile = new double[TILE_CELLS];
+            tiles[t] = tile;
+        }
+        tile[cellIndex(row, col)] = value;
+    }
+
+    @Override
+    public void fill(double value) {
+        if (value <= floor) {
+            Arrays.fill(tiles, null);
+            return;
+        }
+        for (int t = 0; t < tiles.length; t++) {
+            if (tiles[t] == null) {
+                tiles[t] = new double[TILE_CELLS];
+            }
+            // Edge tiles keep their padding at zero for max() and countAbove()
+            int tileRows = Math.min(TILE_SIZE, rows - (t / tileCols << TILE_SHIFT));
+            int tileWidth = Math.min(TILE_SIZE, cols - (t % tileCols << TILE_SHIFT));
+            for (int r = 0; r < tileRows; r++) {
+                Arrays.fill(tiles[t], r << TILE_SHIFT, (r << TILE_SHIFT) + tileWidth, value);
+            }
+        }
+    }
+
+    @Override
+    public void readRow(int row, double[] dst, int offset) {
+        int tileRowBase = (row >> TILE_SHIFT) * tileCols;
+        int cellRowBase = (row & TILE_MASK) << TILE_SHIFT;
+        for (int tc = 0; tc < tileCols; tc++) {
+            int from = tc << TILE_SHIFT;
+            int to = Math.min(cols, from + TILE_SIZE);
+            double[] tile = tiles[tileRowBase + tc];
+            if (tile == null) {
+                Arrays.fill(dst, offset + from, offset + to, 0.0);
+            } else {
+                System.arraycopy(tile, cellRowBase, dst, offset + from, to - from);
+            }
+        }
+    }
+
+    @Override
+    public void writeRow(int row, double[] src, int offset) {
+        int tileRowBase = (row >> TILE_SHIFT) * tileCols;
+        int cellRowBase = (row & TILE_MASK) << TILE_SHIFT;
+        for (int tc = 0; tc < tileCols; tc++) {
+            int from = tc << TILE_SHIFT;
+            int to = Math.min(cols, from + TILE_SIZE);
+            double[] tile = tiles[tileRowBase + tc];
+            if (tile == null) {
+                if (!anyAbove(src, offset + from, offset + to, floor)) {
+                    continue;
+                }
+                tile = new double[TILE_CELLS];
+                tiles[tileRowBase + tc] = tile;
+            }
+            for (int c = from; c < to; c++) {
+                double v = src[offset + c];
+                tile[cellRowBase + c - from] = v > floor ? v : 0.0;
+            }
+        }
+    }
+
+    @Override
+    public double max() {
+        double max = 0.0;
+        for (double[] tile : tiles) {
+            if (tile != null) {
+                for (double v : tile) {
+                    if (v > max) {
+                        max = v;
+                    }
+                }
+            }
+        }
+        return max;
+    }
+
+    @Override
+    public int countAbove(double threshold) {
+        if (threshold < 0.0) {
+            // Unallocated cells are zero and count too
+            return GridStorage.super.countAbove(threshold);
+        }
+        // Padding cells of edge tiles are never written, so they stay zero
+        int count = 0;
+        for (double[] tile : tiles) {
+            if (tile != null) {
+                for (double v : tile) {
+                    if (v > threshold) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private int tileIndex(int row, int col) {
+        return (row >> TILE_SHIFT) * tileCols + (col >> TILE_SHIFT);
+    }
+
+    private static int cellIndex(int row, int col) {
+        return ((row & TILE_MASK) << TILE_SHIFT) + (col & TILE_MASK);
+    }
+
+    private static boolean anyAbove(double[] values, int from, int to, double floor) {
+        for (int k = from; k < to; k++) {
+            if (values[k] > floor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
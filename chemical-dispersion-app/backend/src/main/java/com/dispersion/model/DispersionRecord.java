@@ -0,0 +1,141 @@
+package com.dispersion.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One persisted dispersion calculation. The concentration grid is stored as
+ * a compact encoding in the concentration_data JSONB column.
+ */
+@Entity
+@Table(name = "dispersion_results")
+public class DispersionRecord {
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "spill_id", nullable = false)
+    private UUID spillId;
+
+    @NotNull
+    @Column(name = "calculation_time", nullable = false)
+    private LocalDateTime calculationTime;
+
+    @NotNull
+    @Column(name = "simulation_time_hours", nullable = false)
+    private Integer simulationTimeHours;
+
+    @NotNull
+    @Column(name = "center_latitude", precision = 10, scale = 7, nullable = false)
+    private BigDecimal centerLatitude;
+
+    @NotNull
+    @Column(name = "center_longitude", precision = 10, scale = 7, nullable = false)
+    private BigDecimal centerLongitude;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "concentration_data", columnDefinition = "jsonb")
+    private String concentrationData;
+
+    @Column(name = "max_concentration", precision = 12, scale = 6)
+    private BigDecimal maxConcentration;
+
+    @Column(name = "affected_area_km2", precision = 10, scale = 4)
+    private BigDecimal affectedAreaKm2;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getSpillId() {
+        return spillId;
+    }
+
+    public void setSpillId(UUID spillId) {
+        this.spillId = spillId;
+    }
+
+    public LocalDateTime getCalculationTime() {
+        return calculationTime;
+    }
+
+    public void setCalculationTime(LocalDateTime calculationTime) {
+        this.calculationTime = calculationTime;
+    }
+
+    public Integer getSimulationTimeHours() {
+        return simulationTimeHours;
+    }
+
+    public void setSimulationTimeHours(Integer simulationTimeHours) {
+        this.simulationTimeHours = simulationTimeHours;
+    }
+
+    public BigDecimal getCenterLatitude() {
+        return centerLatitude;
+    }
+
+    public void setCenterLatitude(BigDecimal centerLatitude) {
+        this.centerLatitude = centerLatitude;
+    }
+
+    public BigDecimal getCenterLongitude() {
+        return centerLongitude;
+    }
+
+    public void setCenterLongitude(BigDecimal centerLongitude) {
+        this.centerLongitude = centerLongitude;
+    }
+
+    public String getConcentrationData() {
+        return concentrationData;
+    }
+
+    public void setConcentrationData(String concentrationData) {
+        this.concentrationData = concentrationData;
+    }
+
+    public BigDecimal getMaxConcentration() {
+        return maxConcentration;
+    }
+
+    public void setMaxConcentration(BigDecimal maxConcentration) {
+        this.maxConcentration = maxConcentration;
+    }
+
+    public BigDecimal getAffectedAreaKm2() {
+        return affectedAreaKm2;
+    }
+
+    public void setAffectedAreaKm2(BigDecimal affectedAreaKm2) {
+        this.affectedAreaKm2 = affectedAreaKm2;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,132 @@
+package com.dispersion.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.GenericGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Station metadata from monitoring_stations. Read-only from the application's
+ * point of view: the PostGIS location column is maintained in the database
+ * and not mapped here.
+ */
+@Entity
+@Table(name = "monitoring_stations")
+public class MonitoringStation {
+
+    public enum StationType {
+        WEATHER, TIDE, CURRENT, COMBINED
+    }
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "station_code", length = 20, nullable = false, unique = true)
+    private String stationCode;
+
+    @NotNull
+    @Column(nullable = false)
+    private String name;
+
+    @NotNull
+    @Column(precision = 10, scale = 7, nullable = false)
+    private BigDecimal latitude;
+
+    @NotNull
+    @Column(precision = 10, scale = 7, nullable = false)
+    private BigDecimal longitude;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(name = "station_type", length = 50, nullable = false)
+    private StationType stationType;
+
+    @Column(length = 100)
+    private String operator;
+
+    private Boolean active = true;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getStationCode() {
+        return stationCode;
+    }
+
+    public void setStationCode(String stationCode) {
+        this.stationCode = stationCode;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(BigDecimal latitude) {
+        this.latitude = latitude;
+    }
+
+    public BigDecimal getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(BigDecimal longitude) {
+        this.longitude = longitude;
+    }
+
+    public StationType getStationType() {
+        return stationType;
+    }
+
+    public void setStationType(StationType stationType) {
+        this.stationType = stationType;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public void setOperator(String operator) {
+        this.operator = operator;
+    }
+
+    public Boolean getActive() {
+        return active;
+    }
+
+    public void setActive(Boolean active) {
+        this.active = active;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.dispersion.model;
+
+import java.util.Locale;
+
+/**
+ * Coarse severity of a spill from its reported volume and chemical type,
+ * lowest first so levels compare by ordinal.
+ *
+ * CRITICAL matches the "critical" count of /dispersion/status: more than
+ * 10,000 units spilled, or a chemical reported as toxic or hazardous.
+ */
+public enum SpillSeverity {
+    LOW,
+    MEDIUM,
+    HIGH,
+    CRITICAL;
+
+    public static SpillSeverity of(Spill spill) {
+        double volume = spill.getVolume() != null ? spill.getVolume().doubleValue() : 0.0;
+        String chemical = spill.getChemicalType() != null ? spill.getChemicalType().toLowerCase(Locale.ROOT) : "";
+        if (volume > 10000 || chemical.contains("toxic") || chemical.contains("hazard")) {
+            return CRITICAL;
+        }
+        if (volume > 5000) {
+            return HIGH;
+        }
+        if (volume > 1000 || chemical.contains("oil")) {
+            return MEDIUM;
+        }
+        return LOW;
+    }
+
+    public boolean isAtLeast(SpillSeverity other) {
+        return other == null || compareTo(other) >= 0;
+    }
+}
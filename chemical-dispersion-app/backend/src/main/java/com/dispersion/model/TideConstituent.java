@@ -0,0 +1,129 @@
+package com.dispersion.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One harmonic constituent of a station's tide, relative to {@code datum}.
+ * The row named Z0 carries the mean water level above the datum.
+ */
+@Entity
+@Table(name = "tide_constituents", uniqueConstraints = @UniqueConstraint(columnNames = { "station_id", "name" }))
+public class TideConstituent {
+
+    public static final String MEAN_LEVEL = "Z0";
+
+    @Id
+    @GeneratedValue(generator = "UUID")
+    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @NotNull
+    @Column(name = "station_id", length = 20, nullable = false)
+    private String stationId;
+
+    @NotNull
+    @Column(length = 10, nullable = false)
+    private String name;
+
+    @NotNull
+    @Column(precision = 8, scale = 4, nullable = false)
+    private BigDecimal amplitude; // meters
+
+    @NotNull
+    @Column(precision = 7, scale = 3, nullable = false)
+    private BigDecimal phase; // Greenwich phase lag, degrees
+
+    @NotNull
+    @Column(precision = 12, scale = 7, nullable = false)
+    private BigDecimal speed; // degrees per hour
+
+    @Column(length = 20, nullable = false)
+    private String datum = "MLLW";
+
+    @Column(length = 50)
+    private String source;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public String getStationId() {
+        return stationId;
+    }
+
+    public void setStationId(String stationId) {
+        this.stationId = stationId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public BigDecimal getAmplitude() {
+        return amplitude;
+    }
+
+    public void setAmplitude(BigDecimal amplitude) {
+        this.amplitude = amplitude;
+    }
+
+    public BigDecimal getPhase() {
+        return phase;
+    }
+
+    public void setPhase(BigDecimal phase) {
+        this.phase = phase;
+    }
+
+    public BigDecimal getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(BigDecimal speed) {
+        this.speed = speed;
+    }
+
+    public String getDatum() {
+        return datum;
+    }
+
+    public void setDatum(String datum) {
+        this.datum = datum;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void setSource(String source) {
+        this.source = source;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
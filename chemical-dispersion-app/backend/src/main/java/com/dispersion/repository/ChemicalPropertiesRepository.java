@@ -2,8 +2,11 @@ package com.dispersion.repository;
 
 import com.dispersion.model.ChemicalProperties;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +16,10 @@ public interface ChemicalPropertiesRepository extends JpaRepository<ChemicalProp
 
     Optional<ChemicalProperties> findByNameIgnoreCase(String name);
 
+    // names must already be lower case
+    @Query("SELECT c FROM ChemicalProperties c WHERE LOWER(c.name) IN :names")
+    List<ChemicalProperties> findByLowerNameIn(@Param("names") Collection<String> names);
+
     List<ChemicalProperties> findByToxicityLevel(String toxicityLevel);
 
     Optional<ChemicalProperties> findByCid(Long cid);
@@ -0,0 +1,20 @@
+package com.dispersion.repository;
+
+import com.dispersion.model.DispersionRecord;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface DispersionRecordRepository extends JpaRepository<DispersionRecord, UUID> {
+
+    Page<DispersionRecord> findBySpillIdOrderByCalculationTimeDesc(UUID spillId, Pageable pageable);
+
+    long countBySpillId(UUID spillId);
+
+    void deleteByCalculationTimeBefore(LocalDateTime cutoffTime);
+}
@@ -0,0 +1,18 @@
+package com.dispersion.repository;
+
+import com.dispersion.model.MonitoringStation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface MonitoringStationRepository extends JpaRepository<MonitoringStation, UUID> {
+
+    List<MonitoringStation> findByActiveTrueAndStationTypeIn(Collection<MonitoringStation.StationType> types);
+
+    Optional<MonitoringStation> findByStationCode(String stationCode);
+}
@@ -0,0 +1,14 @@
+package com.dispersion.repository;
+
+import com.dispersion.model.TideConstituent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TideConstituentRepository extends JpaRepository<TideConstituent, UUID> {
+
+    List<TideConstituent> findByStationId(String stationId);
+}
@@ -1,107 +1,360 @@
 package com.dispersion.service;
 
+import com.dispersion.event.ChemicalUpdatedEvent;
 import com.dispersion.model.ChemicalProperties;
 import com.dispersion.repository.ChemicalPropertiesRepository;
+import com.dispersion.util.TtlCache;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+/**
+ * Chemical properties by name: memory, then chemical_properties, then PubChem.
+ *
+ * Resolved chemicals are cached in memory so spill calculations do not touch
+ * the database. Names PubChem does not know are cached negatively and answered
+ * with unsaved defaults, so a typo neither hits PubChem on every calculation
+ * nor ends up as a row in the table.
+ */
 @Service
 public class ChemicalService {
 
+    private static final String PROPERTIES = "MolecularFormula,MolecularWeight,IUPACName,IsomericSMILES";
+    // PubChem being down is not the same as the name being unknown; retry sooner
+    private static final Duration TRANSIENT_FAILURE_TTL = Duration.ofMinutes(1);
+
     @Autowired
     private ChemicalPropertiesRepository chemicalRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final UpstreamGuard upstreamGuard;
+    private final TtlCache<String, ChemicalProperties> chemicals;
+    private final TtlCache<String, Boolean> unknownNames;
+    private final Duration negativeTtl;
+    private final int batchSize;
+    private final int lookupConcurrency;
 
-    public ChemicalService(WebClient.Builder webClientBuilder, ObjectMapper objectMapper) {
-        this.webClient = webClientBuilder.baseUrl("https://pubchem.ncbi.nlm.nih.gov/rest/pug").build();
+    public ChemicalService(
+            WebClient.Builder webClientBuilder,
+            ObjectMapper objectMapper,
+            UpstreamGuard upstreamGuard,
+            @Value("${external-apis.pubchem.base-url:https://pubchem.ncbi.nlm.nih.gov/rest/pug}") String pubchemBaseUrl,
+            @Value("${app.chemicals.cache-max-entries:1000}") int cacheMaxEntries,
+            @Value("${app.chemicals.cache-ttl-minutes:1440}") long cacheTtlMinutes,
+            @Value("${app.chemicals.negative-ttl-minutes:30}") long negativeTtlMinutes,
+            @Value("${app.chemicals.batch-size:100}") int batchSize,
+            @Value("${app.chemicals.lookup-concurrency:4}") int lookupConcurrency) {
+        this.webClient = webClientBuilder.baseUrl(pubchemBaseUrl).build();
         this.objectMapper = objectMapper;
+        this.upstreamGuard = upstreamGuard;
+        this.chemicals = new TtlCache<>(cacheMaxEntries, Duration.ofMinutes(cacheTtlMinutes));
+        this.negativeTtl = Duration.ofMinutes(negativeTtlMinutes);
+        this.unknownNames = new TtlCache<>(cacheMaxEntries, negativeTtl);
+        this.batchSize = Math.max(1, batchSize);
+        this.lookupConcurrency = Math.max(1, lookupConcurrency);
     }
 
     public ChemicalProperties saveChemical(ChemicalProperties chemical) {
-        return chemicalRepository.save(chemical);
+        ChemicalProperties saved = chemicalRepository.save(chemical);
+        chemicals.put(key(saved.getName()), saved);
+        unknownNames.invalidate(key(saved.getName()));
+        eventPublisher.publishEvent(new ChemicalUpdatedEvent(saved.getName()));
+        return saved;
+    }
+
+    /**
+     * {@link #getOrFetchChemicalProperties} off the caller's thread; the
+     * repository is blocking JDBC, so it runs on the bounded elastic scheduler
+     */
+    public Mono<ChemicalProperties> fetchChemicalProperties(String chemicalName) {
+        ChemicalProperties cached = chemicals.get(key(chemicalName));
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.fromCallable(() -> getOrFetchChemicalProperties(chemicalName))
+                .subscribeOn(Schedulers.boundedElastic());
     }
 
     public ChemicalProperties getOrFetchChemicalProperties(String chemicalName) {
+        String key = key(chemicalName);
+        ChemicalProperties cached = chemicals.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        if (unknownNames.get(key) != null) {
+            return defaultChemical(chemicalName);
+        }
+
         // First check local database
         Optional<ChemicalProperties> existing = chemicalRepository.findByNameIgnoreCase(chemicalName);
         if (existing.isPresent()) {
+            chemicals.put(key, existing.get());
             return existing.get();
         }
 
         // Fetch from PubChem API
         try {
-            String url = String.format(
-                    "/compound/name/%s/property/MolecularFormula,MolecularWeight,IUPACName,IsomericSMILES/JSON",
-                    chemicalName.replace(" ", "%20"));
-
-            JsonNode response = webClient.get()
-                    .uri(url)
+            JsonNode response = upstreamGuard.guard(UpstreamGuard.PUBCHEM, webClient.get()
+                    .uri("/compound/name/{name}/property/" + PROPERTIES + "/JSON", chemicalName)
                     .retrieve()
-                    .bodyToMono(JsonNode.class)
+                    .bodyToMono(JsonNode.class))
                     .block();
 
-            if (response != null && response.has("PropertyTable") &&
-                    response.get("PropertyTable").has("Properties") &&
-                    response.get("PropertyTable").get("Properties").isArray() &&
-                    response.get("PropertyTable").get("Properties").size() > 0) {
+            JsonNode properties = response != null ? response.at("/PropertyTable/Properties/0") : null;
+            if (properties != null && !properties.isMissingNode()) {
+                ChemicalProperties chemical = chemicalRepository.save(fromPubChem(chemicalName, properties));
+                chemicals.put(key, chemical);
+                eventPublisher.publishEvent(new ChemicalUpdatedEvent(chemicalName));
+                return chemical;
+            }
+            unknownNames.put(key, Boolean.TRUE);
+        } catch (WebClientResponseException.NotFound e) {
+            System.err.println("PubChem does not know chemical " + chemicalName);
+            unknownNames.put(key, Boolean.TRUE);
+        } catch (Exception e) {
+            System.err.println("Error fetching chemical properties for " + chemicalName + ": " + e.getMessage());
+            unknownNames.put(key, Boolean.TRUE, TRANSIENT_FAILURE_TTL);
+        }
 
-                JsonNode properties = response.get("PropertyTable").get("Properties").get(0);
+        // Defaults are not persisted, so the name resolves properly once PubChem knows it
+        return defaultChemical(chemicalName);
+    }
 
-                ChemicalProperties chemical = new ChemicalProperties();
-                chemical.setName(chemicalName);
-                chemical.setCid(properties.get("CID").asLong());
+    /**
+     * Resolve many names at once, e.g. for a spill import: one database
+     * query for all names not in memory, then for the rest a CID lookup per
+     * name (PubChem's name search takes a single name) and a single property
+     * request per {@code app.chemicals.batch-size} CIDs. Names that cannot be
+     * resolved are left out of the result and cached negatively.
+     */
+    public Map<String, ChemicalProperties> getOrFetchChemicalProperties(Collection<String> chemicalNames) {
+        Map<String, ChemicalProperties> resolved = new LinkedHashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+        for (String name : new LinkedHashSet<>(chemicalNames)) {
+            String key = key(name);
+            ChemicalProperties cached = chemicals.get(key);
+            if (cached != null) {
+                resolved.put(name, cached);
+            } else if (unknownNames.get(key) == null) {
+                missing.putIfAbsent(key, name);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
 
-                if (properties.has("MolecularFormula")) {
-                    chemical.setMolecularFormula(properties.get("MolecularFormula").asText());
-                }
+        for (ChemicalProperties chemical : chemicalRepository.findByLowerNameIn(missing.keySet())) {
+            String name = missing.remove(key(chemical.getName()));
+            if (name != null) {
+                chemicals.put(key(name), chemical);
+                resolved.put(name, chemical);
+            }
+        }
+        if (missing.isEmpty()) {
+            return resolved;
+        }
 
-                if (properties.has("MolecularWeight")) {
-                    chemical.setMolecularWeight(BigDecimal.valueOf(properties.get("MolecularWeight").asDouble()));
-                }
+        List<ChemicalProperties> unsaved = new ArrayList<>();
+        List<ChemicalProperties> stored = store(fetchByCid(lookupCids(missing.values())), unsaved);
+        for (ChemicalProperties chemical : stored) {
+            chemicals.put(key(chemical.getName()), chemical);
+            eventPublisher.publishEvent(new ChemicalUpdatedEvent(chemical.getName()));
+        }
+        // Still usable for this request, but looked up again soon instead of cached for a day
+        for (ChemicalProperties chemical : unsaved) {
+            chemicals.put(key(chemical.getName()), chemical, TRANSIENT_FAILURE_TTL);
+        }
 
-                if (properties.has("IUPACName")) {
-                    chemical.setIupacName(properties.get("IUPACName").asText());
-                }
+        // Also covers names that only differ in case from one that was looked up
+        for (String name : chemicalNames) {
+            ChemicalProperties chemical = chemicals.get(key(name));
+            if (chemical != null) {
+                resolved.putIfAbsent(name, chemical);
+            }
+        }
+        return resolved;
+    }
 
-                if (properties.has("IsomericSMILES")) {
-                    chemical.setSmiles(properties.get("IsomericSMILES").asText());
+    /**
+     * Insert fetched chemicals, falling back to one row at a time so a name
+     * stored meanwhile (name is unique, e.g. by a single-name lookup) does
+     * not lose the rest; such names resolve to the stored row. Rows that
+     * could not be stored either way are added to {@code unsaved}.
+     */
+    private List<ChemicalProperties> store(List<ChemicalProperties> fetched, List<ChemicalProperties> unsaved) {
+        if (fetched.isEmpty()) {
+            return fetched;
+        }
+        try {
+            return chemicalRepository.saveAll(fetched);
+        } catch (Exception e) {
+            System.err.println("Batch insert of " + fetched.size() + " chemicals failed, retrying individually: "
+                    + e.getMessage());
+        }
+        List<ChemicalProperties> stored = new ArrayList<>();
+        Map<String, ChemicalProperties> conflicting = new LinkedHashMap<>();
+        for (ChemicalProperties chemical : fetched) {
+            // The rolled-back batch already assigned ids; without one the retry is an insert, not a merge
+            chemical.setId(null);
+            try {
+                stored.add(chemicalRepository.save(chemical));
+            } catch (Exception single) {
+                conflicting.put(key(chemical.getName()), chemical);
+            }
+        }
+        if (!conflicting.isEmpty()) {
+            try {
+                for (ChemicalProperties existing : chemicalRepository.findByLowerNameIn(conflicting.keySet())) {
+                    if (conflicting.remove(key(existing.getName())) != null) {
+                        stored.add(existing);
+                    }
                 }
+            } catch (Exception e) {
+                System.err.println("Error reading back " + conflicting.size() + " chemicals: " + e.getMessage());
+            }
+            unsaved.addAll(conflicting.values());
+        }
+        return stored;
+    }
 
-                // Set default values for environmental properties
-                chemical.setDensity(BigDecimal.valueOf(1000.0));
-                chemical.setViscosity(BigDecimal.valueOf(0.001));
-                chemical.setSolubility(BigDecimal.valueOf(1000.0));
-                chemical.setVaporPressure(BigDecimal.valueOf(100.0));
-                chemical.setDiffusionCoefficient(BigDecimal.valueOf(0.0000001));
-                chemical.setDecayRate(BigDecimal.valueOf(0.0000001));
-                chemical.setToxicityLevel("MEDIUM");
+    /**
+     * CID per name; names PubChem does not know are cached negatively
+     */
+    private Map<String, Long> lookupCids(Collection<String> names) {
+        Map<String, Long> cids = Flux.fromIterable(names)
+                .flatMap(name -> upstreamGuard.guard(UpstreamGuard.PUBCHEM, webClient.get()
+                        .uri("/compound/name/{name}/cids/JSON", name)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
+                        .map(response -> response.at("/IdentifierList/CID/0"))
+                        .filter(cid -> cid.canConvertToLong())
+                        .map(cid -> Map.entry(name, cid.asLong()))
+                        .doOnError(e -> unknownNames.put(key(name), Boolean.TRUE,
+                                e instanceof WebClientResponseException.NotFound ? negativeTtl : TRANSIENT_FAILURE_TTL))
+                        .onErrorResume(e -> Mono.empty()), lookupConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue, LinkedHashMap::new)
+                .block();
+        return cids != null ? cids : Map.of();
+    }
 
-                return chemicalRepository.save(chemical);
+    /**
+     * Properties for all CIDs, one POST per batch, keyed back to the requested names
+     */
+    private List<ChemicalProperties> fetchByCid(Map<String, Long> cids) {
+        Map<Long, List<String>> namesByCid = new LinkedHashMap<>();
+        cids.forEach((name, cid) -> namesByCid.computeIfAbsent(cid, c -> new ArrayList<>()).add(name));
+        List<Long> ids = new ArrayList<>(namesByCid.keySet());
+
+        List<ChemicalProperties> out = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = ids.subList(from, Math.min(ids.size(), from + batchSize));
+            String cidList = batch.stream().map(String::valueOf).collect(Collectors.joining(","));
+            try {
+                JsonNode response = upstreamGuard.guard(UpstreamGuard.PUBCHEM, webClient.post()
+                        .uri("/compound/cid/property/" + PROPERTIES + "/JSON")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .body(BodyInserters.fromFormData("cid", cidList))
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
+                        .block();
+                Set<Long> returned = new HashSet<>();
+                JsonNode rows = response != null ? response.at("/PropertyTable/Properties") : null;
+                for (JsonNode properties : rows != null ? rows : List.<JsonNode>of()) {
+                    long cid = properties.path("CID").asLong();
+                    returned.add(cid);
+                    for (String name : namesByCid.getOrDefault(cid, List.of())) {
+                        out.add(fromPubChem(name, properties));
+                    }
+                }
+                for (Long cid : batch) {
+                    if (!returned.contains(cid)) {
+                        namesByCid.get(cid).forEach(name -> unknownNames.put(key(name), Boolean.TRUE));
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Error fetching properties for " + batch.size() + " chemicals: " + e.getMessage());
+                for (Long cid : batch) {
+                    namesByCid.get(cid).forEach(name -> unknownNames.put(key(name), Boolean.TRUE,
+                            TRANSIENT_FAILURE_TTL));
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Error fetching chemical properties for " + chemicalName + ": " + e.getMessage());
+        }
+        return out;
+    }
+
+    private static ChemicalProperties fromPubChem(String chemicalName, JsonNode properties) {
+        ChemicalProperties chemical = new ChemicalProperties();
+        chemical.setName(chemicalName);
+        chemical.setCid(properties.get("CID").asLong());
+
+        if (properties.has("MolecularFormula")) {
+            chemical.setMolecularFormula(properties.get("MolecularFormula").asText());
+        }
+
+        if (properties.has("MolecularWeight")) {
+            chemical.setMolecularWeight(BigDecimal.valueOf(properties.get("MolecularWeight").asDouble()));
+        }
+
+        if (properties.has("IUPACName")) {
+            chemical.setIupacName(properties.get("IUPACName").asText());
         }
 
-        // Return default chemical if fetch fails
+        if (properties.has("IsomericSMILES")) {
+            chemical.setSmiles(properties.get("IsomericSMILES").asText());
+        }
+
+        // Set default values for environmental properties
+        setDefaultEnvironmentalProperties(chemical);
+        return chemical;
+    }
+
+    private static ChemicalProperties defaultChemical(String chemicalName) {
         ChemicalProperties defaultChemical = new ChemicalProperties();
         defaultChemical.setName(chemicalName);
         defaultChemical.setMolecularFormula("Unknown");
-        defaultChemical.setDensity(BigDecimal.valueOf(1000.0));
-        defaultChemical.setViscosity(BigDecimal.valueOf(0.001));
-        defaultChemical.setSolubility(BigDecimal.valueOf(1000.0));
-        defaultChemical.setVaporPressure(BigDecimal.valueOf(100.0));
-        defaultChemical.setDiffusionCoefficient(BigDecimal.valueOf(0.0000001));
-        defaultChemical.setDecayRate(BigDecimal.valueOf(0.0000001));
-        defaultChemical.setToxicityLevel("MEDIUM");
-
-        return chemicalRepository.save(defaultChemical);
+        setDefaultEnvironmentalProperties(defaultChemical);
+        return defaultChemical;
+    }
+
+    private static void setDefaultEnvironmentalProperties(ChemicalProperties chemical) {
+        chemical.setDensity(BigDecimal.valueOf(1000.0));
+        chemical.setViscosity(BigDecimal.valueOf(0.001));
+        chemical.setSolubility(BigDecimal.valueOf(1000.0));
+        chemical.setVaporPressure(BigDecimal.valueOf(100.0));
+        chemical.setDiffusionCoefficient(BigDecimal.valueOf(0.0000001));
+        chemical.setDecayRate(BigDecimal.valueOf(0.0000001));
+        chemical.setToxicityLevel("MEDIUM");
+    }
+
+    private static String key(String chemicalName) {
+        return chemicalName.trim().toLowerCase(Locale.ROOT);
     }
 }
@@ -0,0 +1,173 @@
+package com.dispersion.service;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.grid.GridCodec;
+import com.dispersion.grid.GridStorage;
+import com.dispersion.model.DispersionRecord;
+import com.dispersion.repository.DispersionRecordRepository;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import com.dispersion.service.FluidDynamicsService.DispersionResult;
+import com.dispersion.util.TtlCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Write-behind persistence of dispersion results into dispersion_results,
+ * and the history read path served from it.
+ *
+ * Calculations only enqueue a record; a scheduled flush drains the queue and
+ * inserts it in JDBC batches. A cached result that is served again is not
+ * written twice.
+ */
+@Service
+public class DispersionHistoryService {
+
+    static final String GRID_ENCODING = "f32-zrle";
+
+    private final DispersionRecordRepository recordRepository;
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<DispersionRecord> pending;
+    private final TtlCache<UUID, Boolean> recentlyQueued;
+    private final int batchSize;
+    private final int maxPageSize;
+
+    public DispersionHistoryService(
+            DispersionRecordRepository recordRepository,
+            ObjectMapper objectMapper,
+            @Value("${app.history.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.history.batch-size:50}") int batchSize,
+            @Value("${app.history.max-page-size:100}") int maxPageSize) {
+        this.recordRepository = recordRepository;
+        this.objectMapper = objectMapper;
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.recentlyQueued = new TtlCache<>(queueCapacity, Duration.ofHours(1));
+        this.batchSize = batchSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Queue a completed calculation for persistence; never blocks the caller
+     */
+    public void record(DispersionResponse response, DispersionResult result) {
+        if (recentlyQueued.get(result.getResultId()) != null) {
+            return;
+        }
+        recentlyQueued.put(result.getResultId(), Boolean.TRUE);
+
+        DispersionGrid grid = result.getDispersionGrid();
+        DispersionRecord record = new DispersionRecord();
+        record.setSpillId(response.getSpillId());
+        record.setCalculationTime(result.getCalculatedAt());
+        record.setSimulationTimeHours(result.getSimulationHours());
+        record.setCenterLatitude(BigDecimal.valueOf(grid.getCenterLat()));
+        record.setCenterLongitude(BigDecimal.valueOf(grid.getCenterLon()));
+        record.setConcentrationData(encodeGrid(grid));
+        record.setMaxConcentration(BigDecimal.valueOf(result.getMaxConcentration()));
+        record.setAffectedAreaKm2(response.getAffectedAreaKm2());
+
+        if (!pending.offer(record)) {
+            System.err.println("Dispersion history queue full, dropping result for spill " + response.getSpillId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.history.flush-interval-ms:5000}")
+    public void flush() {
+        List<DispersionRecord> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            saveBatch(batch);
+            batch.clear();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public List<DispersionResponse> getHistory(UUID spillId, int page, int size, boolean includeGrid) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+        return recordRepository
+                .findBySpillIdOrderByCalculationTimeDesc(spillId, PageRequest.of(Math.max(0, page), pageSize))
+                .getContent()
+                .stream()
+                .map(record -> toResponse(record, includeGrid))
+                .collect(Collectors.toList());
+    }
+
+    private void saveBatch(List<DispersionRecord> batch) {
+        try {
+            recordRepository.saveAll(batch);
+        } catch (Exception e) {
+            // One bad row (e.g. its spill was deleted meanwhile) must not lose the rest
+            System.err.println("Batch insert of dispersion history failed, retrying individually: " + e.getMessage());
+            for (DispersionRecord record : batch) {
+                // The rolled-back batch already assigned ids; without one the retry is an insert, not a merge
+                record.setId(null);
+                try {
+                    recordRepository.save(record);
+                } catch (Exception single) {
+                    System.err.println("Dropping dispersion history for spill " + record.getSpillId() + ": "
+                            + single.getMessage());
+                }
+            }
+        }
+    }
+
+    private String encodeGrid(DispersionGrid grid) {
+        ObjectNode node = objectMapper.createObjectNode();
+        node.put("encoding", GRID_ENCODING);
+        node.put("gridSize", grid.getGridSize());
+        node.put("cellSize", grid.getCellSize());
+        node.put("data", Base64.getEncoder().encodeToString(GridCodec.encodeFloat32(grid.getStorage())));
+        return node.toString();
+    }
+
+    private DispersionGrid decodeGrid(DispersionRecord record) {
+        try {
+            JsonNode node = objectMapper.readTree(record.getConcentrationData());
+            if (!GRID_ENCODING.equals(node.path("encoding").asText())) {
+                return null;
+            }
+            DispersionGrid grid = new DispersionGrid(
+                    record.getCenterLatitude().doubleValue(),
+                    record.getCenterLongitude().doubleValue(),
+                    node.path("cellSize").asDouble(),
+                    node.path("gridSize").asInt(),
+                    GridStorage.Type.FLOAT);
+            GridCodec.decodeFloat32(Base64.getDecoder().decode(node.path("data").asText()), grid.getStorage());
+            return grid;
+        } catch (Exception e) {
+            System.err.println("Unreadable grid in dispersion history " + record.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private DispersionResponse toResponse(DispersionRecord record, boolean includeGrid) {
+        DispersionResponse response = new DispersionResponse(record.getSpillId(), record.getCalculationTime());
+        response.setSimulationHours(record.getSimulationTimeHours());
+        response.setAffectedAreaKm2(record.getAffectedAreaKm2());
+        response.setMaxConcentration(
+                record.getMaxConcentration() != null ? record.getMaxConcentration().doubleValue() : null);
+        if (includeGrid && record.getConcentrationData() != null) {
+            response.setDispersionGrid(decodeGrid(record));
+        }
+        response.setStatus("COMPLETED");
+        return response;
+    }
+}
@@ -2,6 +2,10 @@ package com.dispersion.service;
 
 import com.dispersion.dto.DispersionResponse;
 import com.dispersion.dto.SpillRequest;
+import com.dispersion.event.DispersionCalculatedEvent;
+import com.dispersion.event.SpillCreatedEvent;
+import com.dispersion.event.SpillDeletedEvent;
+import com.dispersion.event.SpillStatusChangedEvent;
 import com.dispersion.model.Spill;
 import com.dispersion.model.TideData;
 import com.dispersion.model.WeatherData;
@@ -9,18 +13,19 @@ import com.dispersion.model.ChemicalProperties;
 import com.dispersion.repository.SpillRepository;
 import com.dispersion.service.FluidDynamicsService.DispersionGrid;
 import com.dispersion.service.FluidDynamicsService.DispersionResult;
+import com.dispersion.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service
 public class DispersionService {
@@ -40,38 +45,13 @@ public class DispersionService {
     @Autowired
     private FluidDynamicsService fluidDynamicsService;
 
-    private final List<SseEmitter> clients = new CopyOnWriteArrayList<>();
-
-    public void addClient(SseEmitter emitter) {
-        clients.add(emitter);
-        emitter.onCompletion(() -> clients.remove(emitter));
-        emitter.onTimeout(() -> clients.remove(emitter));
-        System.out.println("New SSE client added. Total clients: " + clients.size());
-    }
+    @Autowired
+    private DispersionHistoryService historyService;
 
-    @Scheduled(fixedRate = 60000) // Every minute
-    public void sendRealTimeUpdates() {
-        System.out.println("Sending real-time updates...");
-        List<Spill> activeSpills = getActiveSpills();
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
-        // Recalculate dispersion for all active spills
-        for (Spill spill : activeSpills) {
-            try {
-                calculateDispersion(spill.getId());
-            } catch (Exception e) {
-                System.err.println("Error updating dispersion for spill " + spill.getId() + ": " + e.getMessage());
-            }
-        }
-
-        for (SseEmitter client : clients) {
-            try {
-                client.send(SseEmitter.event().data(activeSpills));
-                System.out.println("Update sent to client.");
-            } catch (IOException e) {
-                System.err.println("Failed to send update to client: " + e.getMessage());
-            }
-        }
-    }
+    private final SingleFlight<String, DispersionResponse> inFlight = new SingleFlight<>();
 
     public Spill createSpill(SpillRequest request) {
         Spill spill = new Spill();
@@ -96,72 +76,131 @@ public class DispersionService {
             System.err.println("Error loading chemical properties: " + e.getMessage());
         }
 
-        return spillRepository.save(spill);
+        Spill saved = spillRepository.save(spill);
+        eventPublisher.publishEvent(new SpillCreatedEvent(saved));
+        return saved;
     }
 
     public DispersionResponse calculateDispersion(UUID spillId) {
-        Spill spill = spillRepository.findById(spillId)
-                .orElseThrow(() -> new RuntimeException("Spill not found with id: " + spillId));
+        return calculateDispersion(spillId, SimulationOptions.defaults());
+    }
 
-        // Get current weather data
-        WeatherData weather = weatherService.getCurrentWeather(
-                spill.getLatitude().doubleValue(),
-                spill.getLongitude().doubleValue());
+    /**
+     * Concurrent callers for the same spill and options (the map UI polling,
+     * user-triggered calculations and the scheduled update) attach to one
+     * in-flight calculation, so weather, tide and chemical lookups run once.
+     */
+    public DispersionResponse calculateDispersion(UUID spillId, SimulationOptions options) {
+        try {
+            return calculateDispersionAsync(spillId, options).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
 
-        // Get tide forecast
-        List<TideData> tides = tideService.getTideForecast(
-                spill.getLatitude().doubleValue(),
-                spill.getLongitude().doubleValue(),
-                24);
+    /**
+     * Non-blocking variant: weather, tide and chemical lookups are fanned out
+     * concurrently, so latency is that of the slowest source rather than the
+     * sum, and no request thread waits on I/O. Shares in-flight calculations
+     * with {@link #calculateDispersion(UUID, SimulationOptions)}.
+     */
+    public CompletableFuture<DispersionResponse> calculateDispersionAsync(UUID spillId, SimulationOptions options) {
+        return inFlight.executeAsync(requestKey(spillId, options),
+                () -> computeDispersion(spillId, options).toFuture());
+    }
 
-        // Get chemical properties
-        ChemicalProperties chemical = chemicalService.getOrFetchChemicalProperties(spill.getChemicalType());
+    private Mono<DispersionResponse> computeDispersion(UUID spillId, SimulationOptions options) {
+        return Mono.fromCallable(() -> spillRepository.findById(spillId)
+                .orElseThrow(() -> new RuntimeException("Spill not found with id: " + spillId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(spill -> {
+                    double latitude = spill.getLatitude().doubleValue();
+                    double longitude = spill.getLongitude().doubleValue();
+                    return Mono.zip(
+                            weatherService.fetchCurrentWeather(latitude, longitude),
+                            tideService.fetchTideForecast(latitude, longitude, 24),
+                            chemicalService.fetchChemicalProperties(spill.getChemicalType()))
+                            // The model is CPU-bound; keep it off the HTTP client's event loop
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(inputs -> buildResponse(spill, inputs.getT1(), inputs.getT2(), inputs.getT3(),
+                                    options));
+                });
+    }
 
+    private DispersionResponse buildResponse(Spill spill, WeatherData weather, List<TideData> tides,
+            ChemicalProperties chemical, SimulationOptions options) {
         // Calculate dispersion
-        DispersionResult result = fluidDynamicsService.calculateDispersion(spill, weather, tides, chemical);
+        DispersionResult result = fluidDynamicsService.calculateDispersion(spill, weather, tides, chemical, options);
 
         DispersionResponse response = new DispersionResponse();
-        response.setSpillId(spillId);
-        response.setCalculationTime(LocalDateTime.now());
+        response.setSpillId(spill.getId());
+        response.setCalculationTime(result.getCalculatedAt());
         response.setDispersionGrid(result.getDispersionGrid());
+        response.setMaxConcentration(result.getMaxConcentration());
+        response.setSimulationHours(result.getSimulationHours());
+        response.setFrames(result.getFrames());
+        response.setPlumeContours(result.getContours());
         response.setAffectedAreaKm2(BigDecimal.valueOf(calculateAffectedArea(result.getDispersionGrid())));
         response.setStatus("COMPLETED");
 
+        historyService.record(response, result);
+        eventPublisher.publishEvent(new DispersionCalculatedEvent(spill, response, options));
         return response;
     }
 
+    private static String requestKey(UUID spillId, SimulationOptions options) {
+        if (options == null) {
+            options = SimulationOptions.defaults();
+        }
+        return spillId + "|" + options.getSimulationHours() + "|" + options.getGridSize() + "|"
+                + options.getCellSize() + "|" + options.isIncludeFrames();
+    }
+
+    /**
+     * Last computed grid for a spill, calculating only when nothing fresh is cached
+     */
+    public DispersionGrid getLatestGrid(UUID spillId) {
+        DispersionResult latest = fluidDynamicsService.getLatestResult(spillId);
+        if (latest != null) {
+            return latest.getDispersionGrid();
+        }
+        return calculateDispersion(spillId).getDispersionGrid();
+    }
+
     private double calculateAffectedArea(DispersionGrid grid) {
         final double threshold = 0.01;
-        int affectedCells = 0;
-        for (int i = 0; i < grid.getGridSize(); i++) {
-            for (int j = 0; j < grid.getGridSize(); j++) {
-                if (grid.getConcentration(i, j) > threshold) {
-                    affectedCells++;
-                }
-            }
-        }
+        int affectedCells = grid.getStorage().countAbove(threshold);
         return affectedCells * (grid.getCellSize() / 1000.0) * (grid.getCellSize() / 1000.0);
     }
 
     public List<DispersionResponse> getCalculationHistory(UUID spillId) {
-        // Return empty list for now - would implement with calculation results table
-        return new ArrayList<>();
+        return getCalculationHistory(spillId, 0, 20, true);
+    }
+
+    public List<DispersionResponse> getCalculationHistory(UUID spillId, int page, int size, boolean includeGrid) {
+        return historyService.getHistory(spillId, page, size, includeGrid);
     }
 
     public Spill updateSpillStatus(UUID spillId, Spill.SpillStatus status) {
         Spill spill = getSpillById(spillId);
+        Spill.SpillStatus previousStatus = spill.getStatus();
         spill.setStatus(status);
         if (status == Spill.SpillStatus.CLEANED_UP) {
             spill.setCleanupCompletedAt(LocalDateTime.now());
         }
-        return spillRepository.save(spill);
+        Spill saved = spillRepository.save(spill);
+        eventPublisher.publishEvent(new SpillStatusChangedEvent(saved, previousStatus));
+        return saved;
     }
 
     public void deleteSpill(UUID spillId) {
-        if (!spillRepository.existsById(spillId)) {
-            throw new RuntimeException("Spill not found with id: " + spillId);
-        }
+        Spill spill = getSpillById(spillId);
         spillRepository.deleteById(spillId);
+        fluidDynamicsService.evictResults(spillId);
+        eventPublisher.publishEvent(new SpillDeletedEvent(spill));
     }
 
     public List<Spill> getSpillsInArea(double minLat, double maxLat, double minLon, double maxLon) {
@@ -0,0 +1,191 @@
+package com.dispersion.service;
+
+import com.dispersion.grid.GridStorage;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Advances a concentration field from t to t+dt in place of recomputing the
+ * plume from scratch.
+ *
+ * Each step is operator-split into semi-Lagrangian advection by the wind
+ * (bilinear back-trace, stable for any dt), horizontal diffusion applied as
+ * the exact Gaussian solution for the step (a separable blur with variance
+ * 2*K*dt, also unconditionally stable) and first-order decay. Two buffers
+ * are swapped between steps so a long forecast allocates nothing per step.
+ */
+public final class DispersionTimeStepper {
+
+    /** Blur kernel is truncated at this many standard deviations */
+    private static final double KERNEL_SIGMAS = 3.0;
+
+    private final int gridSize;
+    private final double cellSize;
+    private final double diffusivity;
+    private final double decayRate;
+    private final ForkJoinPool pool;
+    private final boolean parallel;
+
+    private double[] current;
+    private double[] next;
+    private double elapsedSeconds;
+
+    /**
+     * @param initial     starting field; copied, not retained
+     * @param diffusivity horizontal eddy diffusivity K (m²/s)
+     * @param decayRate   first-order decay (1/s)
+     * @param pool        worker pool for row-parallel passes, may be null
+     * @param parallel    whether the grid is large enough to use the pool
+     */
+    public DispersionTimeStepper(GridStorage initial, double cellSize, double diffusivity, double decayRate,
+            ForkJoinPool pool, boolean parallel) {
+        this.gridSize = initial.rows();
+        this.cellSize = cellSize;
+        this.diffusivity = diffusivity;
+        this.decayRate = decayRate;
+        this.pool = pool;
+        this.parallel = parallel && pool != null;
+        this.current = initial.toArray();
+        this.next = new double[current.length];
+    }
+
+    public double getElapsedSeconds() {
+        return elapsedSeconds;
+    }
+
+    /**
+     * Advance the field by {@code dtSeconds} under wind (windX, windY) m/s
+     */
+    public void advance(double dtSeconds, double windX, double windY) {
+        advect(dtSeconds, windX, windY);
+        diffuse(dtSeconds);
+        elapsedSeconds += dtSeconds;
+    }
+
+    /**
+     * Copy the current field into {@code out} and return its maximum
+     */
+    public double snapshot(GridStorage out) {
+        double max = 0.0;
+        for (int i = 0; i < gridSize; i++) {
+            out.writeRow(i, current, i * gridSize);
+        }
+        for (double v : current) {
+            if (v > max) {
+                max = v;
+            }
+        }
+        return max;
+    }
+
+    private void advect(double dt, double windX, double windY) {
+        // Departure point offset in cells; the field is sampled there
+        double shiftI = windX * dt / cellSize;
+        double shiftJ = windY * dt / cellSize;
+        double decay = Math.exp(-decayRate * dt);
+        double[] src = current;
+        double[] dst = next;
+
+        forEachRow(i -> {
+            double si = i - shiftI;
+            int i0 = (int) Math.floor(si);
+            double fi = si - i0;
+            int base = i * gridSize;
+            for (int j = 0; j < gridSize; j++) {
+                double sj = j - shiftJ;
+                int j0 = (int) Math.floor(sj);
+                double fj = sj - j0;
+                double v = (1 - fi) * ((1 - fj) * sample(src, i0, j0) + fj * sample(src, i0, j0 + 1))
+                        + fi * ((1 - fj) * sample(src, i0 + 1, j0) + fj * sample(src, i0 + 1, j0 + 1));
+                dst[base + j] = v * decay;
+            }
+        });
+        swap();
+    }
+
+    private void diffuse(double dt) {
+        double sigmaCells = Math.sqrt(2.0 * diffusivity * dt) / cellSize;
+        if (sigmaCells < 1e-3) {
+            return;
+        }
+        double[] weights = gaussianWeights(sigmaCells);
+        int radius = weights.length / 2;
+
+        // Along j (contiguous within a row)
+        double[] src = current;
+        double[] dst = next;
+        forEachRow(i -> {
+            int base = i * gridSize;
+            for (int j = 0; j < gridSize; j++) {
+                int from = Math.max(0, j - radius);
+                int to = Math.min(gridSize - 1, j + radius);
+                double sum = 0.0;
+                for (int k = from; k <= to; k++) {
+                    sum += weights[k - j + radius] * src[base + k];
+                }
+                dst[base + j] = sum;
+            }
+        });
+        swap();
+
+        // Along i
+        double[] src2 = current;
+        double[] dst2 = next;
+        forEachRow(i -> {
+            int base = i * gridSize;
+            int from = Math.max(0, i - radius);
+            int to = Math.min(gridSize - 1, i + radius);
+            for (int j = 0; j < gridSize; j++) {
+                dst2[base + j] = 0.0;
+            }
+            for (int k = from; k <= to; k++) {
+                double w = weights[k - i + radius];
+                int srcBase = k * gridSize;
+                for (int j = 0; j < gridSize; j++) {
+                    dst2[base + j] += w * src2[srcBase + j];
+                }
+            }
+        });
+        swap();
+    }
+
+    private double sample(double[] field, int i, int j) {
+        if (i < 0 || i >= gridSize || j < 0 || j >= gridSize) {
+            return 0.0;
+        }
+        return field[i * gridSize + j];
+    }
+
+    private static double[] gaussianWeights(double sigma) {
+        int radius = Math.max(1, (int) Math.ceil(KERNEL_SIGMAS * sigma));
+        double[] weights = new double[2 * radius + 1];
+        double sum = 0.0;
+        for (int k = -radius; k <= radius; k++) {
+            double w = Math.exp(-0.5 * (k * k) / (sigma * sigma));
+            weights[k + radius] = w;
+            sum += w;
+        }
+        for (int k = 0; k < weights.length; k++) {
+            weights[k] /= sum;
+        }
+        return weights;
+    }
+
+    private void forEachRow(IntConsumer body) {
+        if (parallel) {
+            pool.submit(() -> IntStream.range(0, gridSize).parallel().forEach(body)).join();
+        } else {
+            for (int i = 0; i < gridSize; i++) {
+                body.accept(i);
+            }
+        }
+    }
+
+    private void swap() {
+        double[] tmp = current;
+        current = next;
+        next = tmp;
+    }
+}
@@ -0,0 +1,145 @@
+package com.dispersion.service;
+
+import com.dispersion.event.SpillCreatedEvent;
+import com.dispersion.model.Spill;
+import com.dispersion.repository.SpillRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps weather, tide and chemical data warm for every ACTIVE spill.
+ *
+ * Each sweep queues one warm-up task per active spill on a small bounded
+ * executor; a spill already queued is skipped and tasks beyond the queue
+ * capacity are dropped until the next sweep. A task refreshes the NWS
+ * forecast once it is within refresh-ahead of expiring, loads the tide
+ * prediction horizon (tide-hours reaches past the 24 hours a calculation
+ * reads, so the next NOAA window is in memory before it is needed) and
+ * touches the chemical cache. New spills are warmed as soon as they are
+ * created instead of waiting for the next sweep.
+ */
+@Component
+public class EnvironmentalPrefetcher {
+
+    private final SpillRepository spillRepository;
+    private final WeatherService weatherService;
+    private final TideService tideService;
+    private final ChemicalService chemicalService;
+    private final Duration refreshAhead;
+    private final Duration taskTimeout;
+    private final int tideHours;
+    private final ThreadPoolExecutor executor;
+    private final Set<UUID> queued = ConcurrentHashMap.newKeySet();
+
+    public EnvironmentalPrefetcher(
+            SpillRepository spillRepository,
+            WeatherService weatherService,
+            TideService tideService,
+            ChemicalService chemicalService,
+            @Value("${app.prefetch.refresh-ahead-seconds:300}") long refreshAheadSeconds,
+            @Value("${app.prefetch.task-timeout-seconds:30}") long taskTimeoutSeconds,
+            @Value("${app.prefetch.tide-hours:48}") int tideHours,
+            @Value("${app.prefetch.threads:2}") int threads,
+            @Value("${app.prefetch.queue-capacity:500}") int queueCapacity) {
+        this.spillRepository = spillRepository;
+        this.weatherService = weatherService;
+        this.tideService = tideService;
+        this.chemicalService = chemicalService;
+        this.refreshAhead = Duration.ofSeconds(refreshAheadSeconds);
+        this.taskTimeout = Duration.ofSeconds(taskTimeoutSeconds);
+        this.tideHours = tideHours;
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), runnable -> {
+                    Thread thread = new Thread(runnable, "env-prefetch-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @Scheduled(initialDelayString = "${app.prefetch.initial-delay-ms:10000}",
+            fixedDelayString = "${app.prefetch.interval-ms:60000}")
+    public void prefetchActiveSpills() {
+        List<Spill> activeSpills;
+        try {
+            activeSpills = spillRepository.findByStatus(Spill.SpillStatus.ACTIVE);
+        } catch (Exception e) {
+            System.err.println("Error listing active spills for prefetch: " + e.getMessage());
+            return;
+        }
+        for (Spill spill : activeSpills) {
+            submit(spill);
+        }
+    }
+
+    @EventListener
+    public void onSpillCreated(SpillCreatedEvent event) {
+        submit(event.getSpill());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Spill spill) {
+        UUID spillId = spill.getId();
+        if (spillId == null || spill.getLatitude() == null || spill.getLongitude() == null
+                || !queued.add(spillId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    warm(spill);
+                } finally {
+                    queued.remove(spillId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Queue full or shutting down; the next sweep tries again
+            queued.remove(spillId);
+        }
+    }
+
+    private void warm(Spill spill) {
+        double latitude = spill.getLatitude().doubleValue();
+        double longitude = spill.getLongitude().doubleValue();
+        // Checked when the task runs, not when it was queued
+        Mono<Void> weather = weatherService.forecastTtlRemaining(latitude, longitude).compareTo(refreshAhead) <= 0
+                ? weatherService.refreshForecast(latitude, longitude)
+                : Mono.empty();
+        Mono<Void> chemical = spill.getChemicalType() != null
+                ? chemicalService.fetchChemicalProperties(spill.getChemicalType()).then()
+                : Mono.empty();
+        try {
+            Mono.when(
+                    weather.onErrorResume(e -> {
+                        System.err.println("Weather prefetch failed for spill " + spill.getId() + ": "
+                                + e.getMessage());
+                        return Mono.empty();
+                    }),
+                    tideService.fetchTideForecast(latitude, longitude, tideHours),
+                    chemical.onErrorResume(e -> Mono.empty()))
+                    .block(taskTimeout);
+        } catch (Exception e) {
+            System.err.println("Prefetch failed for spill " + spill.getId() + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.dispersion.service;
+
+import com.dispersion.model.Spill;
+import com.dispersion.model.SpillSeverity;
+
+import java.util.UUID;
+
+/**
+ * What a streamed event is about, used to route it to the subscribers
+ * whose filter matches
+ */
+public final class EventTopic {
+
+    private final UUID spillId;
+    private final double latitude;
+    private final double longitude;
+    private final SpillSeverity severity;
+
+    public EventTopic(UUID spillId, double latitude, double longitude, SpillSeverity severity) {
+        this.spillId = spillId;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.severity = severity;
+    }
+
+    public static EventTopic of(Spill spill) {
+        return new EventTopic(spill.getId(),
+                spill.getLatitude() != null ? spill.getLatitude().doubleValue() : Double.NaN,
+                spill.getLongitude() != null ? spill.getLongitude().doubleValue() : Double.NaN,
+                SpillSeverity.of(spill));
+    }
+
+    public UUID getSpillId() {
+        return spillId;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public SpillSeverity getSeverity() {
+        return severity;
+    }
+}
@@ -1,42 +1,148 @@
 package com.dispersion.service;
 
+import com.dispersion.dto.DispersionResponse.LatLngPoint;
+import com.dispersion.dto.DispersionResponse.PlumeContour;
+import com.dispersion.grid.ContourGenerator;
+import com.dispersion.grid.GridStorage;
+import com.dispersion.grid.GridStorageSerializer;
 import com.dispersion.model.ChemicalProperties;
 import com.dispersion.model.Spill;
 import com.dispersion.model.WeatherData;
 import com.dispersion.model.TideData;
+import com.dispersion.util.SingleFlight;
+import com.dispersion.util.TtlCache;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 @Service
 public class FluidDynamicsService {
 
-    // Rate limiting to prevent infinite calculations
-    private final Map<String, Long> calculationCache = new ConcurrentHashMap<>();
-    private static final long CALCULATION_COOLDOWN_MS = 5000; // 5 seconds cooldown
+    // Results keyed by spill id plus a fingerprint of every calculation input. Only the result grid and
+    // contours are cached: frames of a stepped run are full grids and are recomputed when asked for.
+    private final TtlCache<String, DispersionResult> resultCache;
+    private final TtlCache<UUID, DispersionResult> latestResults;
+    private final SingleFlight<String, DispersionResult> inFlight = new SingleFlight<>();
+
+    private final GridResolver gridResolver;
+    private final GridStorage.Type gridStorageType;
+    // Concentrations at or below this are treated as empty by sparse storage, which also lets the kernel skip
+    // tiles below it; dense storage keeps every value
+    private final double concentrationFloor;
+
+    // Plume kernel worker pool; grids smaller than parallelThreshold cells run on the caller
+    private final ForkJoinPool kernelPool;
+    private final int parallelThreshold;
+
+    // Isolines returned with each result
+    private final double[] contourLevels;
+    private final double contourTolerance;
+
+    // Time stepping
+    private final int maxSimulationHours;
+    private final int frameIntervalMinutes;
+    private final double eddyDiffusivity;
+
+    public FluidDynamicsService(
+            GridResolver gridResolver,
+            @Value("${app.simulation.grid-storage:double}") String gridStorage,
+            @Value("${app.simulation.concentration-floor:0.001}") double concentrationFloor,
+            @Value("${app.simulation.parallelism:0}") int parallelism,
+            @Value("${app.simulation.parallel-threshold:40000}") int parallelThreshold,
+            @Value("${app.simulation.max-hours:72}") int maxSimulationHours,
+            @Value("${app.simulation.frame-interval-minutes:60}") int frameIntervalMinutes,
+            @Value("${app.simulation.eddy-diffusivity:1.0}") double eddyDiffusivity,
+            @Value("${app.simulation.cache.max-entries:500}") int cacheMaxEntries,
+            @Value("${app.simulation.cache.ttl-seconds:300}") long cacheTtlSeconds,
+            @Value("${app.simulation.contour-levels:0.01,0.1,1.0}") double[] contourLevels,
+            @Value("${app.simulation.contour-tolerance:0.5}") double contourTolerance) {
+        this.gridResolver = gridResolver;
+        this.gridStorageType = GridStorage.Type.fromProperty(gridStorage);
+        this.concentrationFloor = Math.max(0.0, concentrationFloor);
+        this.kernelPool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.parallelThreshold = parallelThreshold;
+        this.maxSimulationHours = maxSimulationHours;
+        this.frameIntervalMinutes = Math.max(1, frameIntervalMinutes);
+        this.eddyDiffusivity = eddyDiffusivity;
+        this.resultCache = new TtlCache<>(cacheMaxEntries, Duration.ofSeconds(cacheTtlSeconds));
+        this.latestResults = new TtlCache<>(cacheMaxEntries, Duration.ofSeconds(cacheTtlSeconds));
+        this.contourLevels = contourLevels.clone();
+        Arrays.sort(this.contourLevels);
+        this.contourTolerance = contourTolerance;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        kernelPool.shutdown();
+    }
 
     /**
-     * Calculate chemical dispersion using enhanced Gaussian plume model
-     * with rate limiting to prevent infinite loops
+     * Calculate chemical dispersion using enhanced Gaussian plume model.
+     * Results are cached per spill and input fingerprint, so repeating a
+     * calculation with unchanged inputs returns the previous result. Frames
+     * are never cached; a request that includes them always runs the model.
      */
     public DispersionResult calculateDispersion(Spill spill, WeatherData weather, List<TideData> tides,
             ChemicalProperties chemical) {
-        String spillId = spill.getId().toString();
-        long currentTime = System.currentTimeMillis();
+        return calculateDispersion(spill, weather, tides, chemical, SimulationOptions.defaults());
+    }
 
-        // Check if calculation was done recently (rate limiting)
-        Long lastCalculation = calculationCache.get(spillId);
-        if (lastCalculation != null && (currentTime - lastCalculation) < CALCULATION_COOLDOWN_MS) {
-            System.out.println("⚠️ RATE LIMITED: Calculation requested too soon for spill " + spillId);
-            // Return cached result or throw exception
-            throw new RuntimeException("Please wait " + (CALCULATION_COOLDOWN_MS / 1000)
-                    + " seconds before recalculating dispersion for this spill");
+    public DispersionResult calculateDispersion(Spill spill, WeatherData weather, List<TideData> tides,
+            ChemicalProperties chemical, SimulationOptions options) {
+        UUID spillId = spill.getId();
+        String key = spillId + "|" + inputFingerprint(spill, weather, tides, chemical, options);
+
+        boolean includeFrames = options != null && options.isIncludeFrames();
+        DispersionResult cached = includeFrames ? null : resultCache.get(key);
+        if (cached != null) {
+            return cached;
         }
 
-        // Update cache with current time
-        calculationCache.put(spillId, currentTime);
+        // Identical concurrent requests share one computation
+        return inFlight.execute(includeFrames ? key + "|frames" : key, () -> {
+            DispersionResult result = computeDispersion(spill, weather, tides, chemical, options, includeFrames);
+            DispersionResult withoutFrames = result.withoutFrames();
+            resultCache.put(key, withoutFrames);
+            if (isDefault(options)) {
+                latestResults.put(spillId, withoutFrames);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Most recent default (single-step) result for a spill, if still fresh
+     */
+    public DispersionResult getLatestResult(UUID spillId) {
+        return latestResults.get(spillId);
+    }
+
+    /**
+     * Drop every cached result for a spill, e.g. after it was edited or removed
+     */
+    public void evictResults(UUID spillId) {
+        String prefix = spillId + "|";
+        resultCache.invalidateIf(key -> key.startsWith(prefix));
+        latestResults.invalidate(spillId);
+    }
+
+    /**
+     * Enhanced Gaussian plume model with chemical and environmental factors
+     */
+    private DispersionResult computeDispersion(Spill spill, WeatherData weather, List<TideData> tides,
+            ChemicalProperties chemical, SimulationOptions options, boolean includeFrames) {
+        String spillId = spill.getId().toString();
 
         System.out.println("=== Enhanced Dispersion Calculation ===");
         System.out.println("Spill: " + spill.getName() + " (ID: " + spillId + ")");
@@ -49,14 +155,6 @@ public class FluidDynamicsService {
                         : "No weather data"));
         System.out.println("Tide data points: " + (tides != null ? tides.size() : 0));
 
-        // Enhanced Gaussian plume model with chemical and environmental factors
-        DispersionGrid dispersionGrid = new DispersionGrid(
-                spill.getLatitude().doubleValue(),
-                spill.getLongitude().doubleValue(),
-                100, // cell size in meters
-                100 // grid size (100x100 cells)
-        );
-
         // Chemical properties with safety defaults
         double density = chemical != null && chemical.getDensity() != null ? chemical.getDensity().doubleValue()
                 : 1000.0; // kg/m³
@@ -90,8 +188,19 @@ public class FluidDynamicsService {
         double initialConcentration = massKg / 1000.0; // mg/L base concentration
 
         // Time parameters for dispersion evolution
-        double timeHours = 1.0; // Calculate for 1-hour time step
+        double timeHours = 1.0; // Initial plume is calculated for a 1-hour time step
         double timeSeconds = timeHours * 3600.0;
+        int simulationHours = resolveSimulationHours(options);
+
+        // Grid extent and resolution scaled to the spill over the whole simulated period
+        GridResolution resolution = gridResolver.resolve(volumeLiters, windSpeed, simulationHours * 3600.0,
+                options);
+        DispersionGrid dispersionGrid = newGrid(
+                spill.getLatitude().doubleValue(),
+                spill.getLongitude().doubleValue(),
+                resolution.getCellSize(),
+                resolution.getGridSize(),
+                gridStorageType);
 
         // Atmospheric stability classification (simplified)
         String stabilityClass = getAtmosphericStability(windSpeed, temperature);
@@ -102,78 +211,51 @@ public class FluidDynamicsService {
         // Tidal influence factor
         double tideInfluence = calculateTideInfluence(tides);
 
-        // Enhanced Gaussian plume dispersion calculation
-        double maxConcentration = 0.0;
-        for (int i = 0; i < 100; i++) {
-            for (int j = 0; j < 100; j++) {
-                // Spatial coordinates relative to source
-                double x = (i - 50) * 100; // meters from source (east-west)
-                double y = (j - 50) * 100; // meters from source (north-south)
-
-                // Account for wind drift over time
-                double effectiveX = x - windEffectX * timeSeconds;
-                double effectiveY = y - windEffectY * timeSeconds;
-
-                // Distance from source
-                double distance = Math.sqrt(effectiveX * effectiveX + effectiveY * effectiveY);
-
-                if (distance < 1.0)
-                    distance = 1.0; // Avoid division by zero
-
-                // Pasquill-Gifford dispersion parameters
-                double sigmaY = sigmaY0 * Math.pow(distance / 1000.0, 0.9); // Lateral dispersion
-                double sigmaZ = sigmaZ0 * Math.pow(distance / 1000.0, 0.8); // Vertical dispersion
-
-                // Minimum dispersion values
-                if (sigmaY < 1.0)
-                    sigmaY = 1.0;
-                if (sigmaZ < 0.5)
-                    sigmaZ = 0.5;
-
-                // Gaussian plume formula for ground-level concentration
-                double lateralTerm = Math.exp(-0.5 * Math.pow(effectiveY / sigmaY, 2));
-                double verticalTerm = Math.exp(-0.5 * Math.pow(1.5 / sigmaZ, 2)); // Assume 1.5m height
-
-                // Base concentration from Gaussian plume
-                double concentration = (initialConcentration / (2 * Math.PI * windSpeed * sigmaY * sigmaZ)) *
-                        lateralTerm * verticalTerm;
-
-                // Apply environmental factors
-
-                // 1. Chemical decay/evaporation
-                double decayFactor = Math.exp(-decayRate * timeSeconds);
-                concentration *= decayFactor;
-
-                // 2. Diffusion enhancement
-                double diffusionFactor = 1.0 + (diffusionCoeff * timeSeconds) / 10000.0;
-                concentration *= diffusionFactor;
-
-                // 3. Temperature effects (volatility)
-                double temperatureFactor = 1.0 + (temperature - 20.0) * 0.02; // 2% per degree
-                if (vaporPressure > 1000.0) { // Volatile compounds
-                    concentration *= (1.0 / temperatureFactor);
-                } else {
-                    concentration *= temperatureFactor;
-                }
-
-                // 4. Tidal mixing effects (for water bodies)
-                concentration *= tideInfluence;
-
-                // 5. Wind speed dilution
-                double windDilution = Math.max(0.1, windSpeed / 10.0);
-                concentration *= windDilution;
+        // Per-spill factors, constant across the grid
+        // 1. Chemical decay/evaporation
+        double decayFactor = Math.exp(-decayRate * timeSeconds);
+        // 2. Diffusion enhancement
+        double diffusionFactor = 1.0 + (diffusionCoeff * timeSeconds) / 10000.0;
+        // 3. Temperature effects (volatility), 2% per degree
+        double temperatureFactor = 1.0 + (temperature - 20.0) * 0.02;
+        double volatilityFactor = vaporPressure > 1000.0 ? 1.0 / temperatureFactor : temperatureFactor;
+        // 4. Tidal mixing effects (for water bodies): tideInfluence
+        // 5. Wind speed dilution
+        double windDilution = Math.max(0.1, windSpeed / 10.0);
+
+        double amplitude = initialConcentration / (2 * Math.PI * windSpeed)
+                * decayFactor * diffusionFactor * volatilityFactor * tideInfluence * windDilution;
 
-                // Ensure non-negative concentration
-                concentration = Math.max(0, concentration);
-                maxConcentration = Math.max(maxConcentration, concentration);
+        // Enhanced Gaussian plume dispersion calculation
+        GaussianPlumeKernel kernel = new GaussianPlumeKernel(
+                dispersionGrid.getGridSize(),
+                dispersionGrid.getCellSize(),
+                windEffectX * timeSeconds, // account for wind drift over time
+                windEffectY * timeSeconds,
+                sigmaY0,
+                sigmaZ0,
+                amplitude,
+                // Skipped tiles are written as zero, which only matches what sparse storage would keep
+                gridStorageType == GridStorage.Type.SPARSE ? concentrationFloor : 0.0);
+        double maxConcentration = kernel.compute(dispersionGrid.getStorage(), kernelPool, parallelThreshold);
 
-                // Apply concentration to grid
-                dispersionGrid.setConcentration(i, j, concentration);
+        DispersionResult result = new DispersionResult();
+        result.setSimulationHours(simulationHours);
+        if (simulationHours > timeHours) {
+            // Step the plume forward from the 1-hour field instead of recomputing each frame
+            List<DispersionFrame> frames = advanceFrames(dispersionGrid, maxConcentration, timeSeconds,
+                    simulationHours * 3600.0, windEffectX, windEffectY, diffusionCoeff, decayRate, includeFrames);
+            DispersionFrame last = frames.get(frames.size() - 1);
+            if (includeFrames) {
+                result.setFrames(frames);
             }
+            result.setDispersionGrid(last.getGrid());
+            maxConcentration = last.getMaxConcentration();
+        } else {
+            result.setDispersionGrid(dispersionGrid);
         }
-
-        DispersionResult result = new DispersionResult();
-        result.setDispersionGrid(dispersionGrid);
+        result.setMaxConcentration(maxConcentration);
+        result.setContours(buildContours(result.getDispersionGrid(), maxConcentration));
 
         System.out.println("=== Calculation Complete ===");
         System.out.println("Stability Class: " + stabilityClass);
@@ -183,6 +265,116 @@ public class FluidDynamicsService {
         return result;
     }
 
+    /**
+     * Everything the result depends on, so a changed input never hits a stale entry
+     */
+    private String inputFingerprint(Spill spill, WeatherData weather, List<TideData> tides,
+            ChemicalProperties chemical, SimulationOptions options) {
+        StringBuilder sb = new StringBuilder(160);
+        sb.append(spill.getVolume()).append(',').append(spill.getLatitude()).append(',').append(spill.getLongitude());
+        sb.append("|w:");
+        if (weather != null) {
+            sb.append(weather.getTemperature()).append(',').append(weather.getWindSpeed()).append(',')
+                    .append(weather.getWindDirection());
+        }
+        sb.append("|t:").append(calculateTideInfluence(tides));
+        sb.append("|c:");
+        if (chemical != null) {
+            sb.append(chemical.getDensity()).append(',').append(chemical.getDiffusionCoefficient()).append(',')
+                    .append(chemical.getDecayRate()).append(',').append(chemical.getVaporPressure());
+        }
+        sb.append("|g:");
+        if (options != null) {
+            sb.append(options.getSimulationHours()).append(',').append(options.getGridSize()).append(',')
+                    .append(options.getCellSize());
+        }
+        return sb.toString();
+    }
+
+    private static boolean isDefault(SimulationOptions options) {
+        return options == null || options.isDefault();
+    }
+
+    private int resolveSimulationHours(SimulationOptions options) {
+        Integer requested = options != null ? options.getSimulationHours() : null;
+        if (requested == null) {
+            return 1;
+        }
+        if (requested < 1 || requested > maxSimulationHours) {
+            throw new IllegalArgumentException("simulationHours must be between 1 and " + maxSimulationHours);
+        }
+        return requested;
+    }
+
+    /**
+     * Advance the initial plume frame by frame up to the horizon. The first
+     * frame is the initial grid itself; later frames are single-precision
+     * snapshots of the stepped field, and the final frame uses the configured
+     * storage type since it becomes the result grid. Without
+     * {@code keepFrames} only the final frame is snapshotted and returned.
+     */
+    private List<DispersionFrame> advanceFrames(DispersionGrid initial, double initialMax, double startSeconds,
+            double horizonSeconds, double windX, double windY, double diffusionCoeff, double decayRate,
+            boolean keepFrames) {
+        int gridSize = initial.getGridSize();
+        double frameSeconds = frameIntervalMinutes * 60.0;
+        List<DispersionFrame> frames = new ArrayList<>();
+        if (keepFrames) {
+            frames.add(new DispersionFrame(startSeconds / 3600.0, initialMax, initial));
+        }
+
+        DispersionTimeStepper stepper = new DispersionTimeStepper(initial.getStorage(), initial.getCellSize(),
+                eddyDiffusivity + diffusionCoeff, decayRate, kernelPool,
+                (long) gridSize * gridSize >= parallelThreshold);
+        double t = startSeconds;
+        while (t < horizonSeconds - 1e-6) {
+            double dt = Math.min(frameSeconds, horizonSeconds - t);
+            stepper.advance(dt, windX, windY);
+            t += dt;
+
+            boolean lastFrame = t >= horizonSeconds - 1e-6;
+            if (!keepFrames && !lastFrame) {
+                continue;
+            }
+            DispersionGrid grid = newGrid(initial.getCenterLat(), initial.getCenterLon(),
+                    initial.getCellSize(), gridSize, lastFrame ? gridStorageType : GridStorage.Type.FLOAT);
+            double max = stepper.snapshot(grid.getStorage());
+            frames.add(new DispersionFrame(t / 3600.0, max, grid));
+        }
+        return frames;
+    }
+
+    /**
+     * Simplified isolines of the result grid at each configured level, in
+     * lat/lng. Levels the plume never reaches are skipped.
+     */
+    private List<PlumeContour> buildContours(DispersionGrid grid, double maxConcentration) {
+        List<PlumeContour> contours = new ArrayList<>();
+        for (double level : contourLevels) {
+            if (level <= 0.0 || level >= maxConcentration) {
+                continue;
+            }
+            for (double[] ring : ContourGenerator.isolines(grid.getStorage(), level)) {
+                double[] simplified = ContourGenerator.simplify(ring, contourTolerance);
+                if (simplified.length < 8) {
+                    continue; // Fewer than three distinct vertices
+                }
+                List<LatLngPoint> points = new ArrayList<>(simplified.length / 2);
+                for (int k = 0; k < simplified.length; k += 2) {
+                    points.add(new LatLngPoint(grid.latitudeAt(simplified[k + 1]), grid.longitudeAt(simplified[k])));
+                }
+                contours.add(new PlumeContour(level, points));
+            }
+        }
+        return contours;
+    }
+
+    private DispersionGrid newGrid(double centerLat, double centerLon, double cellSize, int gridSize,
+            GridStorage.Type storageType) {
+        return new DispersionGrid(centerLat, centerLon, cellSize,
+                GridStorage.allocate(storageType, gridSize, gridSize, concentrationFloor));
+    }
+
     /**
      * Determine atmospheric stability class based on weather conditions
      */
@@ -242,7 +434,45 @@ public class FluidDynamicsService {
      * Dispersion calculation result container
      */
     public static class DispersionResult {
+        private final UUID resultId;
+        private final LocalDateTime calculatedAt;
         private DispersionGrid dispersionGrid;
+        private double maxConcentration;
+        private int simulationHours = 1;
+        private List<DispersionFrame> frames = new ArrayList<>();
+        private List<PlumeContour> contours = new ArrayList<>();
+
+        public DispersionResult() {
+            this.resultId = UUID.randomUUID();
+            this.calculatedAt = LocalDateTime.now();
+        }
+
+        private DispersionResult(DispersionResult source) {
+            this.resultId = source.resultId;
+            this.calculatedAt = source.calculatedAt;
+            this.dispersionGrid = source.dispersionGrid;
+            this.maxConcentration = source.maxConcentration;
+            this.simulationHours = source.simulationHours;
+            this.contours = source.contours;
+        }
+
+        /**
+         * The same result without its frames, for caching; this one if it has none
+         */
+        DispersionResult withoutFrames() {
+            return frames.isEmpty() ? this : new DispersionResult(this);
+        }
+
+        /**
+         * Identity of this computation; a cached result keeps its id
+         */
+        public UUID getResultId() {
+            return resultId;
+        }
+
+        public LocalDateTime getCalculatedAt() {
+            return calculatedAt;
+        }
 
         public DispersionGrid getDispersionGrid() {
             return dispersionGrid;
@@ -251,24 +481,108 @@ public class FluidDynamicsService {
         public void setDispersionGrid(DispersionGrid dispersionGrid) {
             this.dispersionGrid = dispersionGrid;
         }
+
+        public double getMaxConcentration() {
+            return maxConcentration;
+        }
+
+        public void setMaxConcentration(double maxConcentration) {
+            this.maxConcentration = maxConcentration;
+        }
+
+        public int getSimulationHours() {
+            return simulationHours;
+        }
+
+        public void setSimulationHours(int simulationHours) {
+            this.simulationHours = simulationHours;
+        }
+
+        /**
+         * Hourly (frame-interval) sequence up to the horizon; empty for a single step
+         */
+        public List<DispersionFrame> getFrames() {
+            return frames;
+        }
+
+        public void setFrames(List<DispersionFrame> frames) {
+            this.frames = frames;
+        }
+
+        /**
+         * Isolines of the result grid, computed once with the result
+         */
+        public List<PlumeContour> getContours() {
+            return contours;
+        }
+
+        public void setContours(List<PlumeContour> contours) {
+            this.contours = contours;
+        }
     }
 
     /**
-     * Grid container for concentration values
+     * Concentration field at one point of a time-stepped simulation
+     */
+    public static class DispersionFrame {
+        private double hour;
+        private double maxConcentration;
+        private DispersionGrid grid;
+
+        public DispersionFrame(double hour, double maxConcentration, DispersionGrid grid) {
+            this.hour = hour;
+            this.maxConcentration = maxConcentration;
+            this.grid = grid;
+        }
+
+        public double getHour() {
+            return hour;
+        }
+
+        public double getMaxConcentration() {
+            return maxConcentration;
+        }
+
+        public DispersionGrid getGrid() {
+            return grid;
+        }
+    }
+
+    /**
+     * Grid container for concentration values, stored row-major in a single
+     * contiguous buffer (row = east-west index i, column = north-south index j)
      */
     public static class DispersionGrid {
+        private static final double METERS_PER_DEGREE = 111320.0;
+
         private double centerLat;
         private double centerLon;
         private double cellSize;
         private int gridSize;
-        private double[][] concentrations;
+        private GridStorage storage;
 
         public DispersionGrid(double centerLat, double centerLon, double cellSize, int gridSize) {
+            this(centerLat, centerLon, cellSize, gridSize, GridStorage.Type.DOUBLE);
+        }
+
+        public DispersionGrid(double centerLat, double centerLon, double cellSize, int gridSize,
+                GridStorage.Type storageType) {
             this.centerLat = centerLat;
             this.centerLon = centerLon;
             this.cellSize = cellSize;
             this.gridSize = gridSize;
-            this.concentrations = new double[gridSize][gridSize];
+            this.storage = GridStorage.allocate(storageType, gridSize, gridSize);
+        }
+
+        /**
+         * Wrap existing square storage
+         */
+        public DispersionGrid(double centerLat, double centerLon, double cellSize, GridStorage storage) {
+            this.centerLat = centerLat;
+            this.centerLon = centerLon;
+            this.cellSize = cellSize;
+            this.gridSize = storage.rows();
+            this.storage = storage;
         }
 
         // Getters and setters
@@ -300,29 +614,61 @@ public class FluidDynamicsService {
             return gridSize;
         }
 
-        public void setGridSize(int gridSize) {
-            this.gridSize = gridSize;
+        /**
+         * Latitude of a (fractional) north-south index j
+         */
+        public double latitudeAt(double j) {
+            return centerLat + (j - gridSize / 2) * cellSize / METERS_PER_DEGREE;
+        }
+
+        /**
+         * Longitude of a (fractional) east-west index i
+         */
+        public double longitudeAt(double i) {
+            double metersPerDegree = METERS_PER_DEGREE * Math.cos(Math.toRadians(centerLat));
+            return centerLon + (i - gridSize / 2) * cellSize / metersPerDegree;
         }
 
         public double getConcentration(int i, int j) {
             if (i < 0 || i >= gridSize || j < 0 || j >= gridSize) {
                 return 0.0;
             }
-            return concentrations[i][j];
+            return storage.get(i * gridSize + j);
         }
 
         public void setConcentration(int i, int j, double value) {
             if (i >= 0 && i < gridSize && j >= 0 && j < gridSize) {
-                concentrations[i][j] = value;
+                storage.set(i * gridSize + j, value);
             }
         }
 
+        /**
+         * Backing storage for bulk scans; serialized as the "concentrations" matrix
+         */
+        @JsonProperty("concentrations")
+        @JsonSerialize(using = GridStorageSerializer.class)
+        public GridStorage getStorage() {
+            return storage;
+        }
+
+        /**
+         * Copy of the grid as a jagged array (allocates; prefer {@link #getStorage()})
+         */
+        @JsonIgnore
         public double[][] getConcentrations() {
-            return concentrations;
+            double[][] copy = new double[gridSize][gridSize];
+            for (int i = 0; i < gridSize; i++) {
+                storage.readRow(i, copy[i], 0);
+            }
+            return copy;
         }
 
         public void setConcentrations(double[][] concentrations) {
-            this.concentrations = concentrations;
+            for (int i = 0; i < gridSize && i < concentrations.length; i++) {
+                if (concentrations[i].length >= gridSize) {
+                    storage.writeRow(i, concentrations[i], 0);
+                }
+            }
         }
     }
 }
@@ -0,0 +1,215 @@
+package com.dispersion.service;
+
+import com.dispersion.grid.GridStorage;
+import com.dispersion.grid.SparseGridStorage;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Ground-level Gaussian plume evaluated over a square grid.
+ *
+ * Everything that is constant for a spill (decay, diffusion, temperature,
+ * tide and wind dilution factors, the 1/(2*pi*u) prefactor and the release
+ * height) is folded into a single amplitude up front, so the per-cell work
+ * is one log, one exp and a handful of multiplies. Rows are split across a
+ * ForkJoinPool in blocks of {@link #ROW_BLOCK}, so each task owns whole rows
+ * of the output storage.
+ *
+ * Each block is further cut into square tiles matching
+ * {@link SparseGridStorage}. Before a tile is evaluated its concentration is
+ * bounded from above using the nearest and farthest point of the tile from
+ * the plume centre; tiles whose bound is at or below the floor are written as
+ * zero without evaluating a single cell, so work follows the plume footprint.
+ */
+public final class GaussianPlumeKernel {
+
+    /** Rows per leaf task, and edge of the tiles skipped below the floor */
+    static final int ROW_BLOCK = SparseGridStorage.TILE_SIZE;
+
+    /** Release height used by the vertical term (m) */
+    private static final double RELEASE_HEIGHT_SQ = 1.5 * 1.5;
+
+    private static final double SIGMA_Y_MIN = 1.0;
+    private static final double SIGMA_Z_MIN = 0.5;
+    private static final double SIGMA_Y_EXPONENT = 0.9;
+    private static final double SIGMA_Z_EXPONENT = 0.8;
+    private static final double BOUND_SLACK = 1.0 + 1e-9;
+
+    private final int gridSize;
+    private final double cellSize;
+    private final double centerOffset;
+    private final double driftX;
+    private final double driftY;
+    private final double sigmaY0;
+    private final double sigmaZ0;
+    private final double amplitude;
+    private final double floor;
+
+    /**
+     * @param gridSize  cells per side
+     * @param cellSize  cell edge length (m)
+     * @param driftX    east-west displacement of the plume centre (m)
+     * @param driftY    north-south displacement of the plume centre (m)
+     * @param sigmaY0   Pasquill-Gifford lateral coefficient
+     * @param sigmaZ0   Pasquill-Gifford vertical coefficient
+     * @param amplitude source strength with every per-spill factor applied,
+     *                  i.e. C = amplitude / (sigmaY * sigmaZ) * exp(...)
+     * @param floor     concentration at or below which a tile may be left
+     *                  zero; 0 evaluates every cell
+     */
+    public GaussianPlumeKernel(int gridSize, double cellSize, double driftX, double driftY,
+            double sigmaY0, double sigmaZ0, double amplitude, double floor) {
+        this.gridSize = gridSize;
+        this.cellSize = cellSize;
+        this.centerOffset = gridSize / 2;
+        this.driftX = driftX;
+        this.driftY = driftY;
+        this.sigmaY0 = sigmaY0;
+        this.sigmaZ0 = sigmaZ0;
+        this.amplitude = amplitude;
+        this.floor = floor;
+    }
+
+    /**
+     * Fill {@code out} and return the maximum concentration. Uses {@code pool}
+     * when the grid has at least {@code parallelThreshold} cells, otherwise
+     * runs on the calling thread.
+     */
+    public double compute(GridStorage out, ForkJoinPool pool, int parallelThreshold) {
+        if (pool == null || (long) gridSize * gridSize < parallelThreshold) {
+            return computeRows(out, 0, gridSize);
+        }
+        return pool.invoke(new RowTask(out, 0, gridSize));
+    }
+
+    /**
+     * Evaluate rows [fromRow, toRow) and return their maximum; fromRow is a
+     * multiple of {@link #ROW_BLOCK}
+     */
+    double computeRows(GridStorage out, int fromRow, int toRow) {
+        int tiles = (gridSize + ROW_BLOCK - 1) / ROW_BLOCK;
+        boolean[] live = new boolean[tiles];
+        double[] row = new double[gridSize];
+        double max = 0.0;
+        for (int blockStart = fromRow; blockStart < toRow; blockStart += ROW_BLOCK) {
+            int blockEnd = Math.min(toRow, blockStart + ROW_BLOCK);
+            for (int t = 0; t < tiles; t++) {
+                int colStart = t * ROW_BLOCK;
+                int colEnd = Math.min(gridSize, colStart + ROW_BLOCK);
+                live[t] = floor <= 0.0 || upperBound(blockStart, blockEnd - 1, colStart, colEnd - 1) > floor;
+            }
+
+            for (int i = blockStart; i < blockEnd; i++) {
+                double effectiveX = (i - centerOffset) * cellSize - driftX;
+                double effectiveX2 = effectiveX * effectiveX;
+                for (int t = 0; t < tiles; t++) {
+                    int colStart = t * ROW_BLOCK;
+                    int colEnd = Math.min(gridSize, colStart + ROW_BLOCK);
+                    if (!live[t]) {
+                        Arrays.fill(row, colStart, colEnd, 0.0);
+                        continue;
+                    }
+                    for (int j = colStart; j < colEnd; j++) {
+                        double c = concentrationAt(effectiveX2, (j - centerOffset) * cellSize - driftY);
+                        row[j] = c;
+                        if (c > max) {
+                            max = c;
+                        }
+                    }
+                }
+                out.writeRow(i, row, 0);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Largest concentration any cell in rows [i0, i1] x columns [j0, j1] can
+     * take. The prefactor is largest where the sigmas are smallest (nearest
+     * point) and the exponent is least negative with the smallest lateral
+     * offset over the largest sigmas (farthest point); both sigmas grow
+     * monotonically with distance.
+     */
+    double upperBound(int i0, int i1, int j0, int j1) {
+        double xLo = (i0 - centerOffset) * cellSize - driftX;
+        double xHi = (i1 - centerOffset) * cellSize - driftX;
+        double yLo = (j0 - centerOffset) * cellSize - driftY;
+        double yHi = (j1 - centerOffset) * cellSize - driftY;
+
+        double xNear = nearestToZero(xLo, xHi);
+        double yNear = nearestToZero(yLo, yHi);
+        double xFar = Math.max(Math.abs(xLo), Math.abs(xHi));
+        double yFar = Math.max(Math.abs(yLo), Math.abs(yHi));
+        double near = Math.max(1.0, Math.sqrt(xNear * xNear + yNear * yNear));
+        double far = Math.max(1.0, Math.sqrt(xFar * xFar + yFar * yFar));
+
+        double sigmaYFar = sigmaY(far);
+        double sigmaZFar = sigmaZ(far);
+        double exponent = -0.5 * (yNear * yNear / (sigmaYFar * sigmaYFar)
+                + RELEASE_HEIGHT_SQ / (sigmaZFar * sigmaZFar));
+        // Slack covers rounding differences between pow here and log/exp per cell
+        return amplitude / (sigmaY(near) * sigmaZ(near)) * Math.exp(exponent) * BOUND_SLACK;
+    }
+
+    private double concentrationAt(double effectiveX2, double effectiveY) {
+        double distance = Math.sqrt(effectiveX2 + effectiveY * effectiveY);
+        if (distance < 1.0) {
+            distance = 1.0;
+        }
+
+        // (d/1000)^0.9 and (d/1000)^0.8 from a single log
+        double logD = Math.log(distance / 1000.0);
+        double sigmaY = Math.max(SIGMA_Y_MIN, sigmaY0 * Math.exp(SIGMA_Y_EXPONENT * logD));
+        double sigmaZ = Math.max(SIGMA_Z_MIN, sigmaZ0 * Math.exp(SIGMA_Z_EXPONENT * logD));
+
+        double ratioY = effectiveY / sigmaY;
+        double exponent = -0.5 * (ratioY * ratioY + RELEASE_HEIGHT_SQ / (sigmaZ * sigmaZ));
+        double concentration = amplitude / (sigmaY * sigmaZ) * Math.exp(exponent);
+        return concentration > 0.0 ? concentration : 0.0;
+    }
+
+    private double sigmaY(double distance) {
+        return Math.max(SIGMA_Y_MIN, sigmaY0 * Math.pow(distance / 1000.0, SIGMA_Y_EXPONENT));
+    }
+
+    private double sigmaZ(double distance) {
+        return Math.max(SIGMA_Z_MIN, sigmaZ0 * Math.pow(distance / 1000.0, SIGMA_Z_EXPONENT));
+    }
+
+    private static double nearestToZero(double lo, double hi) {
+        if (lo <= 0.0 && hi >= 0.0) {
+            return 0.0;
+        }
+        return Math.min(Math.abs(lo), Math.abs(hi));
+    }
+
+    private final class RowTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final GridStorage out;
+        private final int fromRow;
+        private final int toRow;
+
+        RowTask(GridStorage out, int fromRow, int toRow) {
+            this.out = out;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected Double compute() {
+            int rows = toRow - fromRow;
+            if (rows <= ROW_BLOCK) {
+                return computeRows(out, fromRow, toRow);
+            }
+            // Split on a block boundary so tasks never share a block of rows
+            int mid = fromRow + ((rows / ROW_BLOCK + 1) / 2) * ROW_BLOCK;
+            RowTask upper = new RowTask(out, mid, toRow);
+            upper.fork();
+            double lowerMax = new RowTask(out, fromRow, mid).compute();
+            return Math.max(lowerMax, upper.join());
+        }
+    }
+}
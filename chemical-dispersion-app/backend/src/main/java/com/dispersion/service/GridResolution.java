@@ -0,0 +1,35 @@
+package com.dispersion.service;
+
+/**
+ * Resolved grid dimensions for one calculation
+ */
+public class GridResolution {
+
+    private final int gridSize;
+    private final double cellSize;
+
+    public GridResolution(int gridSize, double cellSize) {
+        this.gridSize = gridSize;
+        this.cellSize = cellSize;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * Half-width of the grid in meters
+     */
+    public double getRadius() {
+        return gridSize * cellSize / 2.0;
+    }
+
+    @Override
+    public String toString() {
+        return gridSize + "x" + gridSize + " @ " + cellSize + " m";
+    }
+}
@@ -0,0 +1,112 @@
+package com.dispersion.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks grid size and cell size for a calculation.
+ *
+ * With auto-resolution enabled the grid extent is sized to the spill: the
+ * distance the plume drifts with the wind over the simulated period plus a
+ * spreading radius that grows with the cube root of the released volume.
+ * The configured grid-size is then the target number of cells per side and
+ * the cell size follows from the extent, so small spills get a small, fine
+ * grid and large ones are not clipped. Request overrides win over both.
+ */
+@Component
+public class GridResolver {
+
+    private static final double EXTENT_PADDING = 1.1;
+    private static final double SPREAD_METERS_PER_CUBE_ROOT_M3 = 100.0;
+
+    private final int defaultGridSize;
+    private final double defaultCellSize;
+    private final boolean autoResolution;
+    private final int minGridSize;
+    private final int maxGridSize;
+    private final double minCellSize;
+    private final double maxCellSize;
+    private final double minRadius;
+    private final double maxRadius;
+
+    public GridResolver(
+            @Value("${app.simulation.grid-size:50}") int defaultGridSize,
+            @Value("${app.simulation.grid-cell-size:100.0}") double defaultCellSize,
+            @Value("${app.simulation.auto-resolution:true}") boolean autoResolution,
+            @Value("${app.simulation.min-grid-size:20}") int minGridSize,
+            @Value("${app.simulation.max-grid-size:1000}") int maxGridSize,
+            @Value("${app.simulation.min-cell-size:10.0}") double minCellSize,
+            @Value("${app.simulation.max-cell-size:2000.0}") double maxCellSize,
+            @Value("${app.simulation.min-radius:500.0}") double minRadius,
+            @Value("${app.simulation.max-radius:100000.0}") double maxRadius) {
+        this.defaultGridSize = defaultGridSize;
+        this.defaultCellSize = defaultCellSize;
+        this.autoResolution = autoResolution;
+        this.minGridSize = minGridSize;
+        this.maxGridSize = maxGridSize;
+        this.minCellSize = minCellSize;
+        this.maxCellSize = maxCellSize;
+        this.minRadius = minRadius;
+        this.maxRadius = maxRadius;
+    }
+
+    /**
+     * @param volumeLiters   released volume
+     * @param windSpeed      wind speed (m/s)
+     * @param horizonSeconds simulated period the grid has to cover
+     * @param options        request overrides, may be null
+     */
+    public GridResolution resolve(double volumeLiters, double windSpeed, double horizonSeconds,
+            SimulationOptions options) {
+        Integer requestedGridSize = options != null ? options.getGridSize() : null;
+        Double requestedCellSize = options != null ? options.getCellSize() : null;
+        validate(requestedGridSize, requestedCellSize);
+
+        if (requestedGridSize != null && requestedCellSize != null) {
+            return new GridResolution(requestedGridSize, requestedCellSize);
+        }
+        if (!autoResolution) {
+            return new GridResolution(
+                    requestedGridSize != null ? requestedGridSize : defaultGridSize,
+                    requestedCellSize != null ? requestedCellSize : defaultCellSize);
+        }
+
+        double radius = requiredRadius(volumeLiters, windSpeed, horizonSeconds);
+        if (requestedCellSize != null) {
+            return new GridResolution(cellsFor(radius, requestedCellSize), requestedCellSize);
+        }
+
+        int targetCells = requestedGridSize != null ? requestedGridSize : defaultGridSize;
+        double cellSize = clamp(2.0 * radius / targetCells, minCellSize, maxCellSize);
+        int gridSize = requestedGridSize != null ? requestedGridSize : cellsFor(radius, cellSize);
+        return new GridResolution(gridSize, cellSize);
+    }
+
+    /**
+     * Half-width (m) that contains the drifted plume and its spread
+     */
+    double requiredRadius(double volumeLiters, double windSpeed, double horizonSeconds) {
+        double drift = Math.abs(windSpeed) * horizonSeconds;
+        double spread = SPREAD_METERS_PER_CUBE_ROOT_M3 * Math.cbrt(Math.max(0.0, volumeLiters) / 1000.0);
+        return clamp((drift + spread) * EXTENT_PADDING, minRadius, maxRadius);
+    }
+
+    private int cellsFor(double radius, double cellSize) {
+        int cells = (int) Math.ceil(2.0 * radius / cellSize - 1e-9);
+        cells += cells & 1; // even count keeps the source on the centre index
+        return (int) clamp(cells, minGridSize, maxGridSize);
+    }
+
+    private void validate(Integer gridSize, Double cellSize) {
+        if (gridSize != null && (gridSize < 2 || gridSize > maxGridSize)) {
+            throw new IllegalArgumentException("gridSize must be between 2 and " + maxGridSize);
+        }
+        if (cellSize != null && (!(cellSize > 0.0) || cellSize > maxCellSize)) {
+            throw new IllegalArgumentException("cellSize must be positive and at most " + maxCellSize + " m");
+        }
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
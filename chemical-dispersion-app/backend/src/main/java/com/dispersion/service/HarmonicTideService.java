@@ -0,0 +1,208 @@
+package com.dispersion.service;
+
+import com.dispersion.event.TideModelUpdatedEvent;
+import com.dispersion.model.TideConstituent;
+import com.dispersion.repository.TideConstituentRepository;
+import com.dispersion.tide.Constituent;
+import com.dispersion.tide.HarmonicTideModel;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-station harmonic tide models built from tide_constituents.
+ *
+ * Models are loaded from the database on first use and kept in memory, so
+ * predictions need no I/O at all. Constituents are seeded from NOAA's
+ * harmonic constants (and datums, for Z0 above MLLW) on demand through
+ * {@link #refreshConstituents}, and automatically the first time a station
+ * without constituents is asked for when app.tides.seed-constituents is on.
+ */
+@Service
+public class HarmonicTideService {
+
+    private static final String DATUM = "MLLW";
+
+    private final TideConstituentRepository constituentRepository;
+    private final WebClient webClient;
+    private final UpstreamGuard upstreamGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConcurrentMap<String, Optional<HarmonicTideModel>> models = new ConcurrentHashMap<>();
+    // Automatic seeding is tried once per station; the refresh endpoint can always retry
+    private final Set<String> seedAttempts = ConcurrentHashMap.newKeySet();
+
+    @Value("${external-apis.noaa.metadata-url:https://api.tidesandcurrents.noaa.gov/mdapi/prod/webapi}")
+    private String metadataUrl;
+
+    @Value("${external-apis.noaa.user-agent:water-dispersion-app}")
+    private String userAgent;
+
+    @Value("${app.tides.seed-constituents:true}")
+    private boolean seedConstituents;
+
+    public HarmonicTideService(TideConstituentRepository constituentRepository, WebClient.Builder builder,
+            UpstreamGuard upstreamGuard, ApplicationEventPublisher eventPublisher) {
+        this.constituentRepository = constituentRepository;
+        this.webClient = builder.build();
+        this.upstreamGuard = upstreamGuard;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Model for the station, empty if it has no constituents yet. Blocking on
+     * the first call per station (one database read), in-memory afterwards.
+     */
+    public Optional<HarmonicTideModel> model(String stationId) {
+        Optional<HarmonicTideModel> model = models.computeIfAbsent(stationId, this::loadModel);
+        if (model.isEmpty() && seedConstituents && seedAttempts.add(stationId)) {
+            refreshConstituents(stationId)
+                    .subscribe(count -> System.out.println("Seeded " + count + " tide constituents for " + stationId),
+                            e -> System.err.println("Failed to seed tide constituents for " + stationId + ": "
+                                    + e.getMessage()));
+        }
+        return model;
+    }
+
+    public List<TideConstituent> getConstituents(String stationId) {
+        return constituentRepository.findByStationId(stationId);
+    }
+
+    /**
+     * Replace the station's constituents with NOAA's current harmonic
+     * constants and rebuild its model, publishing a
+     * {@link TideModelUpdatedEvent}. Emits the number of rows stored.
+     */
+    public Mono<Integer> refreshConstituents(String stationId) {
+        Mono<JsonNode> harcon = webClient.get()
+                .uri(metadataUrl + "/stations/" + stationId + "/harcon.json?units=metric")
+                .header("User-Agent", userAgent)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+        Mono<JsonNode> datums = webClient.get()
+                .uri(metadataUrl + "/stations/" + stationId + "/datums.json?units=metric")
+                .header("User-Agent", userAgent)
+                .retrieve()
+                .bodyToMono(JsonNode.class);
+        return Mono.zip(upstreamGuard.guard(UpstreamGuard.NOAA, harcon),
+                upstreamGuard.guard(UpstreamGuard.NOAA, datums))
+                .map(t -> parseConstituents(stationId, t.getT1(), t.getT2()))
+                .publishOn(Schedulers.boundedElastic())
+                .map(fetched -> {
+                    store(stationId, fetched);
+                    models.put(stationId, toModel(fetched));
+                    eventPublisher.publishEvent(new TideModelUpdatedEvent(stationId));
+                    return fetched.size();
+                });
+    }
+
+    private Optional<HarmonicTideModel> loadModel(String stationId) {
+        try {
+            return toModel(constituentRepository.findByStationId(stationId));
+        } catch (Exception e) {
+            System.err.println("Error loading tide constituents for " + stationId + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Upsert by constituent name and drop rows NOAA no longer lists
+     */
+    private void store(String stationId, List<TideConstituent> fetched) {
+        Map<String, TideConstituent> existing = new HashMap<>();
+        for (TideConstituent row : constituentRepository.findByStationId(stationId)) {
+            existing.put(row.getName(), row);
+        }
+        List<TideConstituent> rows = new ArrayList<>();
+        for (TideConstituent constituent : fetched) {
+            TideConstituent row = existing.remove(constituent.getName());
+            if (row == null) {
+                row = constituent;
+            } else {
+                row.setAmplitude(constituent.getAmplitude());
+                row.setPhase(constituent.getPhase());
+                row.setSpeed(constituent.getSpeed());
+                row.setDatum(constituent.getDatum());
+                row.setSource(constituent.getSource());
+            }
+            rows.add(row);
+        }
+        constituentRepository.saveAll(rows);
+        if (!existing.isEmpty()) {
+            constituentRepository.deleteAll(existing.values());
+        }
+    }
+
+    private static List<TideConstituent> parseConstituents(String stationId, JsonNode harcon, JsonNode datums) {
+        Double msl = null;
+        Double mllw = null;
+        for (JsonNode datum : datums.path("datums")) {
+            if ("MSL".equals(datum.path("name").asText())) {
+                msl = datum.path("value").asDouble();
+            } else if (DATUM.equals(datum.path("name").asText())) {
+                mllw = datum.path("value").asDouble();
+            }
+        }
+        if (msl == null || mllw == null) {
+            throw new IllegalStateException("Station " + stationId + " has no MSL/MLLW datums");
+        }
+
+        List<TideConstituent> out = new ArrayList<>();
+        out.add(constituent(stationId, TideConstituent.MEAN_LEVEL, msl - mllw, 0.0, 0.0));
+        for (JsonNode node : harcon.path("HarmonicConstituents")) {
+            Constituent c = Constituent.lookup(node.path("name").asText());
+            if (c != null) {
+                out.add(constituent(stationId, c.name(), node.path("amplitude").asDouble(),
+                        node.path("phase_GMT").asDouble(), c.speed()));
+            }
+        }
+        if (out.size() == 1) {
+            throw new IllegalStateException("Station " + stationId + " has no harmonic constituents");
+        }
+        return out;
+    }
+
+    private static TideConstituent constituent(String stationId, String name, double amplitude, double phase,
+            double speed) {
+        TideConstituent row = new TideConstituent();
+        row.setStationId(stationId);
+        row.setName(name);
+        row.setAmplitude(BigDecimal.valueOf(amplitude).setScale(4, RoundingMode.HALF_UP));
+        row.setPhase(BigDecimal.valueOf(phase).setScale(3, RoundingMode.HALF_UP));
+        row.setSpeed(BigDecimal.valueOf(speed).setScale(7, RoundingMode.HALF_UP));
+        row.setDatum(DATUM);
+        row.setSource("NOAA");
+        return row;
+    }
+
+    private static Optional<HarmonicTideModel> toModel(List<TideConstituent> rows) {
+        double meanLevel = 0.0;
+        Map<Constituent, double[]> constants = new EnumMap<>(Constituent.class);
+        for (TideConstituent row : rows) {
+            if (TideConstituent.MEAN_LEVEL.equals(row.getName())) {
+                meanLevel = row.getAmplitude().doubleValue();
+                continue;
+            }
+            Constituent c = Constituent.lookup(row.getName());
+            if (c != null) {
+                constants.put(c, new double[] { row.getAmplitude().doubleValue(), row.getPhase().doubleValue() });
+            }
+        }
+        return constants.isEmpty() ? Optional.empty() : Optional.of(HarmonicTideModel.of(meanLevel, constants));
+    }
+}
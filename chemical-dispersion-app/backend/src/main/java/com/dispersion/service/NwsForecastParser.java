@@ -0,0 +1,267 @@
+package com.dispersion.service;
+
+import com.dispersion.model.WeatherData;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental reader for an NWS forecastHourly document.
+ *
+ * Response chunks are pushed through Jackson's non-blocking parser as they
+ * arrive and each object of properties.periods is mapped straight to
+ * WeatherData, without building a tree. Periods that have already ended are
+ * skipped; once {@code maxPeriods} are collected {@link #feed} returns true
+ * and the rest of the response need not be read.
+ *
+ * NWS values are converted to the units used throughout the application:
+ * "5 to 10 mph" becomes the mean speed in m/s, compass points become degrees
+ * and Fahrenheit becomes Celsius.
+ */
+final class NwsForecastParser {
+
+    private static final double MPH_TO_MS = 0.44704;
+    private static final double KMH_TO_MS = 1.0 / 3.6;
+    private static final double KNOTS_TO_MS = 0.514444;
+    private static final Pattern NUMBER = Pattern.compile("\\d+(?:\\.\\d+)?");
+    private static final String[] COMPASS_POINTS = { "N", "NNE", "NE", "ENE", "E", "ESE", "SE", "SSE",
+            "S", "SSW", "SW", "WSW", "W", "WNW", "NW", "NNW" };
+
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final int maxPeriods;
+    private final Instant now;
+    private final Duration periodLength;
+    private final List<Period> periods = new ArrayList<>();
+
+    private PeriodFields current;
+    private boolean done;
+
+    NwsForecastParser(JsonFactory jsonFactory, int maxPeriods, Instant now, Duration periodLength) {
+        try {
+            this.parser = jsonFactory.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+        this.maxPeriods = maxPeriods;
+        this.now = now;
+        this.periodLength = periodLength;
+    }
+
+    /**
+     * Parse the next chunk of the response; true once enough periods are read
+     */
+    boolean feed(byte[] chunk) throws IOException {
+        if (done) {
+            return true;
+        }
+        feeder.feedInput(chunk, 0, chunk.length);
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != JsonToken.NOT_AVAILABLE && token != null) {
+            handle(token);
+        }
+        return done;
+    }
+
+    List<Period> periods() {
+        return periods;
+    }
+
+    private void handle(JsonToken token) throws IOException {
+        JsonStreamContext context = parser.getParsingContext();
+        if (current == null) {
+            // A period starts with an object directly inside properties.periods
+            if (token == JsonToken.START_OBJECT && isPeriodsArray(context.getParent())) {
+                current = new PeriodFields(context);
+            }
+            return;
+        }
+        // On END_OBJECT the parser has already stepped back out to the array
+        if (token == JsonToken.END_OBJECT && context == current.array) {
+            completePeriod();
+            return;
+        }
+        if (!token.isScalarValue()) {
+            return;
+        }
+
+        String field = parser.currentName();
+        if (context == current.context) {
+            switch (field) {
+                case "startTime":
+                    current.startTime = parser.getText();
+                    break;
+                case "temperature":
+                    current.temperature = token.isNumeric() ? parser.getDoubleValue() : null;
+                    break;
+                case "temperatureUnit":
+                    current.temperatureUnit = parser.getText();
+                    break;
+                case "windSpeed":
+                    current.windSpeed = parser.getText();
+                    break;
+                case "windDirection":
+                    current.windDirection = parser.getText();
+                    break;
+                case "shortForecast":
+                    current.shortForecast = parser.getText();
+                    break;
+                default:
+                    break;
+            }
+        } else if ("value".equals(field) && token.isNumeric() && context.getParent() == current.context
+                && "relativeHumidity".equals(context.getParent().getCurrentName())) {
+            current.humidity = parser.getDoubleValue();
+        }
+    }
+
+    private void completePeriod() {
+        PeriodFields fields = current;
+        current = null;
+        if (fields.startTime == null) {
+            return;
+        }
+        OffsetDateTime startTime = OffsetDateTime.parse(fields.startTime);
+        Instant start = startTime.toInstant();
+        if (!start.plus(periodLength).isAfter(now)) {
+            return;
+        }
+
+        WeatherData weather = new WeatherData();
+        if (fields.temperature != null) {
+            double celsius = "F".equalsIgnoreCase(fields.temperatureUnit)
+                    ? (fields.temperature - 32.0) * 5.0 / 9.0
+                    : fields.temperature;
+            weather.setTemperature(scaled(celsius));
+        }
+        if (fields.humidity != null) {
+            weather.setHumidity(scaled(fields.humidity));
+        }
+        Double windSpeed = windSpeedMs(fields.windSpeed);
+        if (windSpeed != null) {
+            weather.setWindSpeed(scaled(windSpeed));
+        }
+        Double windDirection = compassDegrees(fields.windDirection);
+        if (windDirection != null) {
+            weather.setWindDirection(scaled(windDirection));
+        }
+        weather.setWeatherCondition(fields.shortForecast);
+        weather.setTimestamp(startTime.toLocalDateTime());
+        periods.add(new Period(start, weather));
+        if (periods.size() >= maxPeriods) {
+            done = true;
+        }
+    }
+
+    private static boolean isPeriodsArray(JsonStreamContext array) {
+        if (array == null || !array.inArray()) {
+            return false;
+        }
+        JsonStreamContext properties = array.getParent();
+        if (properties == null || !"periods".equals(properties.getCurrentName())) {
+            return false;
+        }
+        JsonStreamContext feature = properties.getParent();
+        return feature != null && feature.getParent() != null && feature.getParent().inRoot()
+                && "properties".equals(feature.getCurrentName());
+    }
+
+    /**
+     * "10 mph" or "5 to 10 mph" (mean of the range) in m/s; null if unparseable
+     */
+    static Double windSpeedMs(String text) {
+        if (text == null) {
+            return null;
+        }
+        Matcher matcher = NUMBER.matcher(text);
+        double sum = 0.0;
+        int count = 0;
+        while (matcher.find()) {
+            sum += Double.parseDouble(matcher.group());
+            count++;
+        }
+        if (count == 0) {
+            return null;
+        }
+        String unit = text.toLowerCase(Locale.ROOT);
+        double factor = MPH_TO_MS;
+        if (unit.contains("km/h")) {
+            factor = KMH_TO_MS;
+        } else if (unit.contains("kt") || unit.contains("knot")) {
+            factor = KNOTS_TO_MS;
+        } else if (unit.contains("m/s")) {
+            factor = 1.0;
+        }
+        return sum / count * factor;
+    }
+
+    /**
+     * Compass point ("NW") or numeric bearing in degrees; null if unknown
+     */
+    static Double compassDegrees(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String point = text.trim().toUpperCase(Locale.ROOT);
+        for (int k = 0; k < COMPASS_POINTS.length; k++) {
+            if (COMPASS_POINTS[k].equals(point)) {
+                return k * 22.5;
+            }
+        }
+        try {
+            return Double.parseDouble(point);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static BigDecimal scaled(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * One forecast hour and when it starts
+     */
+    static final class Period {
+        final Instant start;
+        final WeatherData weather;
+
+        Period(Instant start, WeatherData weather) {
+            this.start = start;
+            this.weather = weather;
+        }
+    }
+
+    private static final class PeriodFields {
+        final JsonStreamContext context;
+        final JsonStreamContext array;
+        String startTime;
+        Double temperature;
+        String temperatureUnit;
+        Double humidity;
+        String windSpeed;
+        String windDirection;
+        String shortForecast;
+
+        PeriodFields(JsonStreamContext context) {
+            this.context = context;
+            this.array = context.getParent();
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.dispersion.service;
+
+import com.dispersion.event.ChemicalUpdatedEvent;
+import com.dispersion.event.SpillCreatedEvent;
+import com.dispersion.event.SpillDeletedEvent;
+import com.dispersion.event.SpillStatusChangedEvent;
+import com.dispersion.event.TideModelUpdatedEvent;
+import com.dispersion.event.WeatherForecastUpdatedEvent;
+import com.dispersion.model.Spill;
+import com.dispersion.model.SpillSeverity;
+import com.dispersion.repository.SpillRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Recalculates ACTIVE spills when one of their inputs changes, instead of
+ * sweeping every spill at a fixed rate.
+ *
+ * A spill is marked dirty when it is created or reactivated, when the NWS
+ * forecast it reads changes, when its tide station's constituents or its
+ * chemical's properties are updated, and when the clock moves it into a new
+ * weather period, tide prediction point or simulation frame interval. The
+ * clock check runs on a short tick over spills kept in memory, so it costs
+ * no I/O.
+ *
+ * Each dirty spill is queued once on a bounded pool, most severe first. A
+ * spill dirtied again while it is being calculated is queued again when
+ * that calculation ends. SpillChangeTracker streams only what changed.
+ */
+@Component
+public class RecalculationScheduler {
+
+    private final DispersionService dispersionService;
+    private final SpillRepository spillRepository;
+    private final WeatherService weatherService;
+    private final TideService tideService;
+    private final long weatherPeriodMillis;
+    private final long tideStepMillis;
+    private final long simulationStepMillis;
+    private final ThreadPoolExecutor executor;
+    private final ConcurrentMap<UUID, TrackedSpill> tracked = new ConcurrentHashMap<>();
+    private final AtomicLong submissions = new AtomicLong();
+    private volatile boolean loaded;
+
+    public RecalculationScheduler(
+            DispersionService dispersionService,
+            SpillRepository spillRepository,
+            WeatherService weatherService,
+            TideService tideService,
+            @Value("${app.simulation.frame-interval-minutes:60}") int frameIntervalMinutes,
+            @Value("${app.recalc.threads:2}") int threads) {
+        this.dispersionService = dispersionService;
+        this.spillRepository = spillRepository;
+        this.weatherService = weatherService;
+        this.tideService = tideService;
+        this.weatherPeriodMillis = Math.max(1, weatherService.periodLength().toMillis());
+        this.tideStepMillis = Math.max(1, tideService.predictionStep().toMillis());
+        this.simulationStepMillis = Duration.ofMinutes(Math.max(1, frameIntervalMinutes)).toMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        // At most one queued recalculation per tracked spill, so the queue is bounded by the active spills
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "recalc-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Mark the spills whose time-dependent inputs moved on since their last
+     * calculation; the first tick also loads the ACTIVE spills
+     */
+    @Scheduled(initialDelayString = "${app.recalc.initial-delay-ms:10000}",
+            fixedDelayString = "${app.recalc.tick-ms:30000}")
+    public void checkElapsedInputs() {
+        if (!loaded) {
+            loadActiveSpills();
+        }
+        long now = System.currentTimeMillis();
+        for (TrackedSpill spill : tracked.values()) {
+            long[] clock = clockInputs(spill.spill, now);
+            boolean elapsed;
+            synchronized (spill) {
+                elapsed = !Arrays.equals(clock, spill.calculatedClock);
+            }
+            if (elapsed) {
+                markDirty(spill);
+            }
+        }
+    }
+
+    @EventListener
+    public void onSpillCreated(SpillCreatedEvent event) {
+        if (event.getSpill().getStatus() == Spill.SpillStatus.ACTIVE) {
+            markDirty(track(event.getSpill()));
+        }
+    }
+
+    @EventListener
+    public void onSpillStatusChanged(SpillStatusChangedEvent event) {
+        Spill spill = event.getSpill();
+        if (spill.getStatus() != Spill.SpillStatus.ACTIVE) {
+            tracked.remove(spill.getId());
+        } else if (event.getPreviousStatus() != Spill.SpillStatus.ACTIVE) {
+            markDirty(track(spill));
+        }
+    }
+
+    @EventListener
+    public void onSpillDeleted(SpillDeletedEvent event) {
+        tracked.remove(event.getSpill().getId());
+    }
+
+    @EventListener
+    public void onWeatherForecastUpdated(WeatherForecastUpdatedEvent event) {
+        markDirtyIf(spill -> event.getForecastUrl().equals(weatherService.cachedForecastUrl(
+                spill.getLatitude().doubleValue(), spill.getLongitude().doubleValue())));
+    }
+
+    @EventListener
+    public void onTideModelUpdated(TideModelUpdatedEvent event) {
+        markDirtyIf(spill -> event.getStationId().equals(tideService.tideStationId(
+                spill.getLatitude().doubleValue(), spill.getLongitude().doubleValue())));
+    }
+
+    @EventListener
+    public void onChemicalUpdated(ChemicalUpdatedEvent event) {
+        String chemicalName = event.getChemicalName().trim();
+        markDirtyIf(spill -> spill.getChemicalType() != null
+                && spill.getChemicalType().trim().equalsIgnoreCase(chemicalName));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void loadActiveSpills() {
+        try {
+            for (Spill spill : spillRepository.findByStatus(Spill.SpillStatus.ACTIVE)) {
+                track(spill);
+            }
+            loaded = true;
+        } catch (Exception e) {
+            System.err.println("Error loading active spills for recalculation: " + e.getMessage());
+        }
+    }
+
+    private TrackedSpill track(Spill spill) {
+        if (spill.getId() == null || spill.getLatitude() == null || spill.getLongitude() == null) {
+            return null;
+        }
+        TrackedSpill trackedSpill = tracked.computeIfAbsent(spill.getId(), id -> new TrackedSpill(spill));
+        // Keep the newest copy of the spill for severity and location
+        trackedSpill.spill = spill;
+        return trackedSpill;
+    }
+
+    private void markDirtyIf(Predicate<Spill> inputChanged) {
+        for (TrackedSpill spill : tracked.values()) {
+            if (inputChanged.test(spill.spill)) {
+                markDirty(spill);
+            }
+        }
+    }
+
+    private void markDirty(TrackedSpill spill) {
+        if (spill == null) {
+            return;
+        }
+        synchronized (spill) {
+            if (spill.running) {
+                spill.dirtyAgain = true;
+                return;
+            }
+            if (spill.queued) {
+                return;
+            }
+            spill.queued = true;
+        }
+        try {
+            executor.execute(new Recalculation(spill, SpillSeverity.of(spill.spill), submissions.incrementAndGet()));
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            synchronized (spill) {
+                spill.queued = false;
+            }
+        }
+    }
+
+    private void recalculate(TrackedSpill spill) {
+        UUID spillId = spill.spill.getId();
+        synchronized (spill) {
+            spill.queued = false;
+            if (tracked.get(spillId) != spill) {
+                // Deleted or no longer active since it was queued
+                return;
+            }
+            spill.running = true;
+            spill.calculatedClock = clockInputs(spill.spill, System.currentTimeMillis());
+        }
+        boolean again;
+        try {
+            dispersionService.calculateDispersion(spillId);
+        } catch (Exception e) {
+            System.err.println("Error updating dispersion for spill " + spillId + ": " + e.getMessage());
+        } finally {
+            synchronized (spill) {
+                spill.running = false;
+                again = spill.dirtyAgain;
+                spill.dirtyAgain = false;
+            }
+        }
+        if (again) {
+            markDirty(spill);
+        }
+    }
+
+    /**
+     * Weather period, tide prediction point and simulation frame interval
+     * that apply to the spill at {@code now}
+     */
+    private long[] clockInputs(Spill spill, long now) {
+        LocalDateTime spillTime = spill.getSpillTime();
+        long sinceSpill = spillTime != null
+                ? Math.max(0, Duration.between(spillTime, LocalDateTime.now()).toMillis())
+                : 0;
+        return new long[] { now / weatherPeriodMillis, now / tideStepMillis, sinceSpill / simulationStepMillis };
+    }
+
+    private static final class TrackedSpill {
+        volatile Spill spill;
+        // Guarded by this
+        boolean queued;
+        boolean running;
+        boolean dirtyAgain;
+        long[] calculatedClock;
+
+        TrackedSpill(Spill spill) {
+            this.spill = spill;
+        }
+    }
+
+    /**
+     * Queued recalculation; more severe spills first, then in the order they were marked
+     */
+    private final class Recalculation implements Runnable, Comparable<Recalculation> {
+        final TrackedSpill spill;
+        final SpillSeverity severity;
+        final long submission;
+
+        Recalculation(TrackedSpill spill, SpillSeverity severity, long submission) {
+            this.spill = spill;
+            this.severity = severity;
+            this.submission = submission;
+        }
+
+        @Override
+        public void run() {
+            recalculate(spill);
+        }
+
+        @Override
+        public int compareTo(Recalculation other) {
+            int bySeverity = other.severity.compareTo(severity);
+            return bySeverity != 0 ? bySeverity : Long.compare(submission, other.submission);
+        }
+    }
+}
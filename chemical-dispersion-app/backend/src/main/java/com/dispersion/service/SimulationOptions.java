@@ -0,0 +1,82 @@
+package com.dispersion.service;
+
+/**
+ * Per-request simulation settings. Null fields fall back to the
+ * app.simulation configuration. {@code includeFrames} only asks for the
+ * intermediate frames of a stepped run to be returned; it does not change
+ * the calculation.
+ */
+public class SimulationOptions {
+
+    private Integer simulationHours;
+    private Integer gridSize;
+    private Double cellSize;
+    private boolean includeFrames;
+
+    public SimulationOptions() {
+    }
+
+    public SimulationOptions(Integer simulationHours, Integer gridSize, Double cellSize) {
+        this.simulationHours = simulationHours;
+        this.gridSize = gridSize;
+        this.cellSize = cellSize;
+    }
+
+    public SimulationOptions(Integer simulationHours, Integer gridSize, Double cellSize, boolean includeFrames) {
+        this(simulationHours, gridSize, cellSize);
+        this.includeFrames = includeFrames;
+    }
+
+    public static SimulationOptions defaults() {
+        return new SimulationOptions();
+    }
+
+    /**
+     * True if nothing is overridden, i.e. the same calculation as {@link #defaults()}
+     */
+    public boolean isDefault() {
+        return simulationHours == null && gridSize == null && cellSize == null;
+    }
+
+    public Integer getSimulationHours() {
+        return simulationHours;
+    }
+
+    public void setSimulationHours(Integer simulationHours) {
+        this.simulationHours = simulationHours;
+    }
+
+    public Integer getGridSize() {
+        return gridSize;
+    }
+
+    public void setGridSize(Integer gridSize) {
+        this.gridSize = gridSize;
+    }
+
+    public Double getCellSize() {
+        return cellSize;
+    }
+
+    public void setCellSize(Double cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    public boolean isIncludeFrames() {
+        return includeFrames;
+    }
+
+    public void setIncludeFrames(boolean includeFrames) {
+        this.includeFrames = includeFrames;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulationOptions{" +
+                "simulationHours=" + simulationHours +
+                ", gridSize=" + gridSize +
+                ", cellSize=" + cellSize +
+                ", includeFrames=" + includeFrames +
+                '}';
+    }
+}
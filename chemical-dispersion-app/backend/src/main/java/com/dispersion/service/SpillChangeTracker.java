@@ -0,0 +1,177 @@
+package com.dispersion.service;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.dto.SpillUpdate;
+import com.dispersion.dto.SpillUpdate.GridUpdate;
+import com.dispersion.event.DispersionCalculatedEvent;
+import com.dispersion.event.SpillCreatedEvent;
+import com.dispersion.event.SpillDeletedEvent;
+import com.dispersion.event.SpillStatusChangedEvent;
+import com.dispersion.grid.GridDelta;
+import com.dispersion.grid.GridDelta.Tile;
+import com.dispersion.model.Spill;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Turns spill and calculation events into the changes published on
+ * /api/real-time-updates.
+ *
+ * For grids it keeps, per spill, the grid as clients hold it after applying
+ * every tile sent so far, and publishes only the tiles that differ from it
+ * by more than the tolerance; a recalculation that changes nothing
+ * publishes nothing, and changes below the tolerance are sent once they add
+ * up. A grid whose geometry changed (new size, cell size or centre) is sent
+ * as a reset with its non-empty tiles. Clients that join later get the same
+ * grids as resets in their snapshot ({@link #currentGrids}).
+ * Only calculations with the default options are streamed; one-off runs
+ * with a custom horizon or grid would otherwise reset every client's grid.
+ */
+@Component
+public class SpillChangeTracker {
+
+    private final SseBroadcastHub broadcastHub;
+    private final int tileSize;
+    private final double tolerance;
+    private final ConcurrentMap<UUID, SentGrid> sentGrids = new ConcurrentHashMap<>();
+
+    public SpillChangeTracker(
+            SseBroadcastHub broadcastHub,
+            @Value("${app.sse.grid-tile-size:16}") int tileSize,
+            @Value("${app.sse.grid-delta-tolerance:0.0001}") double tolerance) {
+        this.broadcastHub = broadcastHub;
+        this.tileSize = Math.max(1, tileSize);
+        this.tolerance = tolerance;
+    }
+
+    @EventListener
+    public void onSpillCreated(SpillCreatedEvent event) {
+        Spill spill = event.getSpill();
+        SpillUpdate update = new SpillUpdate(SpillUpdate.SPILL_CREATED, spill.getId());
+        update.setData(spill);
+        broadcastHub.publish(null, update, EventTopic.of(spill));
+    }
+
+    @EventListener
+    public void onSpillStatusChanged(SpillStatusChangedEvent event) {
+        Spill spill = event.getSpill();
+        if (spill.getStatus() == event.getPreviousStatus()) {
+            return;
+        }
+        if (spill.getStatus() == Spill.SpillStatus.CLEANED_UP) {
+            sentGrids.remove(spill.getId());
+        }
+        SpillUpdate update = new SpillUpdate(SpillUpdate.SPILL_STATUS_CHANGED, spill.getId());
+        update.setNewStatus(spill.getStatus());
+        broadcastHub.publish(null, update, EventTopic.of(spill));
+    }
+
+    @EventListener
+    public void onSpillDeleted(SpillDeletedEvent event) {
+        Spill spill = event.getSpill();
+        sentGrids.remove(spill.getId());
+        broadcastHub.publish(null, new SpillUpdate(SpillUpdate.SPILL_DELETED, spill.getId()), EventTopic.of(spill));
+    }
+
+    @EventListener
+    public void onDispersionCalculated(DispersionCalculatedEvent event) {
+        DispersionResponse response = event.getResponse();
+        DispersionGrid grid = response.getDispersionGrid();
+        if (response.getSpillId() == null || grid == null || !event.getOptions().isDefault()) {
+            return;
+        }
+        EventTopic topic = EventTopic.of(event.getSpill());
+        double[] values = grid.getStorage().toArray();
+        int rows = grid.getStorage().rows();
+        int cols = grid.getStorage().cols();
+        // Per-spill lock, so deltas of concurrent calculations are published in the order they were diffed;
+        // publish only queues, so no socket write happens inside compute
+        sentGrids.compute(response.getSpillId(), (spillId, previous) -> {
+            boolean reset = previous == null || !previous.sameGeometry(grid, rows, cols);
+            List<Tile> tiles = GridDelta.changedTiles(reset ? null : previous.values, values, rows, cols, tileSize,
+                    tolerance);
+            if (!reset && tiles.isEmpty()) {
+                return previous;
+            }
+            double[] sent = reset ? new double[values.length] : previous.values.clone();
+            GridDelta.apply(sent, cols, tiles);
+            SentGrid current = new SentGrid(grid, rows, cols, sent, response);
+            broadcastHub.publish(null, current.update(spillId, reset, tiles, tileSize), topic);
+            return current;
+        });
+    }
+
+    /**
+     * The grids clients hold for these spills, each as a reset update, for
+     * the snapshot of a client that cannot resume; spills without a streamed
+     * grid are left out
+     */
+    public List<SpillUpdate> currentGrids(Collection<UUID> spillIds) {
+        List<SpillUpdate> updates = new ArrayList<>();
+        for (UUID spillId : spillIds) {
+            SentGrid sent = sentGrids.get(spillId);
+            if (sent != null) {
+                // Tolerance 0, so the client rebuilds exactly the grid later deltas were diffed against
+                List<Tile> tiles = GridDelta.changedTiles(null, sent.values, sent.rows, sent.cols, tileSize, 0.0);
+                updates.add(sent.update(spillId, true, tiles, tileSize));
+            }
+        }
+        return updates;
+    }
+
+    /**
+     * A streamed grid; replaced, never modified, so it can be read without
+     * the per-spill lock
+     */
+    private static final class SentGrid {
+        final double centerLat;
+        final double centerLon;
+        final double cellSize;
+        final int gridSize;
+        final int rows;
+        final int cols;
+        final double[] values;
+        final LocalDateTime calculationTime;
+        final Double maxConcentration;
+        final BigDecimal affectedAreaKm2;
+
+        SentGrid(DispersionGrid grid, int rows, int cols, double[] values, DispersionResponse response) {
+            this.centerLat = grid.getCenterLat();
+            this.centerLon = grid.getCenterLon();
+            this.cellSize = grid.getCellSize();
+            this.gridSize = grid.getGridSize();
+            this.rows = rows;
+            this.cols = cols;
+            this.values = values;
+            this.calculationTime = response.getCalculationTime();
+            this.maxConcentration = response.getMaxConcentration();
+            this.affectedAreaKm2 = response.getAffectedAreaKm2();
+        }
+
+        boolean sameGeometry(DispersionGrid grid, int rows, int cols) {
+            return centerLat == grid.getCenterLat() && centerLon == grid.getCenterLon()
+                    && cellSize == grid.getCellSize() && gridSize == grid.getGridSize() && this.rows == rows
+                    && this.cols == cols;
+        }
+
+        SpillUpdate update(UUID spillId, boolean reset, List<Tile> tiles, int tileSize) {
+            SpillUpdate update = new SpillUpdate(SpillUpdate.GRID_UPDATED, spillId);
+            update.setCalculationTime(calculationTime);
+            update.setMaxConcentration(maxConcentration);
+            update.setAffectedAreaKm2(affectedAreaKm2);
+            update.setGrid(new GridUpdate(centerLat, centerLon, cellSize, gridSize, tileSize, reset, tiles));
+            return update;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.dispersion.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single fan-out point for every server-sent event stream.
+ *
+ * An event is serialized to JSON once and the same bytes are queued for
+ * every client, so the caller (usually a scheduler thread) never writes to
+ * a socket. Each client has a small bounded queue drained by a dedicated
+ * executor, one drain at a time per client so events stay in order.
+ *
+ * Published events carry a sequence id ("stream-sequence", the stream part
+ * changing on every restart) and the most recent ones are kept in a replay
+ * ring. A client reconnecting with Last-Event-ID gets only what it missed;
+ * one that is unknown or too far behind gets a full snapshot instead.
+ *
+ * Events are never dropped from a stream: a client whose queue is full is
+ * disconnected and catches up from the replay ring when EventSource
+ * reconnects. Its emitter is completed by its own drain task, since
+ * completing waits for a send that may be stuck on the socket.
+ *
+ * Subscribers may pass a {@link SubscriptionFilter}; an event published with
+ * a topic is only routed (through a {@link SubscriptionIndex}) to clients
+ * whose filter matches it, live and on replay.
+ */
+@Component
+public class SseBroadcastHub {
+
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int replayCapacity;
+    private final ThreadPoolExecutor executor;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final SubscriptionIndex<Client> index;
+    private final String streamId = Long.toString(System.currentTimeMillis(), 36);
+
+    // Guarded by itself, together with sequence
+    private final Deque<Frame> replay = new ArrayDeque<>();
+    private long sequence;
+
+    public SseBroadcastHub(
+            ObjectMapper objectMapper,
+            @Value("${app.sse.client-queue-capacity:16}") int queueCapacity,
+            @Value("${app.sse.replay-capacity:1024}") int replayCapacity,
+            @Value("${app.sse.threads:2}") int threads,
+            @Value("${app.sse.routing-cell-degrees:1.0}") double routingCellDegrees,
+            @Value("${app.sse.routing-max-cells-per-box:400}") int routingMaxCellsPerBox) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.replayCapacity = Math.max(0, replayCapacity);
+        this.index = new SubscriptionIndex<>(routingCellDegrees, routingMaxCellsPerBox);
+        AtomicInteger threadCount = new AtomicInteger();
+        int poolSize = Math.max(1, threads);
+        // At most one pending drain per client, so the task queue is bounded by the client count
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "sse-fanout-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Register a new client for the events matching {@code filter}. With a
+     * {@code lastEventId} that is still in the replay ring it resumes right
+     * after that event; otherwise its first event is {@code snapshot} under
+     * {@code snapshotEventName}.
+     */
+    public SseEmitter subscribe(String lastEventId, SubscriptionFilter filter, String snapshotEventName,
+            Supplier<?> snapshot) throws JsonProcessingException {
+        SseEmitter emitter = new SseEmitter(Long.MAX_VALUE);
+        Client client = attach(emitter, filter, resumePoint(lastEventId), null);
+        if (client == null) {
+            // Events published while the snapshot is read are replayed after it
+            long after = currentSequence();
+            Frame initial = new Frame(snapshotEventName, eventId(after), after, null,
+                    objectMapper.writeValueAsBytes(snapshot.get()));
+            client = attach(emitter, filter, after, initial);
+        }
+
+        Client registered = client;
+        emitter.onCompletion(() -> remove(registered));
+        emitter.onTimeout(() -> remove(registered));
+        emitter.onError(ex -> remove(registered));
+        System.out.println("New SSE client connected. Total clients: " + clients.size());
+        schedule(client);
+        return emitter;
+    }
+
+    /**
+     * Send {@code data} as the next event of the stream to the clients whose
+     * filter matches {@code topic} (all of them if it is null);
+     * {@code eventName} null sends an unnamed event (EventSource onmessage).
+     * It only queues frames and never calls an emitter, so it may be called
+     * while holding a lock.
+     */
+    public void publish(String eventName, Object data, EventTopic topic) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            System.err.println("Failed to serialize SSE event: " + e.getMessage());
+            return;
+        }
+        synchronized (replay) {
+            long next = ++sequence;
+            Frame frame = new Frame(eventName, eventId(next), next, topic, bytes);
+            replay.addLast(frame);
+            if (replay.size() > replayCapacity) {
+                replay.removeFirst();
+            }
+            for (Client client : topic != null ? index.candidates(topic) : clients) {
+                if (client.wants(frame)) {
+                    enqueue(client, frame);
+                }
+            }
+        }
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+        clients.clear();
+    }
+
+    /**
+     * Queue the events after {@code after} (preceded by {@code initial}, if
+     * given) and start receiving new ones; null if those events are no
+     * longer all in the replay ring and there is no initial event
+     */
+    private Client attach(SseEmitter emitter, SubscriptionFilter filter, long after, Frame initial) {
+        synchronized (replay) {
+            boolean replayable = after >= sequence - replay.size() && after <= sequence;
+            if (!replayable && initial == null) {
+                return null;
+            }
+            List<Frame> backlog = new ArrayList<>();
+            if (initial != null) {
+                backlog.add(initial);
+            }
+            Client client = new Client(emitter, filter);
+            if (replayable) {
+                for (Frame frame : replay) {
+                    if (frame.sequence > after && client.wants(frame)) {
+                        backlog.add(frame);
+                    }
+                }
+            }
+            client.queue = new ArrayBlockingQueue<>(queueCapacity + backlog.size());
+            client.queue.addAll(backlog);
+            clients.add(client);
+            index.add(client, filter);
+            return client;
+        }
+    }
+
+    private long currentSequence() {
+        synchronized (replay) {
+            return sequence;
+        }
+    }
+
+    private String eventId(long sequence) {
+        return streamId + "-" + sequence;
+    }
+
+    /**
+     * Sequence of an event id from this stream; -1 for ids of a previous
+     * run or anything else that cannot be resumed
+     */
+    private long resumePoint(String lastEventId) {
+        String prefix = streamId + "-";
+        if (lastEventId == null || !lastEventId.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void enqueue(Client client, Frame frame) {
+        if (!client.queue.offer(frame) && !client.closed) {
+            System.err.println("SSE client too slow, disconnecting");
+            client.closed = true;
+            remove(client);
+        }
+        // A disconnected client's emitter is completed by the drain task, never on the publishing thread
+        schedule(client);
+    }
+
+    private void schedule(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(client));
+            } catch (RejectedExecutionException e) {
+                client.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            Frame frame;
+            while (!client.closed && (frame = client.queue.poll()) != null) {
+                if (!send(client, frame)) {
+                    remove(client);
+                    return;
+                }
+            }
+        } finally {
+            if (client.closed) {
+                // Behind any send still in progress; draining stays set, so this happens once
+                client.emitter.complete();
+            } else {
+                client.draining.set(false);
+            }
+        }
+        // An event may have been queued after the last poll but before the flag was cleared
+        if (!client.queue.isEmpty() && clients.contains(client)) {
+            schedule(client);
+        }
+    }
+
+    private static boolean send(Client client, Frame frame) {
+        SseEmitter.SseEventBuilder event = SseEmitter.event();
+        if (frame.id != null) {
+            event.id(frame.id);
+        }
+        if (frame.name != null) {
+            event.name(frame.name);
+        }
+        event.data(frame.data, MediaType.APPLICATION_JSON);
+        try {
+            client.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            System.err.println("Failed to send update to client: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private void remove(Client client) {
+        if (clients.remove(client)) {
+            index.remove(client, client.filter);
+            client.queue.clear();
+            System.out.println("SSE client disconnected. Total clients: " + clients.size());
+        }
+    }
+
+    /**
+     * One serialized event, shared by every client it is queued for
+     */
+    private static final class Frame {
+        final String name;
+        final String id;
+        final long sequence;
+        final EventTopic topic;
+        final byte[] data;
+
+        Frame(String name, String id, long sequence, EventTopic topic, byte[] data) {
+            this.name = name;
+            this.id = id;
+            this.sequence = sequence;
+            this.topic = topic;
+            this.data = data;
+        }
+    }
+
+    private static final class Client {
+        final SseEmitter emitter;
+        final SubscriptionFilter filter;
+        final AtomicBoolean draining = new AtomicBoolean();
+        // Set by a publisher that disconnected the client; the next drain completes the emitter
+        volatile boolean closed;
+        // Sized once the replay backlog is known, before the client is visible to publishers
+        BlockingQueue<Frame> queue;
+
+        Client(SseEmitter emitter, SubscriptionFilter filter) {
+            this.emitter = emitter;
+            this.filter = filter != null ? filter : SubscriptionFilter.all();
+        }
+
+        boolean wants(Frame frame) {
+            return frame.topic == null || filter.matches(frame.topic);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.dispersion.service;
+
+import com.dispersion.model.MonitoringStation;
+import com.dispersion.model.MonitoringStation.StationType;
+import com.dispersion.repository.MonitoringStationRepository;
+import com.dispersion.util.SphericalKdTree;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory spatial index over active monitoring stations, so a spill
+ * resolves to its nearest station without touching the database.
+ *
+ * The index is loaded on first use and rebuilt periodically; a rebuild swaps
+ * in a new immutable tree, so lookups never block on a refresh. A failed
+ * refresh keeps the previous tree.
+ */
+@Component
+public class StationIndex {
+
+    private static final EnumSet<StationType> TIDE_TYPES = EnumSet.of(StationType.TIDE, StationType.COMBINED);
+
+    private final MonitoringStationRepository stationRepository;
+
+    private volatile SphericalKdTree<MonitoringStation> tideStations;
+
+    public StationIndex(MonitoringStationRepository stationRepository) {
+        this.stationRepository = stationRepository;
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.stations.refresh-interval-ms:3600000}")
+    public void refresh() {
+        try {
+            List<MonitoringStation> stations = stationRepository.findByActiveTrueAndStationTypeIn(TIDE_TYPES);
+            tideStations = SphericalKdTree.build(stations,
+                    station -> station.getLatitude().doubleValue(),
+                    station -> station.getLongitude().doubleValue());
+            System.out.println("Station index loaded with " + stations.size() + " tide stations");
+        } catch (Exception e) {
+            System.err.println("Failed to refresh station index: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Closest active tide (or combined) station, empty if none are known
+     */
+    public Optional<MonitoringStation> nearestTideStation(double latitude, double longitude) {
+        SphericalKdTree<MonitoringStation> tree = tideStations;
+        if (tree == null) {
+            synchronized (this) {
+                if (tideStations == null) {
+                    refresh();
+                }
+                tree = tideStations;
+            }
+        }
+        return tree != null ? Optional.ofNullable(tree.nearest(latitude, longitude)) : Optional.empty();
+    }
+}
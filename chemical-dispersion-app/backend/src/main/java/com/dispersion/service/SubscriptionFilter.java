@@ -0,0 +1,105 @@
+package com.dispersion.service;
+
+import com.dispersion.model.Spill;
+import com.dispersion.model.SpillSeverity;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Which spills a stream subscriber wants to hear about. Every criterion
+ * given must match: inside the bounding box (same bounds as
+ * getSpillsInArea), one of the listed spills, and at least the minimum
+ * severity. A filter without criteria matches everything.
+ */
+public final class SubscriptionFilter {
+
+    private static final SubscriptionFilter ALL = new SubscriptionFilter(null, null, null, null, Set.of(), null);
+
+    private final Double minLat;
+    private final Double maxLat;
+    private final Double minLon;
+    private final Double maxLon;
+    private final Set<UUID> spillIds;
+    private final SpillSeverity minSeverity;
+
+    private SubscriptionFilter(Double minLat, Double maxLat, Double minLon, Double maxLon, Set<UUID> spillIds,
+            SpillSeverity minSeverity) {
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+        this.spillIds = spillIds;
+        this.minSeverity = minSeverity;
+    }
+
+    public static SubscriptionFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the box is given only in part or
+     *                                  its bounds are out of order or range
+     */
+    public static SubscriptionFilter of(Double minLat, Double maxLat, Double minLon, Double maxLon,
+            Collection<UUID> spillIds, SpillSeverity minSeverity) {
+        int bounds = (minLat != null ? 1 : 0) + (maxLat != null ? 1 : 0) + (minLon != null ? 1 : 0)
+                + (maxLon != null ? 1 : 0);
+        if (bounds != 0 && bounds != 4) {
+            throw new IllegalArgumentException("A bounding box needs minLat, maxLat, minLon and maxLon");
+        }
+        if (bounds == 4 && (minLat > maxLat || minLon > maxLon || minLat < -90 || maxLat > 90
+                || minLon < -180 || maxLon > 180)) {
+            throw new IllegalArgumentException("Invalid bounding box");
+        }
+        return new SubscriptionFilter(minLat, maxLat, minLon, maxLon,
+                spillIds != null ? Set.copyOf(spillIds) : Set.of(), minSeverity);
+    }
+
+    public boolean matches(EventTopic topic) {
+        if (!spillIds.isEmpty() && !spillIds.contains(topic.getSpillId())) {
+            return false;
+        }
+        if (hasBoundingBox() && !contains(topic.getLatitude(), topic.getLongitude())) {
+            return false;
+        }
+        return minSeverity == null || (topic.getSeverity() != null && topic.getSeverity().isAtLeast(minSeverity));
+    }
+
+    public boolean matches(Spill spill) {
+        return matches(EventTopic.of(spill));
+    }
+
+    public boolean hasBoundingBox() {
+        return minLat != null;
+    }
+
+    public boolean contains(double latitude, double longitude) {
+        return latitude >= minLat && latitude <= maxLat && longitude >= minLon && longitude <= maxLon;
+    }
+
+    public Double getMinLat() {
+        return minLat;
+    }
+
+    public Double getMaxLat() {
+        return maxLat;
+    }
+
+    public Double getMinLon() {
+        return minLon;
+    }
+
+    public Double getMaxLon() {
+        return maxLon;
+    }
+
+    public Set<UUID> getSpillIds() {
+        return spillIds;
+    }
+
+    public SpillSeverity getMinSeverity() {
+        return minSeverity;
+    }
+}
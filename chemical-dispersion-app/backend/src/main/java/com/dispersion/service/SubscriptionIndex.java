@@ -0,0 +1,109 @@
+package com.dispersion.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongConsumer;
+
+/**
+ * Routing index from event topics to the subscribers that may want them,
+ * so an event only visits the interested clients instead of all of them.
+ *
+ * A subscriber is filed under the most selective criterion it has: each
+ * listed spill id, otherwise each cell of a fixed lat/lon grid its bounding
+ * box overlaps. Subscribers without either, or whose box spans more than
+ * {@code maxCellsPerBox} cells, are filed as "everywhere". The lookup is a
+ * superset; callers still check the full filter (severity in particular).
+ */
+final class SubscriptionIndex<C> {
+
+    private final double cellDegrees;
+    private final int maxCellsPerBox;
+    private final ConcurrentMap<UUID, Set<C>> bySpill = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<C>> byCell = new ConcurrentHashMap<>();
+    private final Set<C> everywhere = ConcurrentHashMap.newKeySet();
+
+    SubscriptionIndex(double cellDegrees, int maxCellsPerBox) {
+        this.cellDegrees = cellDegrees > 0.0 ? cellDegrees : 1.0;
+        this.maxCellsPerBox = Math.max(1, maxCellsPerBox);
+    }
+
+    void add(C client, SubscriptionFilter filter) {
+        // Added inside compute: a set emptied and dropped by a concurrent remove must not be added to
+        if (!filter.getSpillIds().isEmpty()) {
+            for (UUID spillId : filter.getSpillIds()) {
+                bySpill.compute(spillId, (id, clients) -> with(clients, client));
+            }
+        } else if (filter.hasBoundingBox() && cellCount(filter) <= maxCellsPerBox) {
+            forEachCell(filter, cell -> byCell.compute(cell, (c, clients) -> with(clients, client)));
+        } else {
+            everywhere.add(client);
+        }
+    }
+
+    void remove(C client, SubscriptionFilter filter) {
+        if (!filter.getSpillIds().isEmpty()) {
+            for (UUID spillId : filter.getSpillIds()) {
+                bySpill.computeIfPresent(spillId, (id, clients) -> clients.remove(client) && clients.isEmpty()
+                        ? null : clients);
+            }
+        } else if (filter.hasBoundingBox() && cellCount(filter) <= maxCellsPerBox) {
+            forEachCell(filter, cell -> byCell.computeIfPresent(cell, (c, clients) ->
+                    clients.remove(client) && clients.isEmpty() ? null : clients));
+        } else {
+            everywhere.remove(client);
+        }
+    }
+
+    /**
+     * Subscribers that may be interested in {@code topic}
+     */
+    Set<C> candidates(EventTopic topic) {
+        Set<C> candidates = new HashSet<>(everywhere);
+        Set<C> spillClients = topic.getSpillId() != null ? bySpill.get(topic.getSpillId()) : null;
+        if (spillClients != null) {
+            candidates.addAll(spillClients);
+        }
+        if (!Double.isNaN(topic.getLatitude()) && !Double.isNaN(topic.getLongitude())) {
+            Set<C> cellClients = byCell.get(cellKey(row(topic.getLatitude()), col(topic.getLongitude())));
+            if (cellClients != null) {
+                candidates.addAll(cellClients);
+            }
+        }
+        return candidates;
+    }
+
+    private static <C> Set<C> with(Set<C> clients, C client) {
+        Set<C> result = clients != null ? clients : ConcurrentHashMap.newKeySet();
+        result.add(client);
+        return result;
+    }
+
+    private long cellCount(SubscriptionFilter filter) {
+        long rows = row(filter.getMaxLat()) - row(filter.getMinLat()) + 1L;
+        long cols = col(filter.getMaxLon()) - col(filter.getMinLon()) + 1L;
+        return rows * cols;
+    }
+
+    private void forEachCell(SubscriptionFilter filter, LongConsumer action) {
+        for (int row = row(filter.getMinLat()), maxRow = row(filter.getMaxLat()); row <= maxRow; row++) {
+            for (int col = col(filter.getMinLon()), maxCol = col(filter.getMaxLon()); col <= maxCol; col++) {
+                action.accept(cellKey(row, col));
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90.0) / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor((longitude + 180.0) / cellDegrees);
+    }
+
+    private static long cellKey(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+}
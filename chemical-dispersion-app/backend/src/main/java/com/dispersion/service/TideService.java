@@ -1,24 +1,47 @@
 package com.dispersion.service;
 
+import com.dispersion.model.MonitoringStation;
 import com.dispersion.model.TideData;
+import com.dispersion.tide.HarmonicTideModel;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 public class TideService {
 
+    // Used when no station metadata is available
+    private static final String FALLBACK_STATION_ID = "8770475";
+    private static final String FALLBACK_STATION_NAME = "Houston";
+    private static final BigDecimal FALLBACK_LATITUDE = new BigDecimal("29.7604");
+    private static final BigDecimal FALLBACK_LONGITUDE = new BigDecimal("-95.3698");
+    private static final String DATUM = "MLLW";
+    // Same spacing as NOAA's default prediction interval
+    private static final Duration PREDICTION_STEP = Duration.ofMinutes(6);
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final StationIndex stationIndex;
+    private final TideStore tideStore;
+    private final HarmonicTideService harmonicTideService;
+    private final UpstreamGuard upstreamGuard;
 
     @Value("${external-apis.noaa.base-url:https://api.tidesandcurrents.noaa.gov/api/prod/datagetter}")
     private String noaaBaseUrl;
@@ -26,64 +49,167 @@ public class TideService {
     @Value("${external-apis.noaa.user-agent:water-dispersion-app}")
     private String userAgent;
 
-    public TideService(WebClient.Builder builder, ObjectMapper objectMapper) {
+    // harmonic: predict in-process from stored constituents, NOAA only for stations without them
+    @Value("${app.tides.source:harmonic}")
+    private String source;
+
+    public TideService(WebClient.Builder builder, ObjectMapper objectMapper, StationIndex stationIndex,
+            TideStore tideStore, HarmonicTideService harmonicTideService, UpstreamGuard upstreamGuard) {
         this.webClient = builder.build();
         this.objectMapper = objectMapper;
+        this.stationIndex = stationIndex;
+        this.tideStore = tideStore;
+        this.harmonicTideService = harmonicTideService;
+        this.upstreamGuard = upstreamGuard;
     }
 
     public List<TideData> getTideForecast(double latitude, double longitude, int hours) {
-        // This is a placeholder; a real implementation would find the nearest station
-        // and fetch data for it.
-        // For this example, we use a fixed station ID for Houston (8770475)
-        // because the API does not support lat/lon lookups directly.
-        String stationId = "8770475";
+        return fetchTideForecast(latitude, longitude, hours).block();
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Non-blocking tide forecast; never errors, failures yield an empty list
+     */
+    public Mono<List<TideData>> fetchTideForecast(double latitude, double longitude, int hours) {
+        // NOAA has no lat/lon lookup, so resolve the nearest known station first
+        Optional<MonitoringStation> station = stationIndex.nearestTideStation(latitude, longitude);
+        String stationId = station.map(MonitoringStation::getStationCode).orElse(FALLBACK_STATION_ID);
+        String stationName = station.map(MonitoringStation::getName).orElse(FALLBACK_STATION_NAME);
+        BigDecimal stationLatitude = station.map(MonitoringStation::getLatitude).orElse(FALLBACK_LATITUDE);
+        BigDecimal stationLongitude = station.map(MonitoringStation::getLongitude).orElse(FALLBACK_LONGITUDE);
+        TideData template = new TideData();
+        template.setStationId(stationId);
+        template.setStationName(stationName);
+        template.setLatitude(stationLatitude);
+        template.setLongitude(stationLongitude);
+        template.setDatum(DATUM);
+
+        // NOAA is queried in GMT, so the window has to be UTC as well
+        LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC);
         LocalDateTime end = now.plusHours(hours);
 
-        try {
-            List<TidePoint> tidePoints = getTidePredictions(stationId, now, end, "MLLW");
-
-            return tidePoints.stream()
-                    .map(tp -> {
-                        TideData td = new TideData();
-                        td.setLatitude(tp.latitude);
-                        td.setLongitude(tp.longitude);
-                        td.setTimestamp(tp.time);
-                        td.setTideHeight(BigDecimal.valueOf(tp.valueMeters));
-                        td.setStationId(stationId);
-                        td.setSource("NOAA");
-                        return td;
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception ex) {
-            System.err.println("Error getting tide forecast: " + ex.getMessage());
+        if (!"harmonic".equalsIgnoreCase(source)) {
+            return noaaForecast(template, now, end);
+        }
+        return Mono.fromCallable(() -> harmonicTideService.model(stationId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(model -> model.isPresent()
+                        ? Mono.just(harmonicForecast(template, model.get(), now, end))
+                        : noaaForecast(template, now, end))
+                .onErrorResume(e -> {
+                    System.err.println("Error predicting tides for " + stationId + ": " + e.getMessage());
+                    return Mono.just(new ArrayList<>());
+                });
+    }
+
+    /**
+     * Station whose predictions are used for a coordinate
+     */
+    public String tideStationId(double latitude, double longitude) {
+        return stationIndex.nearestTideStation(latitude, longitude)
+                .map(MonitoringStation::getStationCode)
+                .orElse(FALLBACK_STATION_ID);
+    }
+
+    /**
+     * Spacing of the predicted tide points
+     */
+    public Duration predictionStep() {
+        return PREDICTION_STEP;
+    }
+
+    /**
+     * Difference between the local harmonic prediction and NOAA's own
+     * prediction for the station over the next {@code hours}
+     */
+    public Map<String, Object> validateHarmonicModel(String stationId, int hours) {
+        HarmonicTideModel model = harmonicTideService.model(stationId)
+                .orElseThrow(() -> new IllegalArgumentException("No tide constituents for station " + stationId));
+        LocalDateTime start = LocalDateTime.now(ZoneOffset.UTC);
+        List<TidePoint> reference = fetchTidePredictions(stationId, start, start.plusHours(hours), DATUM).block();
+        if (reference == null || reference.isEmpty()) {
+            throw new IllegalStateException("NOAA returned no predictions for station " + stationId);
+        }
+
+        double sumSquares = 0.0;
+        double maxError = 0.0;
+        for (TidePoint point : reference) {
+            double error = model.heightAt(point.time.toInstant(ZoneOffset.UTC)) - point.valueMeters;
+            sumSquares += error * error;
+            maxError = Math.max(maxError, Math.abs(error));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stationId", stationId);
+        result.put("points", reference.size());
+        result.put("rmsErrorMeters", Math.sqrt(sumSquares / reference.size()));
+        result.put("maxErrorMeters", maxError);
+        return result;
+    }
+
+    private Mono<List<TideData>> noaaForecast(TideData template, LocalDateTime now, LocalDateTime end) {
+        String stationId = template.getStationId();
+        // Stored or already-loaded ranges are reused; NOAA is only asked for missing windows
+        return tideStore.getRange(stationId, now, end, (from, to) -> fetchTidePredictions(stationId, from, to, DATUM)
+                .map(tidePoints -> tidePoints.stream()
+                        .map(tp -> tideData(template, tp.time, tp.valueMeters, "NOAA"))
+                        .collect(Collectors.toList())));
+    }
+
+    /**
+     * In-process prediction on the same 6-minute marks NOAA would return
+     */
+    private static List<TideData> harmonicForecast(TideData template, HarmonicTideModel model, LocalDateTime now,
+            LocalDateTime end) {
+        long stepSeconds = PREDICTION_STEP.getSeconds();
+        long first = Math.floorDiv(now.toEpochSecond(ZoneOffset.UTC) + stepSeconds - 1, stepSeconds) * stepSeconds;
+        LocalDateTime start = LocalDateTime.ofEpochSecond(first, 0, ZoneOffset.UTC);
+        int count = (int) (Duration.between(start, end).getSeconds() / stepSeconds) + 1;
+        if (count <= 0) {
             return new ArrayList<>();
         }
+
+        double[] heights = model.heights(start.toInstant(ZoneOffset.UTC), PREDICTION_STEP, count);
+        List<TideData> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            out.add(tideData(template, start.plus(PREDICTION_STEP.multipliedBy(i)), heights[i], "HARMONIC"));
+        }
+        return out;
+    }
+
+    private static TideData tideData(TideData template, LocalDateTime time, double heightMeters, String source) {
+        TideData td = new TideData();
+        td.setLatitude(template.getLatitude());
+        td.setLongitude(template.getLongitude());
+        td.setTimestamp(time);
+        td.setTideHeight(BigDecimal.valueOf(heightMeters).setScale(3, RoundingMode.HALF_UP));
+        td.setStationId(template.getStationId());
+        td.setStationName(template.getStationName());
+        td.setDatum(template.getDatum());
+        td.setSource(source);
+        return td;
     }
 
-    private List<TidePoint> getTidePredictions(String stationId,
+    private Mono<List<TidePoint>> fetchTidePredictions(String stationId,
             LocalDateTime start,
             LocalDateTime end,
             String datum) {
-        try {
-            DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyyMMdd HH:mm");
-            String url = String.format(
-                    "%s?product=predictions&datum=%s&units=metric&time_zone=gmt&application=%s&format=json&station=%s&begin_date=%s&end_date=%s",
-                    noaaBaseUrl, datum, userAgent, stationId, start.format(fmt), end.format(fmt));
-
-            String response = webClient.get()
-                    .uri(url)
-                    .header("User-Agent", userAgent)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            return parseNoaaTideResponse(response);
-        } catch (Exception ex) {
-            System.err.println("Error fetching tides: " + ex.getMessage());
-            return new ArrayList<>();
-        }
+        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyyMMdd HH:mm");
+        String url = String.format(
+                "%s?product=predictions&datum=%s&units=metric&time_zone=gmt&application=%s&format=json&station=%s&begin_date=%s&end_date=%s",
+                noaaBaseUrl, datum, userAgent, stationId, start.format(fmt), end.format(fmt));
+
+        // Loaded windows stay in TideStore, so a failure here only leaves new windows empty
+        return upstreamGuard.guard(UpstreamGuard.NOAA, webClient.get()
+                .uri(url)
+                .header("User-Agent", userAgent)
+                .retrieve()
+                .bodyToMono(String.class))
+                .map(this::parseNoaaTideResponse)
+                .defaultIfEmpty(new ArrayList<>())
+                .onErrorResume(ex -> {
+                    System.err.println("Error fetching tides: " + ex.getMessage());
+                    return Mono.just(new ArrayList<>());
+                });
     }
 
     private List<TidePoint> parseNoaaTideResponse(String json) {
@@ -108,9 +234,6 @@ public class TideService {
     public static class TidePoint {
         public final LocalDateTime time;
         public final double valueMeters;
-        // Mock latitude/longitude for a fixed station
-        public final java.math.BigDecimal latitude = new java.math.BigDecimal("29.7604");
-        public final java.math.BigDecimal longitude = new java.math.BigDecimal("-95.3698");
 
         public TidePoint(LocalDateTime time, double valueMeters) {
             this.time = time;
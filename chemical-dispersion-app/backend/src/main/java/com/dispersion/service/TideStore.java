@@ -0,0 +1,205 @@
+package com.dispersion.service;
+
+import com.dispersion.model.TideData;
+import com.dispersion.repository.TideRepository;
+import com.dispersion.util.SingleFlight;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through, write-behind store of tide predictions per station.
+ *
+ * Time is split into fixed windows aligned to the epoch (UTC). A request is
+ * served from memory for every window already loaded; a missing window is
+ * read from tide_data first and only fetched upstream when the database does
+ * not cover it. Fetched points are queued and inserted in batches by a
+ * scheduled flush. Overlapping requests for the same station therefore cost
+ * at most one upstream call per window, and concurrent misses share it.
+ *
+ * All timestamps are UTC, matching the GMT predictions requested from NOAA.
+ */
+@Component
+public class TideStore {
+
+    /** Largest spacing between stored points that still counts as continuous coverage */
+    private static final Duration MAX_POINT_GAP = Duration.ofHours(1);
+
+    private final TideRepository tideRepository;
+    private final Duration window;
+    private final Duration retention;
+    private final int batchSize;
+    private final ConcurrentMap<String, StationTides> stations = new ConcurrentHashMap<>();
+    private final SingleFlight<String, List<TideData>> windowLoads = new SingleFlight<>();
+    private final BlockingQueue<TideData> pending;
+
+    public TideStore(
+            TideRepository tideRepository,
+            @Value("${app.tides.fetch-window-hours:24}") int windowHours,
+            @Value("${app.tides.retention-hours:48}") int retentionHours,
+            @Value("${app.tides.queue-capacity:50000}") int queueCapacity,
+            @Value("${app.tides.batch-size:500}") int batchSize) {
+        this.tideRepository = tideRepository;
+        this.window = Duration.ofHours(Math.max(1, windowHours));
+        this.retention = Duration.ofHours(Math.max(1, retentionHours));
+        this.pending = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Points of {@code stationId} in [start, end], loading missing windows
+     * from the database or, failing that, through {@code fetcher} (called
+     * with whole window bounds). Never errors; a window that could not be
+     * loaded is simply absent and retried on the next request.
+     */
+    public Mono<List<TideData>> getRange(String stationId, LocalDateTime start, LocalDateTime end,
+            BiFunction<LocalDateTime, LocalDateTime, Mono<List<TideData>>> fetcher) {
+        StationTides station = stations.computeIfAbsent(stationId, id -> new StationTides());
+        List<Mono<List<TideData>>> loads = new ArrayList<>();
+        for (LocalDateTime windowStart = windowStart(start); !windowStart.isAfter(end);
+                windowStart = windowStart.plus(window)) {
+            if (!station.windows.contains(windowStart)) {
+                loads.add(loadWindow(stationId, station, windowStart, fetcher));
+            }
+        }
+        return Flux.merge(loads)
+                .then(Mono.fromCallable(() -> new ArrayList<>(station.points.subMap(start, true, end, true).values())));
+    }
+
+    @Scheduled(fixedDelayString = "${app.tides.flush-interval-ms:5000}")
+    public void flush() {
+        List<TideData> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            saveBatch(batch);
+            batch.clear();
+        }
+        evictExpired();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void saveBatch(List<TideData> batch) {
+        try {
+            tideRepository.saveAll(batch);
+        } catch (Exception e) {
+            // One conflicting point (its window re-read, or stored by another instance) must not lose the rest
+            System.err.println("Batch insert of " + batch.size() + " tide points failed, retrying individually: "
+                    + e.getMessage());
+            int dropped = 0;
+            for (TideData point : batch) {
+                // The rolled-back batch already assigned ids; without one the retry is an insert, not a merge
+                point.setId(null);
+                try {
+                    tideRepository.save(point);
+                } catch (Exception single) {
+                    dropped++;
+                }
+            }
+            if (dropped > 0) {
+                System.err.println("Dropped " + dropped + " tide points that could not be stored");
+            }
+        }
+    }
+
+    private Mono<List<TideData>> loadWindow(String stationId, StationTides station, LocalDateTime windowStart,
+            BiFunction<LocalDateTime, LocalDateTime, Mono<List<TideData>>> fetcher) {
+        LocalDateTime windowEnd = windowStart.plus(window);
+        String key = stationId + "|" + windowStart;
+        return Mono.fromFuture(() -> windowLoads.executeAsync(key, () -> Mono
+                .fromCallable(() -> tideRepository.findByStationIdAndTimestampBetweenOrderByTimestamp(
+                        stationId, windowStart, windowEnd))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(e -> {
+                    System.err.println("Error reading stored tides for " + stationId + ": " + e.getMessage());
+                    return Mono.just(List.of());
+                })
+                .flatMap(stored -> covers(stored, windowStart, windowEnd)
+                        ? Mono.just(stored)
+                        : fetcher.apply(windowStart, windowEnd)
+                                .map(fetched -> writeBehind(stored, fetched, windowEnd)))
+                .doOnNext(points -> {
+                    if (!points.isEmpty()) {
+                        for (TideData point : points) {
+                            station.points.put(point.getTimestamp(), point);
+                        }
+                        station.windows.add(windowStart);
+                    }
+                })
+                .toFuture()));
+    }
+
+    /**
+     * Queue the fetched points the database does not have yet. The point on
+     * the window end belongs to the next window, so it is left to that one.
+     */
+    private List<TideData> writeBehind(List<TideData> stored, List<TideData> fetched, LocalDateTime windowEnd) {
+        Set<LocalDateTime> existing = stored.stream().map(TideData::getTimestamp).collect(Collectors.toSet());
+        int dropped = 0;
+        for (TideData point : fetched) {
+            if (point.getTimestamp().isBefore(windowEnd) && !existing.contains(point.getTimestamp())
+                    && !pending.offer(point)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            System.err.println("Tide write-behind queue full, " + dropped + " points not stored");
+        }
+        return fetched;
+    }
+
+    private static boolean covers(List<TideData> points, LocalDateTime start, LocalDateTime end) {
+        if (points.isEmpty()) {
+            return false;
+        }
+        LocalDateTime previous = start;
+        for (TideData point : points) {
+            if (Duration.between(previous, point.getTimestamp()).compareTo(MAX_POINT_GAP) > 0) {
+                return false;
+            }
+            previous = point.getTimestamp();
+        }
+        return Duration.between(previous, end).compareTo(MAX_POINT_GAP) <= 0;
+    }
+
+    private LocalDateTime windowStart(LocalDateTime time) {
+        long epochSecond = time.toEpochSecond(ZoneOffset.UTC);
+        long windowSeconds = window.getSeconds();
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochSecond, windowSeconds) * windowSeconds, 0,
+                ZoneOffset.UTC);
+    }
+
+    private void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now(ZoneOffset.UTC).minus(retention);
+        for (StationTides station : stations.values()) {
+            station.windows.removeIf(windowStart -> windowStart.plus(window).isBefore(cutoff));
+            station.points.headMap(cutoff).clear();
+        }
+    }
+
+    private static final class StationTides {
+        final ConcurrentNavigableMap<LocalDateTime, TideData> points = new ConcurrentSkipListMap<>();
+        final Set<LocalDateTime> windows = ConcurrentHashMap.newKeySet();
+    }
+}
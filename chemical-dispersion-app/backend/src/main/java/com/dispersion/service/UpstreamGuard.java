@@ -0,0 +1,46 @@
+package com.dispersion.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Circuit breaker and bulkhead per upstream (nws, noaa, pubchem), configured
+ * under resilience4j.* and reported by actuator (health, circuitbreakers,
+ * bulkheads, metrics).
+ *
+ * While a breaker is open, or the bulkhead is full, guarded calls fail
+ * immediately with CallNotPermittedException / BulkheadFullException instead
+ * of waiting on a struggling upstream; callers fall back to cached data.
+ */
+@Component
+public class UpstreamGuard {
+
+    public static final String NWS = "nws";
+    public static final String NOAA = "noaa";
+    public static final String PUBCHEM = "pubchem";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    public UpstreamGuard(CircuitBreakerRegistry circuitBreakerRegistry, BulkheadRegistry bulkheadRegistry) {
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.bulkheadRegistry = bulkheadRegistry;
+    }
+
+    /**
+     * Wrap a call to {@code upstream}; the bulkhead sits inside the breaker,
+     * so rejected calls never reach the upstream
+     */
+    public <T> Mono<T> guard(String upstream, Mono<T> call) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(upstream);
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(upstream);
+        return call.transformDeferred(BulkheadOperator.of(bulkhead))
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker));
+    }
+}
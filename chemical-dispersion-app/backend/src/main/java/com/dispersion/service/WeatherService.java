@@ -1,95 +1,335 @@
 package com.dispersion.service;
 
+import com.dispersion.event.WeatherForecastUpdatedEvent;
 import com.dispersion.model.WeatherData;
+import com.dispersion.service.NwsForecastParser.Period;
+import com.dispersion.util.SingleFlight;
+import com.dispersion.util.TtlCache;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
-import java.time.ZonedDateTime;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * NWS hourly forecasts behind a two-tier cache.
+ *
+ * The /points lookup that maps a coordinate to its forecast grid practically
+ * never changes, so it is cached for a long time under a quantized
+ * coordinate that nearby spills share. Hourly forecasts are cached per grid
+ * URL for as long as NWS says they are valid (Cache-Control max-age or
+ * Expires), falling back to a configured TTL. Concurrent misses for the same
+ * key share one request. When NWS fails, or its circuit breaker is open, the
+ * last known (expired) entry is served instead. A fetch that changes the
+ * cached values publishes a {@link WeatherForecastUpdatedEvent}.
+ */
 @Service
 public class WeatherService {
 
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration MIN_FORECAST_TTL = Duration.ofMinutes(1);
+    private static final Duration MAX_FORECAST_TTL = Duration.ofHours(6);
+    private static final Duration PERIOD_LENGTH = Duration.ofHours(1);
+
     private final WebClient webClient;
     private final ObjectMapper objectMapper;
+    private final UpstreamGuard upstreamGuard;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Value("${external-apis.nws.base-url}")
-    private String nwsBaseUrl;
-
-    @Value("${external-apis.nws.user-agent}")
-    private String userAgent;
+    private final double pointQuantization;
+    private final int maxPeriods;
+    private final Duration defaultForecastTtl;
+    private final TtlCache<String, String> forecastUrls;
+    private final TtlCache<String, List<Period>> forecasts;
+    private final SingleFlight<String, String> pointLookups = new SingleFlight<>();
+    private final SingleFlight<String, List<Period>> forecastFetches = new SingleFlight<>();
 
     public WeatherService(
             WebClient.Builder webClientBuilder,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            UpstreamGuard upstreamGuard,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${external-apis.nws.base-url}") String nwsBaseUrl,
+            @Value("${external-apis.nws.user-agent}") String userAgent,
+            @Value("${app.weather.point-quantization-degrees:0.01}") double pointQuantization,
+            @Value("${app.weather.point-ttl-hours:24}") long pointTtlHours,
+            @Value("${app.weather.forecast-ttl-seconds:3600}") long forecastTtlSeconds,
+            @Value("${app.weather.cache-max-entries:1000}") int cacheMaxEntries,
+            @Value("${app.weather.max-periods:72}") int maxPeriods) {
         this.webClient = webClientBuilder.baseUrl(nwsBaseUrl)
                 .defaultHeader("User-Agent", userAgent)
                 .build();
         this.objectMapper = objectMapper;
+        this.upstreamGuard = upstreamGuard;
+        this.eventPublisher = eventPublisher;
+        this.pointQuantization = pointQuantization;
+        this.maxPeriods = Math.max(1, maxPeriods);
+        this.defaultForecastTtl = Duration.ofSeconds(forecastTtlSeconds);
+        this.forecastUrls = new TtlCache<>(cacheMaxEntries, Duration.ofHours(pointTtlHours));
+        this.forecasts = new TtlCache<>(cacheMaxEntries, defaultForecastTtl);
     }
 
     public WeatherData getCurrentWeather(double latitude, double longitude) {
-        // Return the first hour of the forecast as a representation of current weather
-        List<WeatherData> forecast = getWeatherForecast(latitude, longitude, 1);
-        if (forecast.isEmpty()) {
-            return new WeatherData();
-        }
-        return forecast.get(0);
+        return fetchCurrentWeather(latitude, longitude).block();
     }
 
     public List<WeatherData> getWeatherForecast(double latitude, double longitude, int hoursAhead) {
-        List<WeatherData> forecastList = new ArrayList<>();
+        return fetchWeatherForecast(latitude, longitude, hoursAhead).block();
+    }
+
+    /**
+     * First hour of the forecast as a representation of current weather;
+     * never errors, an empty WeatherData stands in when NWS is unavailable
+     */
+    public Mono<WeatherData> fetchCurrentWeather(double latitude, double longitude) {
+        return fetchWeatherForecast(latitude, longitude, 1)
+                .map(forecast -> forecast.isEmpty() ? new WeatherData() : forecast.get(0));
+    }
+
+    /**
+     * Non-blocking hourly forecast; never errors, failures yield an empty list
+     */
+    public Mono<List<WeatherData>> fetchWeatherForecast(double latitude, double longitude, int hoursAhead) {
+        return forecastUrl(quantize(latitude), quantize(longitude))
+                .flatMap(forecastUrl -> {
+                    if (forecastUrl.isEmpty()) {
+                        System.err.println("Hourly forecast URL not found.");
+                        return Mono.just(List.<Period>of());
+                    }
+                    return hourlyForecast(forecastUrl, false);
+                })
+                .map(periods -> forLocation(periods, latitude, longitude, hoursAhead))
+                .defaultIfEmpty(List.of())
+                .onErrorResume(e -> {
+                    System.err.println("Error fetching weather forecast: " + e.getMessage());
+                    // Return an empty list or default data instead of throwing
+                    return Mono.just(List.of());
+                });
+    }
+
+    /**
+     * Time left before the cached forecast for a coordinate expires; zero if
+     * it is not cached or already stale
+     */
+    public Duration forecastTtlRemaining(double latitude, double longitude) {
+        String forecastUrl = cachedForecastUrl(latitude, longitude);
+        return forecastUrl != null ? forecasts.remainingTtl(forecastUrl) : Duration.ZERO;
+    }
+
+    /**
+     * Hourly forecast URL a coordinate has been resolved to, even if that
+     * lookup is stale; null if it never was
+     */
+    public String cachedForecastUrl(double latitude, double longitude) {
+        return forecastUrls.getStale(pointKey(quantize(latitude), quantize(longitude)));
+    }
+
+    /**
+     * Fetch the forecast for a coordinate again even if the cached copy is
+     * still valid, so it can be replaced before it expires; on failure the
+     * cached copy is kept
+     */
+    public Mono<Void> refreshForecast(double latitude, double longitude) {
+        return forecastUrl(quantize(latitude), quantize(longitude))
+                .filter(forecastUrl -> !forecastUrl.isEmpty())
+                .flatMap(forecastUrl -> hourlyForecast(forecastUrl, true))
+                .then();
+    }
+
+    /**
+     * Length of one forecast period
+     */
+    public Duration periodLength() {
+        return PERIOD_LENGTH;
+    }
+
+    /**
+     * Step 1: forecast grid URL for a (quantized) coordinate
+     */
+    private Mono<String> forecastUrl(double latitude, double longitude) {
+        String key = pointKey(latitude, longitude);
+        String cached = forecastUrls.get(key);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.fromFuture(() -> pointLookups.executeAsync(key, () -> upstreamGuard.guard(UpstreamGuard.NWS,
+                webClient.get()
+                        .uri("/points/" + key)
+                        .retrieve()
+                        .bodyToMono(JsonNode.class))
+                .map(gridResponse -> gridResponse.at("/properties/forecastHourly").asText())
+                .doOnNext(url -> {
+                    if (!url.isEmpty()) {
+                        forecastUrls.put(key, url);
+                    }
+                })
+                .defaultIfEmpty("")
+                .onErrorResume(e -> staleOrError(forecastUrls.getStale(key), e))
+                .toFuture()));
+    }
+
+    /**
+     * Step 2: the upcoming periods of the hourly forecast for a grid URL, up
+     * to app.weather.max-periods. The body is parsed as it streams in and the
+     * connection is dropped as soon as enough periods have been read.
+     */
+    private Mono<List<Period>> hourlyForecast(String forecastUrl, boolean refresh) {
+        List<Period> cached = refresh ? null : forecasts.get(forecastUrl);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+        return Mono.fromFuture(() -> forecastFetches.executeAsync(forecastUrl, () -> upstreamGuard.guard(
+                UpstreamGuard.NWS,
+                webClient.get()
+                        .uri(forecastUrl)
+                        .retrieve()
+                        .toEntityFlux(DataBuffer.class)
+                        .flatMap(entity -> {
+                            NwsForecastParser parser = newParser();
+                            return entity.getBody()
+                                    .concatMap(buffer -> Mono.fromCallable(() -> parser.feed(readAndRelease(buffer))))
+                                    .takeUntil(done -> done)
+                                    .then(Mono.fromCallable(() -> {
+                                        List<Period> periods = parser.periods();
+                                        List<Period> previous = forecasts.getStale(forecastUrl);
+                                        forecasts.put(forecastUrl, periods, forecastTtl(entity.getHeaders()));
+                                        // A first fetch is a cache miss, not a change to anything already computed
+                                        if (previous != null && !sameForecast(previous, periods)) {
+                                            eventPublisher.publishEvent(new WeatherForecastUpdatedEvent(forecastUrl));
+                                        }
+                                        return periods;
+                                    }));
+                        }))
+                .onErrorResume(e -> staleOrError(forecasts.getStale(forecastUrl), e))
+                .toFuture()));
+    }
+
+    private NwsForecastParser newParser() {
+        return new NwsForecastParser(objectMapper.getFactory(), maxPeriods, Instant.now(), PERIOD_LENGTH);
+    }
+
+    private static byte[] readAndRelease(DataBuffer buffer) {
         try {
-            // Step 1: Get forecast grid from lat/lon
-            String gridPointsUrl = String.format("/points/%.4f,%.4f", latitude, longitude);
-            JsonNode gridResponse = webClient.get()
-                    .uri(gridPointsUrl)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
-
-            String forecastUrl = gridResponse.at("/properties/forecastHourly").asText();
-            if (forecastUrl.isEmpty()) {
-                System.err.println("Hourly forecast URL not found.");
-                return List.of();
+            byte[] bytes = new byte[buffer.readableByteCount()];
+            buffer.read(bytes);
+            return bytes;
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+    private static <T> Mono<T> staleOrError(T stale, Throwable error) {
+        if (stale == null) {
+            return Mono.error(error);
+        }
+        System.err.println("NWS unavailable (" + error.getMessage() + "), serving last known data");
+        return Mono.just(stale);
+    }
+
+    /**
+     * Same values for everything the dispersion model reads, in every period
+     * both forecasts cover. Periods are matched by start time: ended ones are
+     * dropped and new ones appended as the hours pass, which is no change.
+     */
+    static boolean sameForecast(List<Period> previous, List<Period> current) {
+        Map<Instant, Period> earlier = new HashMap<>();
+        for (Period period : previous) {
+            earlier.put(period.start, period);
+        }
+        for (Period after : current) {
+            Period before = earlier.get(after.start);
+            if (before == null) {
+                continue;
+            }
+            if (!Objects.equals(before.weather.getTemperature(), after.weather.getTemperature())
+                    || !Objects.equals(before.weather.getWindSpeed(), after.weather.getWindSpeed())
+                    || !Objects.equals(before.weather.getWindDirection(), after.weather.getWindDirection())) {
+                return false;
             }
+        }
+        return true;
+    }
 
-            // Step 2: Get hourly forecast from the grid URL
-            JsonNode forecastResponse = webClient.get()
-                    .uri(forecastUrl)
-                    .retrieve()
-                    .bodyToMono(JsonNode.class)
-                    .block();
-
-            JsonNode periods = forecastResponse.at("/properties/periods");
-            if (periods.isArray()) {
-                for (JsonNode period : periods) {
-                    WeatherData weather = new WeatherData();
-                    weather.setLatitude(BigDecimal.valueOf(latitude));
-                    weather.setLongitude(BigDecimal.valueOf(longitude));
-                    weather.setTemperature(BigDecimal.valueOf(period.get("temperature").asDouble()));
-                    weather.setHumidity(BigDecimal.valueOf(period.at("/relativeHumidity/value").asDouble()));
-                    weather.setWindSpeed(BigDecimal.valueOf(period.get("windSpeed").asDouble()));
-                    weather.setWindDirection(BigDecimal.valueOf(period.get("windDirection").asDouble()));
-                    weather.setWeatherCondition(period.get("shortForecast").asText());
-                    weather.setTimestamp(ZonedDateTime.parse(period.get("startTime").asText()).toLocalDateTime());
-
-                    forecastList.add(weather);
-                    if (forecastList.size() >= hoursAhead) {
-                        break;
-                    }
-                }
+    private static String pointKey(double latitude, double longitude) {
+        return String.format(Locale.ROOT, "%.4f,%.4f", latitude, longitude);
+    }
+
+    private double quantize(double degrees) {
+        if (pointQuantization <= 0.0) {
+            return degrees;
+        }
+        return Math.round(degrees / pointQuantization) * pointQuantization;
+    }
+
+    /**
+     * How long NWS says the forecast is good for, within sane bounds
+     */
+    private Duration forecastTtl(HttpHeaders headers) {
+        Duration ttl = null;
+        String cacheControl = headers.getCacheControl();
+        if (cacheControl != null) {
+            Matcher matcher = MAX_AGE.matcher(cacheControl);
+            if (matcher.find()) {
+                ttl = Duration.ofSeconds(Long.parseLong(matcher.group(1)));
+            }
+        }
+        if (ttl == null && headers.getExpires() > 0) {
+            ttl = Duration.ofMillis(headers.getExpires() - System.currentTimeMillis());
+        }
+        if (ttl == null) {
+            return defaultForecastTtl;
+        }
+        if (ttl.compareTo(MIN_FORECAST_TTL) < 0) {
+            return MIN_FORECAST_TTL;
+        }
+        return ttl.compareTo(MAX_FORECAST_TTL) > 0 ? MAX_FORECAST_TTL : ttl;
+    }
+
+    /**
+     * Copies of the periods that have not ended yet, stamped with the
+     * requested coordinate (cached periods are shared between spills)
+     */
+    private static List<WeatherData> forLocation(List<Period> periods, double latitude, double longitude,
+            int hoursAhead) {
+        List<WeatherData> forecastList = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Period period : periods) {
+            if (!period.start.plus(PERIOD_LENGTH).isAfter(now)) {
+                continue;
+            }
+            WeatherData source = period.weather;
+            WeatherData weather = new WeatherData();
+            weather.setLatitude(BigDecimal.valueOf(latitude));
+            weather.setLongitude(BigDecimal.valueOf(longitude));
+            weather.setTemperature(source.getTemperature());
+            weather.setHumidity(source.getHumidity());
+            weather.setWindSpeed(source.getWindSpeed());
+            weather.setWindDirection(source.getWindDirection());
+            weather.setWeatherCondition(source.getWeatherCondition());
+            weather.setTimestamp(source.getTimestamp());
+
+            forecastList.add(weather);
+            if (forecastList.size() >= hoursAhead) {
+                break;
             }
-        } catch (Exception e) {
-            System.err.println("Error fetching weather forecast: " + e.getMessage());
-            // Return an empty list or default data instead of throwing
-            return List.of();
         }
         return forecastList;
     }
-}
\ No newline at end of file
+}
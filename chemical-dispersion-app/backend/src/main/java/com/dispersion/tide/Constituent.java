@@ -0,0 +1,114 @@
+package com.dispersion.tide;
+
+/**
+ * The principal tidal constituents, with their equilibrium arguments in
+ * Schureman's notation: V = aT + bs + ch + dp + e, where T is the hour angle
+ * of the mean sun and s, h, p the mean longitudes of the moon, the sun and
+ * the lunar perigee. Node factors f and u follow the usual truncated series
+ * in the longitude of the moon's ascending node N (Pugh, Table 4.3).
+ */
+public enum Constituent {
+
+    M2(2, -2, 2, 0, 0, Node.M2),
+    S2(2, 0, 0, 0, 0, Node.NONE),
+    N2(2, -3, 2, 1, 0, Node.M2),
+    K2(2, 0, 2, 0, 0, Node.K2),
+    K1(1, 0, 1, 0, -90, Node.K1),
+    O1(1, -2, 1, 0, 90, Node.O1),
+    P1(1, 0, -1, 0, 90, Node.NONE),
+    Q1(1, -3, 1, 1, 90, Node.O1),
+    M4(4, -4, 4, 0, 0, Node.M4);
+
+    /** Rates of T, s, h and p in degrees per mean solar hour */
+    static final double T_RATE = 15.0;
+    static final double S_RATE = 481267.8813 / 876600.0;
+    static final double H_RATE = 36000.7698 / 876600.0;
+    static final double P_RATE = 4069.0137 / 876600.0;
+
+    final int t;
+    final int s;
+    final int h;
+    final int p;
+    final double offset;
+    private final Node node;
+
+    Constituent(int t, int s, int h, int p, double offset, Node node) {
+        this.t = t;
+        this.s = s;
+        this.h = h;
+        this.p = p;
+        this.offset = offset;
+        this.node = node;
+    }
+
+    /**
+     * Angular speed in degrees per hour
+     */
+    public double speed() {
+        return t * T_RATE + s * S_RATE + h * H_RATE + p * P_RATE;
+    }
+
+    /**
+     * Constituent by name (case-insensitive), or null if it is not modelled
+     */
+    public static Constituent lookup(String name) {
+        for (Constituent c : values()) {
+            if (c.name().equalsIgnoreCase(name)) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Equilibrium argument in degrees for the given astronomical angles
+     */
+    double argument(double tAngle, double sAngle, double hAngle, double pAngle) {
+        return t * tAngle + s * sAngle + h * hAngle + p * pAngle + offset;
+    }
+
+    /**
+     * Node factor f for the lunar node longitude N (radians)
+     */
+    double nodeFactor(double n) {
+        switch (node) {
+            case M2:
+                return 1.0004 - 0.0373 * Math.cos(n) + 0.0002 * Math.cos(2 * n);
+            case K2:
+                return 1.0241 + 0.2863 * Math.cos(n) + 0.0083 * Math.cos(2 * n) - 0.0015 * Math.cos(3 * n);
+            case K1:
+                return 1.0060 + 0.1150 * Math.cos(n) - 0.0088 * Math.cos(2 * n) + 0.0006 * Math.cos(3 * n);
+            case O1:
+                return 1.0089 + 0.1871 * Math.cos(n) - 0.0147 * Math.cos(2 * n) + 0.0014 * Math.cos(3 * n);
+            case M4:
+                double m2 = M2.nodeFactor(n);
+                return m2 * m2;
+            default:
+                return 1.0;
+        }
+    }
+
+    /**
+     * Nodal phase correction u in degrees for the lunar node longitude N (radians)
+     */
+    double nodePhase(double n) {
+        switch (node) {
+            case M2:
+                return -2.14 * Math.sin(n);
+            case K2:
+                return -17.74 * Math.sin(n) + 0.68 * Math.sin(2 * n) - 0.04 * Math.sin(3 * n);
+            case K1:
+                return -8.86 * Math.sin(n) + 0.68 * Math.sin(2 * n) - 0.07 * Math.sin(3 * n);
+            case O1:
+                return 10.80 * Math.sin(n) - 1.34 * Math.sin(2 * n) + 0.19 * Math.sin(3 * n);
+            case M4:
+                return 2 * M2.nodePhase(n);
+            default:
+                return 0.0;
+        }
+    }
+
+    private enum Node {
+        NONE, M2, K2, K1, O1, M4
+    }
+}
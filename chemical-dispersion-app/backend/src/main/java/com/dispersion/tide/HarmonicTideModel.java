@@ -0,0 +1,104 @@
+package com.dispersion.tide;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tide heights for one station from its harmonic constants:
+ *
+ * h(t) = Z0 + sum f * H * cos(V(t) + u - kappa)
+ *
+ * with H and kappa (Greenwich phase lag) per constituent as published by
+ * NOAA. Astronomical arguments and node factors are evaluated once per call
+ * at the start time; across a series each argument then advances at the
+ * constituent's speed, so a point costs one cosine per constituent. Node
+ * factors change over 18.6 years and are treated as constant within a call.
+ *
+ * Immutable and thread-safe.
+ */
+public final class HarmonicTideModel {
+
+    private static final Instant J2000 = Instant.parse("2000-01-01T12:00:00Z");
+    private static final double HOURS_PER_CENTURY = 876600.0;
+
+    private final double meanLevel;
+    private final Constituent[] constituents;
+    private final double[] amplitudes;
+    private final double[] phases;
+
+    private HarmonicTideModel(double meanLevel, Constituent[] constituents, double[] amplitudes, double[] phases) {
+        this.meanLevel = meanLevel;
+        this.constituents = constituents;
+        this.amplitudes = amplitudes;
+        this.phases = phases;
+    }
+
+    /**
+     * @param meanLevel Z0, mean water level above the datum in meters
+     * @param constants amplitude (meters) and Greenwich phase lag (degrees) per constituent
+     */
+    public static HarmonicTideModel of(double meanLevel, Map<Constituent, double[]> constants) {
+        Map<Constituent, double[]> sorted = new EnumMap<>(constants);
+        Constituent[] constituents = new Constituent[sorted.size()];
+        double[] amplitudes = new double[sorted.size()];
+        double[] phases = new double[sorted.size()];
+        int k = 0;
+        for (Map.Entry<Constituent, double[]> e : sorted.entrySet()) {
+            constituents[k] = e.getKey();
+            amplitudes[k] = e.getValue()[0];
+            phases[k] = e.getValue()[1];
+            k++;
+        }
+        return new HarmonicTideModel(meanLevel, constituents, amplitudes, phases);
+    }
+
+    public int constituentCount() {
+        return constituents.length;
+    }
+
+    public double meanLevel() {
+        return meanLevel;
+    }
+
+    public double heightAt(Instant time) {
+        return heights(time, Duration.ZERO, 1)[0];
+    }
+
+    /**
+     * Heights in meters above the datum at start, start + step, ...
+     */
+    public double[] heights(Instant start, Duration step, int count) {
+        double hours = Duration.between(J2000, start).toMillis() / 3_600_000.0;
+        double centuries = hours / HOURS_PER_CENTURY;
+        double tAngle = Constituent.T_RATE * hours;
+        double sAngle = 218.3165 + 481267.8813 * centuries;
+        double hAngle = 280.4665 + 36000.7698 * centuries;
+        double pAngle = 83.3532 + 4069.0137 * centuries;
+        double node = Math.toRadians(125.0445 - 1934.1363 * centuries);
+
+        int n = constituents.length;
+        double[] scaledAmplitudes = new double[n];
+        double[] startPhases = new double[n];
+        double[] stepPhases = new double[n];
+        double stepHours = step.toMillis() / 3_600_000.0;
+        for (int k = 0; k < n; k++) {
+            Constituent c = constituents[k];
+            scaledAmplitudes[k] = c.nodeFactor(node) * amplitudes[k];
+            double argument = c.argument(tAngle, sAngle, hAngle, pAngle) + c.nodePhase(node) - phases[k];
+            startPhases[k] = Math.toRadians(argument % 360.0);
+            stepPhases[k] = Math.toRadians(c.speed() * stepHours);
+        }
+
+        double[] out = new double[count];
+        for (int i = 0; i < count; i++) {
+            double height = meanLevel;
+            for (int k = 0; k < n; k++) {
+                height += scaledAmplitudes[k] * Math.cos(startPhases[k] + i * stepPhases[k]);
+            }
+            out[i] = height;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,156 @@
+package com.dispersion.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable k-d tree for nearest-neighbour lookups on the globe.
+ *
+ * Coordinates are stored as 3D unit vectors, so straight-line (chord)
+ * distance orders points exactly like great-circle distance and there is no
+ * special case at the antimeridian or the poles. The tree is laid out
+ * implicitly in arrays (each range's median is its node), splitting on the
+ * axis with the largest spread; lookups are O(log n) for the usual, evenly
+ * spread station sets.
+ */
+public final class SphericalKdTree<T> {
+
+    private final List<T> items;
+    private final double[] coords;
+    private final byte[] axes;
+
+    private SphericalKdTree(List<T> items, double[] coords, byte[] axes) {
+        this.items = items;
+        this.coords = coords;
+        this.axes = axes;
+    }
+
+    public static <T> SphericalKdTree<T> build(Collection<T> source, ToDoubleFunction<T> latitude,
+            ToDoubleFunction<T> longitude) {
+        List<Point<T>> points = new ArrayList<>(source.size());
+        for (T item : source) {
+            points.add(new Point<>(item, latitude.applyAsDouble(item), longitude.applyAsDouble(item)));
+        }
+        byte[] axes = new byte[points.size()];
+        buildRange(points, axes, 0, points.size());
+
+        List<T> items = new ArrayList<>(points.size());
+        double[] coords = new double[points.size() * 3];
+        for (int k = 0; k < points.size(); k++) {
+            Point<T> point = points.get(k);
+            items.add(point.item);
+            coords[3 * k] = point.xyz[0];
+            coords[3 * k + 1] = point.xyz[1];
+            coords[3 * k + 2] = point.xyz[2];
+        }
+        return new SphericalKdTree<>(items, coords, axes);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Closest item to the coordinate, or null if the tree is empty
+     */
+    public T nearest(double latitude, double longitude) {
+        if (items.isEmpty()) {
+            return null;
+        }
+        Search search = new Search(toUnitVector(latitude, longitude));
+        search(search, 0, items.size());
+        return items.get(search.bestIndex);
+    }
+
+    private void search(Search search, int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int mid = (from + to) >>> 1;
+        double[] q = search.query;
+        double dx = q[0] - coords[3 * mid];
+        double dy = q[1] - coords[3 * mid + 1];
+        double dz = q[2] - coords[3 * mid + 2];
+        double distanceSq = dx * dx + dy * dy + dz * dz;
+        if (distanceSq < search.bestDistanceSq) {
+            search.bestDistanceSq = distanceSq;
+            search.bestIndex = mid;
+        }
+
+        int axis = axes[mid];
+        double diff = q[axis] - coords[3 * mid + axis];
+        if (diff < 0) {
+            search(search, from, mid);
+            if (diff * diff < search.bestDistanceSq) {
+                search(search, mid + 1, to);
+            }
+        } else {
+            search(search, mid + 1, to);
+            if (diff * diff < search.bestDistanceSq) {
+                search(search, from, mid);
+            }
+        }
+    }
+
+    private static <T> void buildRange(List<Point<T>> points, byte[] axes, int from, int to) {
+        if (to - from <= 0) {
+            return;
+        }
+        int axis = widestAxis(points, from, to);
+        List<Point<T>> range = points.subList(from, to);
+        range.sort(Comparator.comparingDouble(p -> p.xyz[axis]));
+        int mid = (from + to) >>> 1;
+        axes[mid] = (byte) axis;
+        buildRange(points, axes, from, mid);
+        buildRange(points, axes, mid + 1, to);
+    }
+
+    private static <T> int widestAxis(List<Point<T>> points, int from, int to) {
+        int widest = 0;
+        double widestSpread = -1.0;
+        for (int axis = 0; axis < 3; axis++) {
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int k = from; k < to; k++) {
+                double v = points.get(k).xyz[axis];
+                min = Math.min(min, v);
+                max = Math.max(max, v);
+            }
+            if (max - min > widestSpread) {
+                widestSpread = max - min;
+                widest = axis;
+            }
+        }
+        return widest;
+    }
+
+    private static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    private static final class Point<T> {
+        final T item;
+        final double[] xyz;
+
+        Point(T item, double latitude, double longitude) {
+            this.item = item;
+            this.xyz = toUnitVector(latitude, longitude);
+        }
+    }
+
+    private static final class Search {
+        final double[] query;
+        double bestDistanceSq = Double.POSITIVE_INFINITY;
+        int bestIndex = -1;
+
+        Search(double[] query) {
+            this.query = query;
+        }
+    }
+}
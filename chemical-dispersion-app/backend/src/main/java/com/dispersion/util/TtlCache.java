@@ -0,0 +1,100 @@
+package com.dispersion.util;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Small size- and TTL-bounded LRU cache.
+ *
+ * Expired entries are not returned by {@link #get} but are kept until they
+ * are evicted by size or replaced, so {@link #getStale} can still serve
+ * last-known data when a refresh fails.
+ */
+public class TtlCache<K, V> {
+
+    private final int maxEntries;
+    private final Duration defaultTtl;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    public TtlCache(int maxEntries, Duration defaultTtl) {
+        this.maxEntries = maxEntries;
+        this.defaultTtl = defaultTtl;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > TtlCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Fresh value for {@code key}, or null if absent or expired
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null || entry.isExpired(System.nanoTime())) {
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Value for {@code key} even if it has expired, or null if absent
+     */
+    public synchronized V getStale(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null ? entry.value : null;
+    }
+
+    /**
+     * Time until {@code key} expires; zero if it is absent or already expired
+     */
+    public synchronized Duration remainingTtl(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Duration.ZERO;
+        }
+        long remaining = entry.expiresAtNanos - System.nanoTime();
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, defaultTtl);
+    }
+
+    public synchronized void put(K key, V value, Duration ttl) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttl.toNanos()));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        entries.keySet().removeIf(predicate);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtNanos;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+-- Harmonic constituents for local tide prediction
+
+CREATE TABLE tide_constituents (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    station_id VARCHAR(20) NOT NULL,
+    name VARCHAR(10) NOT NULL, -- M2, S2, ... ; Z0 holds the mean level above the datum
+    amplitude DECIMAL(8, 4) NOT NULL, -- meters
+    phase DECIMAL(7, 3) NOT NULL, -- Greenwich phase lag (kappa), degrees
+    speed DECIMAL(12, 7) NOT NULL, -- degrees per hour
+    datum VARCHAR(20) NOT NULL DEFAULT 'MLLW',
+    source VARCHAR(50),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(station_id, name)
+);
+
+CREATE INDEX idx_tide_constituents_station ON tide_constituents(station_id);
@@ -0,0 +1,101 @@
+package com.dispersion.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContourGeneratorTest {
+
+    @Test
+    void gaussianIsolineIsACircleOfTheAnalyticRadius() {
+        // Broad enough that linear interpolation along cell edges is accurate to 0.01 cell
+        int size = 121;
+        double centerX = 60.3;
+        double centerY = 59.6;
+        double sigma = 20.0;
+        double peak = 10.0;
+        GridStorage grid = new DoubleGridStorage(size, size);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                double r2 = (x - centerX) * (x - centerX) + (y - centerY) * (y - centerY);
+                grid.set(x * size + y, peak * Math.exp(-r2 / (2 * sigma * sigma)));
+            }
+        }
+
+        for (double level : new double[] { 2.0, 5.0, 8.0 }) {
+            List<double[]> rings = ContourGenerator.isolines(grid, level);
+            assertEquals(1, rings.size(), "level " + level);
+            double[] ring = rings.get(0);
+            assertClosed(ring);
+            double radius = sigma * Math.sqrt(2 * Math.log(peak / level));
+            for (int k = 0; k < ring.length; k += 2) {
+                double r = Math.hypot(ring[k] - centerX, ring[k + 1] - centerY);
+                assertEquals(radius, r, 0.01, "level " + level + " point " + k / 2);
+            }
+        }
+    }
+
+    @Test
+    void saddleCellFollowsTheCellAverage() {
+        // High on one diagonal of the single interior cell
+        GridStorage connected = grid(2, 1.0, 0.2, 0.2, 1.0);
+        assertEquals(1, ContourGenerator.isolines(connected, 0.5).size());
+
+        GridStorage separated = grid(2, 1.0, 0.0, 0.0, 1.0);
+        List<double[]> rings = ContourGenerator.isolines(separated, 0.5);
+        assertEquals(2, rings.size());
+        for (double[] ring : rings) {
+            assertClosed(ring);
+        }
+    }
+
+    @Test
+    void plumeTouchingTheEdgeIsClosedOutsideTheGrid() {
+        int size = 20;
+        GridStorage grid = new DoubleGridStorage(size, size);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                double r2 = x * x + (y - 10.0) * (y - 10.0);
+                grid.set(x * size + y, 10.0 * Math.exp(-r2 / 18.0));
+            }
+        }
+
+        List<double[]> rings = ContourGenerator.isolines(grid, 1.0);
+        assertEquals(1, rings.size());
+        double[] ring = rings.get(0);
+        assertClosed(ring);
+        boolean outside = false;
+        for (int k = 0; k < ring.length; k += 2) {
+            assertTrue(ring[k] >= -1.0 && ring[k] <= size, "x " + ring[k]);
+            assertTrue(ring[k + 1] >= -1.0 && ring[k + 1] <= size, "y " + ring[k + 1]);
+            outside |= ring[k] < 0.0;
+        }
+        assertTrue(outside, "ring should close through the zero padding");
+    }
+
+    @Test
+    void simplifyKeepsEndpointsAndDropsCollinearPoints() {
+        double[] line = { 0, 0, 1, 0.001, 2, 0, 3, 5, 4, 0 };
+        double[] simplified = ContourGenerator.simplify(line, 0.01);
+        assertEquals(8, simplified.length);
+        assertEquals(0.0, simplified[0]);
+        assertEquals(4.0, simplified[simplified.length - 2]);
+    }
+
+    private static GridStorage grid(int size, double... values) {
+        GridStorage grid = new DoubleGridStorage(size, size);
+        for (int k = 0; k < values.length; k++) {
+            grid.set(k, values[k]);
+        }
+        return grid;
+    }
+
+    private static void assertClosed(double[] ring) {
+        assertTrue(ring.length >= 8, "ring has " + ring.length / 2 + " points");
+        assertEquals(ring[0], ring[ring.length - 2]);
+        assertEquals(ring[1], ring[ring.length - 1]);
+    }
+}
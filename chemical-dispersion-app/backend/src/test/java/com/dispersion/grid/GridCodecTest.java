@@ -0,0 +1,149 @@
+package com.dispersion.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GridCodecTest {
+
+    private static final int SIZE = 20;
+
+    @Test
+    void frameHeaderMatchesDocumentedOffsets() {
+        GridStorage grid = plume();
+        byte[] frame = GridCodec.encodeFrame(29.5, -95.25, 150.0, grid, GridCodec.Format.UINT16);
+        ByteBuffer in = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+
+        assertEquals("DGRD", new String(frame, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals(1, in.get(4));
+        assertEquals(GridCodec.Format.UINT16.getCode(), in.get(5));
+        assertEquals(1, in.get(6));
+        assertEquals(SIZE, in.getInt(8));
+        assertEquals(29.5, in.getDouble(12));
+        assertEquals(-95.25, in.getDouble(20));
+        assertEquals(150.0, in.getDouble(28));
+        assertEquals(GridCodec.uint16Scale(grid), in.getDouble(36));
+        assertEquals(frame.length - GridCodec.HEADER_BYTES, in.getInt(44));
+    }
+
+    @Test
+    void float32FrameRoundTripsAtSinglePrecision() {
+        GridStorage grid = plume();
+        GridStorage decoded = filled(-1.0);
+        GridCodec.decodeFrame(GridCodec.encodeFrame(0, 0, 100, grid, GridCodec.Format.FLOAT32), decoded);
+
+        for (int k = 0; k < grid.length(); k++) {
+            assertEquals((float) grid.get(k), decoded.get(k), 0.0, "cell " + k);
+        }
+    }
+
+    @Test
+    void uint16FrameRoundTripsWithinHalfAStep() {
+        GridStorage grid = plume();
+        double scale = GridCodec.uint16Scale(grid);
+        GridStorage decoded = filled(-1.0);
+        GridCodec.decodeFrame(GridCodec.encodeFrame(0, 0, 100, grid, GridCodec.Format.UINT16), decoded);
+
+        for (int k = 0; k < grid.length(); k++) {
+            assertEquals(grid.get(k), decoded.get(k), scale / 2 + 1e-12, "cell " + k);
+        }
+        assertEquals(grid.max(), decoded.max(), scale / 2);
+    }
+
+    @Test
+    void allZeroGridIsOneRun() {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+
+        for (GridCodec.Format format : GridCodec.Format.values()) {
+            byte[] payload = GridCodec.encodeValues(grid, format, 1.0);
+            // varint 400 (two bytes), then varint 0 literals
+            assertArrayEquals(new byte[] { (byte) 0x90, 0x03, 0x00 }, payload);
+
+            GridStorage decoded = filled(7.0);
+            GridCodec.decodeFrame(GridCodec.encodeFrame(0, 0, 100, grid, format), decoded);
+            assertArrayEquals(new double[grid.length()], decoded.toArray());
+        }
+        assertEquals(1.0, GridCodec.uint16Scale(grid));
+    }
+
+    @Test
+    void gridWithoutZerosIsOneLiteralRun() {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        for (int k = 0; k < grid.length(); k++) {
+            grid.set(k, 1.0 + k * 0.5);
+        }
+
+        byte[] float32 = GridCodec.encodeFloat32(grid);
+        assertEquals(1 + 2 + 4 * grid.length(), float32.length);
+        ByteBuffer in = ByteBuffer.wrap(float32).order(ByteOrder.LITTLE_ENDIAN);
+        assertEquals(0, GridCodec.readVarint(in));
+        assertEquals(grid.length(), GridCodec.readVarint(in));
+
+        GridStorage decoded = filled(0.0);
+        GridCodec.decodeFloat32(float32, decoded);
+        assertArrayEquals(grid.toArray(), decoded.toArray());
+
+        double scale = GridCodec.uint16Scale(grid);
+        byte[] uint16 = GridCodec.encodeValues(grid, GridCodec.Format.UINT16, scale);
+        assertEquals(1 + 2 + 2 * grid.length(), uint16.length);
+    }
+
+    @Test
+    void varintsRoundTripAcrossByteBoundaries() {
+        int[] values = { 0, 1, 127, 128, 300, 16383, 16384, 2_097_151, 2_097_152, Integer.MAX_VALUE };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int value : values) {
+            GridCodec.writeVarint(out, value);
+        }
+        ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        for (int value : values) {
+            assertEquals(value, GridCodec.readVarint(in));
+        }
+        assertEquals(0, in.remaining());
+
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        GridCodec.writeVarint(single, 300);
+        assertArrayEquals(new byte[] { (byte) 0xAC, 0x02 }, single.toByteArray());
+    }
+
+    @Test
+    void rejectsFrameForDifferentGridSize() {
+        byte[] frame = GridCodec.encodeFrame(0, 0, 100, plume(), GridCodec.Format.FLOAT32);
+        assertThrows(IllegalArgumentException.class, () -> GridCodec.decodeFrame(frame,
+                new DoubleGridStorage(SIZE + 1, SIZE + 1)));
+
+        byte[] corrupt = frame.clone();
+        corrupt[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> GridCodec.decodeFrame(corrupt, filled(0.0)));
+    }
+
+    /**
+     * Gaussian blob off-centre with zero cells around it and a few isolated cells
+     */
+    private static GridStorage plume() {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        for (int r = 0; r < SIZE; r++) {
+            for (int c = 0; c < SIZE; c++) {
+                double d2 = (r - 7) * (r - 7) + (c - 9) * (c - 9);
+                double value = 12.5 * Math.exp(-d2 / 8.0);
+                grid.set(r * SIZE + c, value > 1e-3 ? value : 0.0);
+            }
+        }
+        grid.set(0, 0.25);
+        grid.set(grid.length() - 1, 3.0);
+        return grid;
+    }
+
+    private static GridStorage filled(double value) {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        grid.fill(value);
+        return grid;
+    }
+}
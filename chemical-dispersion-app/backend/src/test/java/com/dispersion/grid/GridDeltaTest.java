@@ -0,0 +1,72 @@
+package com.dispersion.grid;
+
+import com.dispersion.grid.GridDelta.Tile;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GridDeltaTest {
+
+    // Not a multiple of the tile size, so edge tiles are partial
+    private static final int ROWS = 21;
+    private static final int COLS = 27;
+    private static final int TILE = 8;
+    private static final double TOLERANCE = 1e-4;
+
+    @Test
+    void sequenceOfDeltasRebuildsEachVersionFromTheBaseline() {
+        Random random = new Random(22);
+        double[] version = new double[ROWS * COLS];
+        for (int k = 0; k < version.length; k++) {
+            version[k] = k % 5 == 0 ? random.nextDouble() : 0.0;
+        }
+        double[] client = new double[ROWS * COLS];
+        GridDelta.apply(client, COLS, GridDelta.changedTiles(null, version, ROWS, COLS, TILE, TOLERANCE));
+        assertWithin(version, client, TOLERANCE);
+
+        for (int step = 0; step < 20; step++) {
+            double[] next = version.clone();
+            // A few large changes in one place, and noise below the tolerance everywhere
+            int row = random.nextInt(ROWS);
+            int col = random.nextInt(COLS);
+            next[row * COLS + col] += 1.0 + random.nextDouble();
+            for (int k = 0; k < next.length; k++) {
+                next[k] += (random.nextDouble() - 0.5) * TOLERANCE;
+            }
+            // Diffed against the client's copy, as the change tracker does
+            List<Tile> tiles = GridDelta.changedTiles(client, next, ROWS, COLS, TILE, TOLERANCE);
+            GridDelta.apply(client, COLS, tiles);
+            assertWithin(next, client, TOLERANCE);
+            version = next;
+        }
+    }
+
+    @Test
+    void unchangedGridHasNoTilesAndEdgeTilesAreClipped() {
+        double[] grid = new double[ROWS * COLS];
+        grid[ROWS * COLS - 1] = 2.0;
+        assertEquals(List.of(), GridDelta.changedTiles(grid, grid.clone(), ROWS, COLS, TILE, TOLERANCE));
+
+        List<Tile> tiles = GridDelta.changedTiles(null, grid, ROWS, COLS, TILE, TOLERANCE);
+        assertEquals(1, tiles.size());
+        Tile tile = tiles.get(0);
+        assertEquals(16, tile.getRow());
+        assertEquals(24, tile.getCol());
+        assertEquals(5, tile.getRows());
+        assertEquals(3, tile.getCols());
+        assertEquals(2.0f, tile.getValues()[tile.getValues().length - 1]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> GridDelta.changedTiles(new double[3], grid, ROWS, COLS, TILE, TOLERANCE));
+    }
+
+    private static void assertWithin(double[] expected, double[] actual, double tolerance) {
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], tolerance, "cell " + k);
+        }
+    }
+}
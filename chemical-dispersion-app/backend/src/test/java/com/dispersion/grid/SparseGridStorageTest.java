@@ -0,0 +1,90 @@
+package com.dispersion.grid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SparseGridStorageTest {
+
+    // Not a multiple of the tile size, so the last tile row and column are partial
+    private static final int ROWS = 37;
+    private static final int COLS = 45;
+    private static final double FLOOR = 0.01;
+
+    @Test
+    void matchesDenseStorageAboveTheFloor() {
+        Random random = new Random(22);
+        GridStorage dense = new DoubleGridStorage(ROWS, COLS);
+        SparseGridStorage sparse = new SparseGridStorage(ROWS, COLS, FLOOR);
+        for (int n = 0; n < 5000; n++) {
+            int k = random.nextInt(ROWS * COLS);
+            // Mostly below or at the floor, including values that clear cells again
+            double value = random.nextInt(4) == 0 ? random.nextDouble() : random.nextInt(3) * FLOOR / 2;
+            dense.set(k, value);
+            sparse.set(k, value);
+        }
+
+        double max = 0.0;
+        int above = 0;
+        for (int k = 0; k < ROWS * COLS; k++) {
+            double value = dense.get(k);
+            assertEquals(value > FLOOR ? value : 0.0, sparse.get(k), "cell " + k);
+            max = Math.max(max, sparse.get(k));
+            above += value > 0.5 ? 1 : 0;
+        }
+        assertEquals(max, sparse.max());
+        assertEquals(above, sparse.countAbove(0.5));
+        // Negative thresholds count the unallocated zeros too
+        assertEquals(ROWS * COLS, sparse.countAbove(-1.0));
+    }
+
+    @Test
+    void onlyTilesAboveTheFloorAreAllocated() {
+        SparseGridStorage sparse = new SparseGridStorage(ROWS, COLS, FLOOR);
+        sparse.set(sparse.index(0, 0), FLOOR);
+        sparse.set(sparse.index(20, 20), -3.0);
+        assertEquals(0, sparse.allocatedTiles());
+
+        sparse.set(sparse.index(36, 44), 2.0);
+        sparse.set(sparse.index(35, 40), 3.0);
+        assertEquals(1, sparse.allocatedTiles());
+        assertEquals(2.0, sparse.get(sparse.index(36, 44)));
+
+        sparse.fill(0.0);
+        assertEquals(0, sparse.allocatedTiles());
+        assertEquals(0.0, sparse.max());
+
+        sparse.fill(1.0);
+        assertEquals(9, sparse.allocatedTiles());
+        assertEquals(ROWS * COLS, sparse.countAbove(0.5));
+    }
+
+    @Test
+    void rowsRoundTripAcrossTileBoundaries() {
+        SparseGridStorage sparse = new SparseGridStorage(ROWS, COLS, FLOOR);
+        double[] row = new double[COLS + 3];
+        for (int c = 0; c < COLS; c++) {
+            // Only the second tile column stays below the floor
+            row[3 + c] = c / SparseGridStorage.TILE_SIZE == 1 ? FLOOR : c + 1.0;
+        }
+        sparse.writeRow(17, row, 3);
+        assertEquals(2, sparse.allocatedTiles());
+
+        double[] read = new double[COLS + 1];
+        Arrays.fill(read, -1.0);
+        sparse.readRow(17, read, 1);
+        assertEquals(-1.0, read[0]);
+        for (int c = 0; c < COLS; c++) {
+            assertEquals(row[3 + c] > FLOOR ? row[3 + c] : 0.0, read[1 + c], "column " + c);
+            assertEquals(read[1 + c], sparse.get(sparse.index(17, c)), "column " + c);
+        }
+
+        // Rewriting below the floor clears the cells but keeps the tiles
+        sparse.writeRow(17, new double[COLS], 0);
+        assertEquals(0.0, sparse.max());
+        assertEquals(2, sparse.allocatedTiles());
+    }
+}
@@ -0,0 +1,103 @@
+package com.dispersion.service;
+
+import com.dispersion.event.ChemicalUpdatedEvent;
+import com.dispersion.model.ChemicalProperties;
+import com.dispersion.repository.ChemicalPropertiesRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChemicalServiceTest {
+
+    private static final Map<String, Integer> CIDS = Map.of("benzene", 241, "toluene", 1140, "xylene", 7237);
+
+    @Test
+    void batchFallsBackToSingleInsertsWhenANameWasStoredMeanwhile() {
+        ChemicalPropertiesRepository repository = mock(ChemicalPropertiesRepository.class);
+        ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+        ChemicalProperties existingBenzene = new ChemicalProperties();
+        existingBenzene.setId(UUID.randomUUID());
+        existingBenzene.setName("Benzene");
+        existingBenzene.setCid(241L);
+
+        // Nothing stored when the batch starts; benzene is there by the time it is read back
+        when(repository.findByLowerNameIn(anyCollection()))
+                .thenReturn(List.of())
+                .thenReturn(List.of(existingBenzene));
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            for (Object chemical : (Iterable<?>) invocation.getArgument(0)) {
+                ((ChemicalProperties) chemical).setId(UUID.randomUUID());
+            }
+            throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+        });
+        when(repository.save(any(ChemicalProperties.class))).thenAnswer(invocation -> {
+            ChemicalProperties chemical = invocation.getArgument(0);
+            assertNull(chemical.getId(), "retry must insert, not merge a rolled-back id");
+            if (!chemical.getName().equals("xylene")) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            chemical.setId(UUID.randomUUID());
+            return chemical;
+        });
+
+        ChemicalService service = new ChemicalService(WebClient.builder().exchangeFunction(request -> {
+            String path = request.url().getPath();
+            String body;
+            if (path.endsWith("/cids/JSON")) {
+                String name = path.split("/")[path.split("/").length - 3];
+                body = "{\"IdentifierList\":{\"CID\":[" + CIDS.get(name) + "]}}";
+            } else {
+                body = "{\"PropertyTable\":{\"Properties\":["
+                        + "{\"CID\":241,\"MolecularFormula\":\"C6H6\",\"MolecularWeight\":\"78.11\"},"
+                        + "{\"CID\":1140,\"MolecularFormula\":\"C7H8\",\"MolecularWeight\":\"92.14\"},"
+                        + "{\"CID\":7237,\"MolecularFormula\":\"C8H10\",\"MolecularWeight\":\"106.16\"}]}}";
+            }
+            return Mono.just(ClientResponse.create(HttpStatus.OK)
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(body)
+                    .build());
+        }), new ObjectMapper(), new UpstreamGuard(CircuitBreakerRegistry.ofDefaults(), BulkheadRegistry.ofDefaults()),
+                "http://pubchem.test", 100, 1440, 30, 100, 2);
+        ReflectionTestUtils.setField(service, "chemicalRepository", repository);
+        ReflectionTestUtils.setField(service, "eventPublisher", publisher);
+
+        Map<String, ChemicalProperties> resolved = service.getOrFetchChemicalProperties(
+                List.of("benzene", "toluene", "xylene"));
+
+        assertEquals(3, resolved.size());
+        assertSame(existingBenzene, resolved.get("benzene"));
+        assertEquals("C8H10", resolved.get("xylene").getMolecularFormula());
+        // Neither inserted nor found: served, but not stored
+        assertNull(resolved.get("toluene").getId());
+        ArgumentCaptor<ChemicalUpdatedEvent> events = ArgumentCaptor.forClass(ChemicalUpdatedEvent.class);
+        verify(publisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of("xylene", "Benzene"),
+                events.getAllValues().stream().map(ChemicalUpdatedEvent::getChemicalName).toList());
+    }
+}
@@ -0,0 +1,76 @@
+package com.dispersion.service;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.model.DispersionRecord;
+import com.dispersion.repository.DispersionRecordRepository;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import com.dispersion.service.FluidDynamicsService.DispersionResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DispersionHistoryServiceTest {
+
+    @Test
+    void failedBatchIsRetriedAsInsertsRowByRow() {
+        DispersionRecordRepository repository = mock(DispersionRecordRepository.class);
+        UUID deletedSpill = UUID.randomUUID();
+        List<DispersionRecord> saved = new ArrayList<>();
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            // The batch is rolled back after ids were assigned
+            for (Object record : (Iterable<?>) invocation.getArgument(0)) {
+                ((DispersionRecord) record).setId(UUID.randomUUID());
+            }
+            throw new DataIntegrityViolationException("violates foreign key constraint");
+        });
+        when(repository.save(any(DispersionRecord.class))).thenAnswer(invocation -> {
+            DispersionRecord record = invocation.getArgument(0);
+            assertNull(record.getId(), "retry must insert, not merge a rolled-back id");
+            if (record.getSpillId().equals(deletedSpill)) {
+                throw new DataIntegrityViolationException("violates foreign key constraint");
+            }
+            saved.add(record);
+            return record;
+        });
+
+        DispersionHistoryService history = new DispersionHistoryService(repository, new ObjectMapper(), 100, 50, 100);
+        history.record(response(UUID.randomUUID()), result());
+        history.record(response(deletedSpill), result());
+        history.record(response(UUID.randomUUID()), result());
+        history.flush();
+
+        verify(repository, times(1)).saveAll(anyIterable());
+        verify(repository, times(3)).save(any(DispersionRecord.class));
+        assertEquals(2, saved.size());
+    }
+
+    private static DispersionResponse response(UUID spillId) {
+        DispersionResponse response = new DispersionResponse();
+        response.setSpillId(spillId);
+        response.setAffectedAreaKm2(BigDecimal.ONE);
+        return response;
+    }
+
+    private static DispersionResult result() {
+        DispersionResult result = new DispersionResult();
+        DispersionGrid grid = new DispersionGrid(29.7, -95.3, 100.0, 4);
+        grid.setConcentration(1, 2, 0.5);
+        result.setDispersionGrid(grid);
+        result.setMaxConcentration(0.5);
+        return result;
+    }
+}
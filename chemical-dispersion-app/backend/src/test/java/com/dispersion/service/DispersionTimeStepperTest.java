@@ -0,0 +1,140 @@
+package com.dispersion.service;
+
+import com.dispersion.grid.DoubleGridStorage;
+import com.dispersion.grid.GridStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DispersionTimeStepperTest {
+
+    private static final int SIZE = 81;
+    private static final double CELL = 100.0;
+    private static final double HOUR = 3600.0;
+
+    @Test
+    void windMovesThePlumeWithoutChangingIt() {
+        GridStorage initial = blob(30, 40);
+        // 3 cells east and 2 cells north per hour, no diffusion
+        DispersionTimeStepper stepper = new DispersionTimeStepper(initial, CELL, 0.0, 0.0, null, false);
+        stepper.advance(HOUR, 3 * CELL / HOUR, 2 * CELL / HOUR);
+        stepper.advance(HOUR, 3 * CELL / HOUR, 2 * CELL / HOUR);
+        GridStorage moved = snapshot(stepper);
+
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                double expected = i >= 6 && j >= 4 ? initial.get((i - 6) * SIZE + j - 4) : 0.0;
+                assertEquals(expected, moved.get(i * SIZE + j), 1e-12, "cell " + i + "," + j);
+            }
+        }
+        assertEquals(2 * HOUR, stepper.getElapsedSeconds());
+    }
+
+    @Test
+    void massIsConservedAwayFromTheEdges() {
+        GridStorage initial = blob(40, 40);
+        double mass = sum(initial);
+        // Fractional shifts and 5 m²/s: sigma grows by about 1.9 cells per step, so the plume stays clear of the
+        // edges where the blur and the advection lose mass
+        DispersionTimeStepper stepper = new DispersionTimeStepper(initial, CELL, 5.0, 0.0, null, false);
+        for (int step = 0; step < 4; step++) {
+            stepper.advance(HOUR, 0.37 * CELL / HOUR, -0.61 * CELL / HOUR);
+        }
+        assertEquals(mass, sum(snapshot(stepper)), mass * 1e-9);
+    }
+
+    @Test
+    void decayIsFirstOrder() {
+        GridStorage initial = blob(40, 40);
+        double mass = sum(initial);
+        double decayRate = 5e-5;
+        DispersionTimeStepper stepper = new DispersionTimeStepper(initial, CELL, 5.0, decayRate, null, false);
+        for (int step = 0; step < 6; step++) {
+            stepper.advance(HOUR, 0.0, 0.0);
+        }
+        assertEquals(mass * Math.exp(-decayRate * 6 * HOUR), sum(snapshot(stepper)), mass * 1e-9);
+    }
+
+    @Test
+    void diffusionSpreadsAPointByTwoKt() {
+        GridStorage initial = new DoubleGridStorage(SIZE, SIZE);
+        initial.set(40 * SIZE + 40, 1.0);
+        double diffusivity = 50.0;
+        DispersionTimeStepper stepper = new DispersionTimeStepper(initial, CELL, diffusivity, 0.0, null, false);
+        stepper.advance(HOUR, 0.0, 0.0);
+        stepper.advance(HOUR, 0.0, 0.0);
+        GridStorage spread = snapshot(stepper);
+
+        double varianceI = 0.0;
+        double varianceJ = 0.0;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                double v = spread.get(i * SIZE + j);
+                varianceI += v * (i - 40) * (i - 40);
+                varianceJ += v * (j - 40) * (j - 40);
+            }
+        }
+        // Cells², less a little for the kernel truncated at three sigmas
+        double expected = 2.0 * diffusivity * 2 * HOUR / (CELL * CELL);
+        assertEquals(expected, varianceI, expected * 0.05);
+        assertEquals(expected, varianceJ, expected * 0.05);
+    }
+
+    @Test
+    void snapshotReturnsTheMaximumAndParallelRowsMatch() {
+        GridStorage initial = blob(30, 50);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            DispersionTimeStepper serial = new DispersionTimeStepper(initial, CELL, 10.0, 1e-5, null, false);
+            DispersionTimeStepper parallel = new DispersionTimeStepper(initial, CELL, 10.0, 1e-5, pool, true);
+            for (int step = 0; step < 3; step++) {
+                serial.advance(HOUR, 0.8 * CELL / HOUR, 0.3 * CELL / HOUR);
+                parallel.advance(HOUR, 0.8 * CELL / HOUR, 0.3 * CELL / HOUR);
+            }
+            GridStorage a = new DoubleGridStorage(SIZE, SIZE);
+            GridStorage b = new DoubleGridStorage(SIZE, SIZE);
+            double maxA = serial.snapshot(a);
+            double maxB = parallel.snapshot(b);
+
+            double max = 0.0;
+            for (int k = 0; k < SIZE * SIZE; k++) {
+                assertEquals(a.get(k), b.get(k), "cell " + k);
+                max = Math.max(max, a.get(k));
+            }
+            assertEquals(max, maxA);
+            assertEquals(maxA, maxB);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Smooth bump of radius 6 cells, well inside the grid
+     */
+    private static GridStorage blob(int ci, int cj) {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                double r2 = (i - ci) * (i - ci) + (j - cj) * (j - cj);
+                grid.set(i * SIZE + j, r2 < 36 ? 36 - r2 : 0.0);
+            }
+        }
+        return grid;
+    }
+
+    private static GridStorage snapshot(DispersionTimeStepper stepper) {
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        stepper.snapshot(grid);
+        return grid;
+    }
+
+    private static double sum(GridStorage grid) {
+        double total = 0.0;
+        for (int k = 0; k < SIZE * SIZE; k++) {
+            total += grid.get(k);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,91 @@
+package com.dispersion.service;
+
+import com.dispersion.model.Spill;
+import com.dispersion.service.FluidDynamicsService.DispersionResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FluidDynamicsServiceTest {
+
+    private final FluidDynamicsService service = new FluidDynamicsService(
+            new GridResolver(50, 100.0, true, 20, 1000, 10.0, 2000.0, 500.0, 100000.0),
+            "double", 0.001, 1, 40000, 72, 60, 1.0, 500, 300, new double[] { 0.01, 0.1, 1.0 }, 0.5);
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void framesAreReturnedWhenAskedForButNeverCached() {
+        Spill spill = spill();
+        SimulationOptions stepped = new SimulationOptions(6, 40, null);
+        SimulationOptions withFrames = new SimulationOptions(6, 40, null, true);
+
+        DispersionResult played = service.calculateDispersion(spill, null, List.of(), null, withFrames);
+        // Hours 1 to 6: the initial one-hour plume, then one frame per step
+        assertEquals(6, played.getFrames().size());
+        assertSame(played.getDispersionGrid(), played.getFrames().get(5).getGrid());
+
+        // The cached copy is the same computation without its frames
+        DispersionResult cached = service.calculateDispersion(spill, null, List.of(), null, stepped);
+        assertEquals(played.getResultId(), cached.getResultId());
+        assertSame(played.getDispersionGrid(), cached.getDispersionGrid());
+        assertTrue(cached.getFrames().isEmpty());
+
+        // Asking for frames again runs the model again rather than serving the frameless copy
+        DispersionResult replayed = service.calculateDispersion(spill, null, List.of(), null, withFrames);
+        assertNotSame(played, replayed);
+        assertEquals(6, replayed.getFrames().size());
+    }
+
+    @Test
+    void steppedRunWithoutFramesMatchesTheLastFrame() {
+        Spill spill = spill();
+        DispersionResult withFrames = service.calculateDispersion(spill, null, List.of(), null,
+                new SimulationOptions(4, 40, null, true));
+        service.evictResults(spill.getId());
+        DispersionResult withoutFrames = service.calculateDispersion(spill, null, List.of(), null,
+                new SimulationOptions(4, 40, null));
+
+        assertTrue(withoutFrames.getFrames().isEmpty());
+        assertEquals(withFrames.getMaxConcentration(), withoutFrames.getMaxConcentration(), 1e-12);
+        double[] expected = withFrames.getDispersionGrid().getStorage().toArray();
+        double[] actual = withoutFrames.getDispersionGrid().getStorage().toArray();
+        for (int k = 0; k < expected.length; k++) {
+            assertEquals(expected[k], actual[k], 1e-12, "cell " + k);
+        }
+    }
+
+    @Test
+    void onlyDefaultRunsBecomeTheLatestResult() {
+        Spill spill = spill();
+        service.calculateDispersion(spill, null, List.of(), null, new SimulationOptions(3, null, null, true));
+        assertNull(service.getLatestResult(spill.getId()));
+
+        DispersionResult latest = service.calculateDispersion(spill, null, List.of(), null);
+        assertSame(latest, service.getLatestResult(spill.getId()));
+        assertEquals(1, latest.getSimulationHours());
+        assertTrue(latest.getFrames().isEmpty());
+    }
+
+    private static Spill spill() {
+        Spill spill = new Spill();
+        spill.setId(UUID.randomUUID());
+        spill.setName("test");
+        spill.setVolume(new BigDecimal("5000"));
+        spill.setLatitude(new BigDecimal("29.7"));
+        spill.setLongitude(new BigDecimal("-95.0"));
+        return spill;
+    }
+}
@@ -0,0 +1,136 @@
+package com.dispersion.service;
+
+import com.dispersion.grid.DoubleGridStorage;
+import com.dispersion.grid.GridStorage;
+import com.dispersion.grid.SparseGridStorage;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GaussianPlumeKernelTest {
+
+    private static final int SIZE = 100;
+    private static final double CELL = 100.0;
+    private static final double DRIFT_X = 2.0 * 3600.0 * Math.cos(Math.toRadians(30.0));
+    private static final double DRIFT_Y = 2.0 * 3600.0 * Math.sin(Math.toRadians(30.0));
+    private static final double SIGMA_Y0 = 80.0;
+    private static final double SIGMA_Z0 = 40.0;
+    private static final double AMPLITUDE = 2.0e4;
+
+    @Test
+    void matchesTheScalarLoopWithoutAFloor() {
+        GaussianPlumeKernel kernel = kernel(0.0);
+        GridStorage grid = new DoubleGridStorage(SIZE, SIZE);
+        double max = kernel.compute(grid, null, Integer.MAX_VALUE);
+
+        double expectedMax = 0.0;
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                double expected = scalar(i, j);
+                expectedMax = Math.max(expectedMax, expected);
+                // log/exp in the kernel against pow in the loop: sigmas a few ulps apart, amplified in the far
+                // tail by an exponent of -100 or so
+                assertEquals(expected, grid.get(i * SIZE + j), expected * 1e-11, "cell " + i + "," + j);
+            }
+        }
+        assertEquals(expectedMax, max, expectedMax * 1e-14);
+    }
+
+    @Test
+    void parallelSplitMatchesTheCallingThread() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            // Sizes below, at and across block boundaries, including a ragged last block
+            for (int size : new int[] { 1, 15, 16, 17, 48, 100, 257 }) {
+                for (double floor : new double[] { 0.0, 0.001 }) {
+                    GaussianPlumeKernel kernel = new GaussianPlumeKernel(size, CELL, DRIFT_X, DRIFT_Y, SIGMA_Y0,
+                            SIGMA_Z0, AMPLITUDE, floor);
+                    GridStorage serial = new DoubleGridStorage(size, size);
+                    GridStorage parallel = new DoubleGridStorage(size, size);
+                    double serialMax = kernel.compute(serial, null, 0);
+                    double parallelMax = kernel.compute(parallel, pool, 0);
+
+                    assertEquals(serialMax, parallelMax, "size " + size);
+                    for (int k = 0; k < size * size; k++) {
+                        assertEquals(serial.get(k), parallel.get(k), "size " + size + " cell " + k);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void tileBoundIsAtLeastEveryCellInTheTile() {
+        GaussianPlumeKernel kernel = kernel(0.0);
+        Random random = new Random(9);
+        for (int n = 0; n < 2000; n++) {
+            int i0 = random.nextInt(SIZE);
+            int j0 = random.nextInt(SIZE);
+            int i1 = Math.min(SIZE - 1, i0 + random.nextInt(GaussianPlumeKernel.ROW_BLOCK));
+            int j1 = Math.min(SIZE - 1, j0 + random.nextInt(GaussianPlumeKernel.ROW_BLOCK));
+            double bound = kernel.upperBound(i0, i1, j0, j1);
+            for (int i = i0; i <= i1; i++) {
+                for (int j = j0; j <= j1; j++) {
+                    double c = scalar(i, j);
+                    assertTrue(c <= bound, "cell " + i + "," + j + " = " + c + " above bound " + bound);
+                }
+            }
+        }
+    }
+
+    @Test
+    void floorOnlyZeroesCellsSparseStorageWouldDrop() {
+        double floor = 0.001;
+        GridStorage exact = new DoubleGridStorage(SIZE, SIZE);
+        kernel(0.0).compute(exact, null, Integer.MAX_VALUE);
+        GridStorage skipped = new DoubleGridStorage(SIZE, SIZE);
+        kernel(floor).compute(skipped, null, Integer.MAX_VALUE);
+        GridStorage sparse = new SparseGridStorage(SIZE, SIZE, floor);
+        kernel(floor).compute(sparse, null, Integer.MAX_VALUE);
+
+        int zeroed = 0;
+        for (int k = 0; k < SIZE * SIZE; k++) {
+            double value = exact.get(k);
+            if (skipped.get(k) != value) {
+                assertEquals(0.0, skipped.get(k));
+                assertTrue(value <= floor, "cell " + k + " = " + value + " zeroed above the floor");
+                zeroed++;
+            }
+            assertEquals(value > floor ? value : 0.0, sparse.get(k), "cell " + k);
+        }
+        assertTrue(zeroed > 0, "no tile was skipped");
+    }
+
+    private static GaussianPlumeKernel kernel(double floor) {
+        return new GaussianPlumeKernel(SIZE, CELL, DRIFT_X, DRIFT_Y, SIGMA_Y0, SIGMA_Z0, AMPLITUDE, floor);
+    }
+
+    /**
+     * The per-cell plume as the original scalar loop computed it
+     */
+    private static double scalar(int i, int j) {
+        double effectiveX = (i - SIZE / 2) * CELL - DRIFT_X;
+        double effectiveY = (j - SIZE / 2) * CELL - DRIFT_Y;
+        double distance = Math.sqrt(effectiveX * effectiveX + effectiveY * effectiveY);
+        if (distance < 1.0) {
+            distance = 1.0;
+        }
+        double sigmaY = SIGMA_Y0 * Math.pow(distance / 1000.0, 0.9);
+        double sigmaZ = SIGMA_Z0 * Math.pow(distance / 1000.0, 0.8);
+        if (sigmaY < 1.0) {
+            sigmaY = 1.0;
+        }
+        if (sigmaZ < 0.5) {
+            sigmaZ = 0.5;
+        }
+        double lateralTerm = Math.exp(-0.5 * Math.pow(effectiveY / sigmaY, 2));
+        double verticalTerm = Math.exp(-0.5 * Math.pow(1.5 / sigmaZ, 2));
+        return AMPLITUDE / (sigmaY * sigmaZ) * lateralTerm * verticalTerm;
+    }
+}
@@ -0,0 +1,81 @@
+package com.dispersion.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GridResolverTest {
+
+    private static final double HOUR = 3600.0;
+
+    // The application.yml defaults
+    private final GridResolver resolver = new GridResolver(50, 100.0, true, 20, 1000, 10.0, 2000.0, 500.0,
+            100000.0);
+
+    @Test
+    void radiusIsClampedBetween500mAnd100km() {
+        assertEquals(500.0, resolver.requiredRadius(0.0, 0.0, 0.0));
+        assertEquals(500.0, resolver.requiredRadius(1000.0, 0.0, HOUR));
+        // 1000 m³ spreads 100 m * cbrt(1000), plus 10 % padding
+        assertEquals(1100.0, resolver.requiredRadius(1_000_000.0, 0.0, HOUR), 1e-9);
+        assertEquals((2.0 * HOUR + 1000.0) * 1.1, resolver.requiredRadius(1_000_000.0, -2.0, HOUR), 1e-9);
+        assertEquals(100000.0, resolver.requiredRadius(1_000_000.0, 10.0, 72 * HOUR));
+    }
+
+    @Test
+    void cellSizeFollowsTheExtentWithinItsBounds() {
+        // 500 m radius over 50 cells
+        assertResolution(50, 20.0, resolver.resolve(1000.0, 0.0, HOUR, null));
+        // 100 km radius would need 4 km cells; clamped to 2 km, so the grid grows instead
+        assertResolution(100, 2000.0, resolver.resolve(1000.0, 10.0, 72 * HOUR, null));
+        // 200 cells over 1 km would be 5 m; clamped to 10 m and the requested size is kept
+        assertResolution(200, 10.0, resolver.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, 200, null)));
+    }
+
+    @Test
+    void requestedCellSizeSetsTheCellCountWithinItsBounds() {
+        assertResolution(1000, 10.0, resolver.resolve(1000.0, 10.0, 72 * HOUR, new SimulationOptions(null, null,
+                10.0)));
+        assertResolution(20, 1000.0, resolver.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, null,
+                1000.0)));
+
+        // Rounded up to an even count so the source sits on the centre index
+        GridResolver small = new GridResolver(50, 100.0, true, 2, 1000, 10.0, 2000.0, 500.0, 100000.0);
+        assertResolution(12, 200.0, small.resolve(1_000_000.0, 0.0, HOUR, new SimulationOptions(null, null,
+                200.0)));
+    }
+
+    @Test
+    void explicitSizesWinAndAutoResolutionCanBeOff() {
+        assertResolution(7, 33.0, resolver.resolve(1000.0, 10.0, 72 * HOUR, new SimulationOptions(null, 7, 33.0)));
+
+        GridResolver fixed = new GridResolver(50, 100.0, false, 20, 1000, 10.0, 2000.0, 500.0, 100000.0);
+        assertResolution(50, 100.0, fixed.resolve(1_000_000.0, 10.0, 72 * HOUR, null));
+        assertResolution(80, 100.0, fixed.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, 80, null)));
+        assertResolution(50, 25.0, fixed.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, null, 25.0)));
+    }
+
+    @Test
+    void overridesOutsideTheLimitsAreRejected() {
+        assertResolution(2, 100.0, resolver.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, 2, 100.0)));
+        assertResolution(1000, 100.0, resolver.resolve(1000.0, 0.0, HOUR,
+                new SimulationOptions(null, 1000, 100.0)));
+
+        for (int gridSize : new int[] { -1, 0, 1, 1001 }) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> resolver.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, gridSize, null)),
+                    "gridSize " + gridSize);
+        }
+        for (double cellSize : new double[] { 0.0, -5.0, Double.NaN, 2000.5 }) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> resolver.resolve(1000.0, 0.0, HOUR, new SimulationOptions(null, null, cellSize)),
+                    "cellSize " + cellSize);
+        }
+    }
+
+    private static void assertResolution(int gridSize, double cellSize, GridResolution resolution) {
+        assertEquals(gridSize, resolution.getGridSize(), "gridSize of " + resolution);
+        assertEquals(cellSize, resolution.getCellSize(), 1e-9, "cellSize of " + resolution);
+    }
+}
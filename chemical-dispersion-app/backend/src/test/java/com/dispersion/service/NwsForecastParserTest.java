@@ -0,0 +1,140 @@
+package com.dispersion.service;
+
+import com.dispersion.model.WeatherData;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NwsForecastParserTest {
+
+    private static final Instant NOW = Instant.parse("2024-06-01T12:30:00Z");
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private static final String FORECAST = "{\"@context\":[\"https://geojson.org/geojson-ld/geojson-context.jsonld\"],"
+            + "\"type\":\"Feature\",\"geometry\":{\"type\":\"Polygon\",\"coordinates\":[[[-95.1,29.7]]]},"
+            + "\"properties\":{\"units\":\"us\",\"periods\":["
+            + period(1, "2024-06-01T11:00:00+00:00", 80, "5 mph", "N")
+            + "," + period(2, "2024-06-01T12:00:00+00:00", 86, "5 to 15 mph", "NNW")
+            + "," + period(3, "2024-06-01T13:00:00+00:00", 88, "10 kt", "SE")
+            + "," + period(4, "2024-06-01T14:00:00+00:00", 90, "20 km/h", "270")
+            + "," + period(5, "2024-06-01T15:00:00+00:00", 91, "Calm", "")
+            + "]}}";
+
+    @Test
+    void parsesPeriodsWhateverTheChunkBoundaries() throws IOException {
+        byte[] document = FORECAST.getBytes(StandardCharsets.UTF_8);
+        List<NwsForecastParser.Period> whole = parse(document, document.length, 10);
+
+        // Every split position, so each token is cut at least once
+        for (int chunk = 1; chunk < 64; chunk++) {
+            List<NwsForecastParser.Period> split = parse(document, chunk, 10);
+            assertEquals(whole.size(), split.size(), "chunk " + chunk);
+            for (int k = 0; k < whole.size(); k++) {
+                assertEquals(whole.get(k).start, split.get(k).start, "chunk " + chunk);
+                assertWeather(whole.get(k).weather, split.get(k).weather);
+            }
+        }
+    }
+
+    @Test
+    void skipsPeriodsThatHaveEnded() throws IOException {
+        byte[] document = FORECAST.getBytes(StandardCharsets.UTF_8);
+        List<NwsForecastParser.Period> periods = parse(document, document.length, 10);
+
+        // 11:00 ended at noon; the 12:00 period is still running at 12:30
+        assertEquals(4, periods.size());
+        assertEquals(Instant.parse("2024-06-01T12:00:00Z"), periods.get(0).start);
+        WeatherData first = periods.get(0).weather;
+        assertEquals(new BigDecimal("30.00"), first.getTemperature());
+        assertEquals(new BigDecimal("62.00"), first.getHumidity());
+        assertEquals(new BigDecimal("4.47"), first.getWindSpeed());
+        assertEquals(new BigDecimal("337.50"), first.getWindDirection());
+        assertEquals("Sunny 2", first.getWeatherCondition());
+        assertNull(periods.get(3).weather.getWindSpeed());
+        assertNull(periods.get(3).weather.getWindDirection());
+    }
+
+    @Test
+    void stopsOnceMaxPeriodsAreRead() throws IOException {
+        NwsForecastParser parser = new NwsForecastParser(new JsonFactory(), 2, NOW, HOUR);
+        String head = FORECAST.substring(0, FORECAST.indexOf("\"number\":4"));
+
+        assertTrue(parser.feed(head.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, parser.periods().size());
+        assertEquals(Instant.parse("2024-06-01T13:00:00Z"), parser.periods().get(1).start);
+        // Anything after the limit, even a truncated document, is ignored
+        assertTrue(parser.feed("not json".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(2, parser.periods().size());
+    }
+
+    @Test
+    void incompleteDocumentIsNotDone() throws IOException {
+        NwsForecastParser parser = new NwsForecastParser(new JsonFactory(), 10, NOW, HOUR);
+        assertFalse(parser.feed(FORECAST.substring(0, FORECAST.length() / 2).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void windSpeedIsTheMeanOfTheRangeInMetresPerSecond() {
+        assertEquals(10 * 0.44704, NwsForecastParser.windSpeedMs("5 to 15 mph"), 1e-9);
+        assertEquals(7 * 0.44704, NwsForecastParser.windSpeedMs("7 mph"), 1e-9);
+        assertEquals(10 * 0.514444, NwsForecastParser.windSpeedMs("10 kt"), 1e-9);
+        assertEquals(5.0, NwsForecastParser.windSpeedMs("18 km/h"), 1e-9);
+        assertEquals(3.5, NwsForecastParser.windSpeedMs("3.5 m/s"), 1e-9);
+        assertNull(NwsForecastParser.windSpeedMs("Calm"));
+        assertNull(NwsForecastParser.windSpeedMs(null));
+    }
+
+    @Test
+    void compassPointsAndBearingsBecomeDegrees() {
+        assertEquals(0.0, NwsForecastParser.compassDegrees("N"));
+        assertEquals(337.5, NwsForecastParser.compassDegrees("NNW"));
+        assertEquals(112.5, NwsForecastParser.compassDegrees(" ese "));
+        assertEquals(270.0, NwsForecastParser.compassDegrees("270"));
+        assertNull(NwsForecastParser.compassDegrees("variable"));
+        assertNull(NwsForecastParser.compassDegrees(""));
+        assertNull(NwsForecastParser.compassDegrees(null));
+    }
+
+    private static List<NwsForecastParser.Period> parse(byte[] document, int chunk, int maxPeriods)
+            throws IOException {
+        NwsForecastParser parser = new NwsForecastParser(new JsonFactory(), maxPeriods, NOW, HOUR);
+        for (int offset = 0; offset < document.length; offset += chunk) {
+            if (parser.feed(Arrays.copyOfRange(document, offset, Math.min(document.length, offset + chunk)))) {
+                break;
+            }
+        }
+        return parser.periods();
+    }
+
+    private static void assertWeather(WeatherData expected, WeatherData actual) {
+        assertEquals(expected.getTemperature(), actual.getTemperature());
+        assertEquals(expected.getHumidity(), actual.getHumidity());
+        assertEquals(expected.getWindSpeed(), actual.getWindSpeed());
+        assertEquals(expected.getWindDirection(), actual.getWindDirection());
+        assertEquals(expected.getWeatherCondition(), actual.getWeatherCondition());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+    }
+
+    private static String period(int number, String startTime, int temperature, String windSpeed,
+            String windDirection) {
+        return "{\"number\":" + number + ",\"name\":\"\",\"startTime\":\"" + startTime + "\","
+                + "\"endTime\":\"\",\"isDaytime\":true,\"temperature\":" + temperature + ","
+                + "\"temperatureUnit\":\"F\",\"temperatureTrend\":null,"
+                + "\"probabilityOfPrecipitation\":{\"unitCode\":\"wmoUnit:percent\",\"value\":10},"
+                + "\"relativeHumidity\":{\"unitCode\":\"wmoUnit:percent\",\"value\":" + (60 + number) + "},"
+                + "\"windSpeed\":\"" + windSpeed + "\",\"windDirection\":\"" + windDirection + "\","
+                + "\"shortForecast\":\"Sunny " + number + "\"}";
+    }
+}
@@ -0,0 +1,128 @@
+package com.dispersion.service;
+
+import com.dispersion.dto.DispersionResponse;
+import com.dispersion.dto.SpillUpdate;
+import com.dispersion.dto.SpillUpdate.GridUpdate;
+import com.dispersion.event.DispersionCalculatedEvent;
+import com.dispersion.event.SpillDeletedEvent;
+import com.dispersion.grid.DoubleGridStorage;
+import com.dispersion.grid.GridDelta;
+import com.dispersion.grid.GridStorage;
+import com.dispersion.model.Spill;
+import com.dispersion.service.FluidDynamicsService.DispersionGrid;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SpillChangeTrackerTest {
+
+    private static final int SIZE = 20;
+    private static final double TOLERANCE = 0.01;
+
+    private final SseBroadcastHub hub = mock(SseBroadcastHub.class);
+    private final SpillChangeTracker tracker = new SpillChangeTracker(hub, 8, TOLERANCE);
+
+    // What a client that joined midway holds, and how many updates it missed
+    private double[] late;
+    private int publishedBefore;
+
+    @Test
+    void lateSnapshotPlusLaterDeltasMatchesTheLatestGrid() {
+        Spill spill = spill();
+        double[] values = new double[SIZE * SIZE];
+        values[5 * SIZE + 5] = 1.0;
+        calculate(spill, values);
+
+        // Each step moves every cell by less than the tolerance; together they add up to more
+        for (int step = 1; step <= 5; step++) {
+            for (int k = 0; k < values.length; k++) {
+                values[k] += 0.004;
+            }
+            calculate(spill, values);
+            if (step == 2) {
+                // A client joining now starts from the snapshot and applies what follows
+                List<SpillUpdate> snapshot = tracker.currentGrids(List.of(spill.getId()));
+                assertEquals(1, snapshot.size());
+                assertTrue(snapshot.get(0).getGrid().isReset());
+                late = new double[SIZE * SIZE];
+                GridDelta.apply(late, SIZE, snapshot.get(0).getGrid().getTiles());
+                publishedBefore = published().size();
+            }
+        }
+
+        List<SpillUpdate> updates = published();
+        double[] early = new double[SIZE * SIZE];
+        for (int n = 0; n < updates.size(); n++) {
+            GridUpdate grid = updates.get(n).getGrid();
+            if (n == 0) {
+                assertTrue(grid.isReset());
+            }
+            GridDelta.apply(early, SIZE, grid.getTiles());
+            if (n >= publishedBefore) {
+                GridDelta.apply(late, SIZE, grid.getTiles());
+            }
+        }
+        for (int k = 0; k < values.length; k++) {
+            assertEquals(values[k], early[k], TOLERANCE, "cell " + k);
+            assertEquals(early[k], late[k], "cell " + k);
+        }
+        // The third step pushed the drift past the tolerance
+        assertTrue(updates.size() > 1, "drift below the tolerance was never sent");
+    }
+
+    @Test
+    void deletedSpillsAndOtherSpillsAreNotInTheSnapshot() {
+        Spill spill = spill();
+        Spill other = spill();
+        double[] values = new double[SIZE * SIZE];
+        values[0] = 3.0;
+        calculate(spill, values);
+        calculate(other, values);
+
+        assertEquals(1, tracker.currentGrids(List.of(spill.getId(), UUID.randomUUID())).size());
+        tracker.onSpillDeleted(new SpillDeletedEvent(spill));
+        assertEquals(List.of(), tracker.currentGrids(List.of(spill.getId())));
+        assertFalse(tracker.currentGrids(List.of(other.getId())).isEmpty());
+    }
+
+    private void calculate(Spill spill, double[] values) {
+        GridStorage storage = new DoubleGridStorage(SIZE, SIZE);
+        for (int k = 0; k < values.length; k++) {
+            storage.set(k, values[k]);
+        }
+        DispersionResponse response = new DispersionResponse(spill.getId(), LocalDateTime.now());
+        response.setDispersionGrid(new DispersionGrid(29.7, -95.3, 100.0, storage));
+        response.setMaxConcentration(storage.max());
+        tracker.onDispersionCalculated(new DispersionCalculatedEvent(spill, response, SimulationOptions.defaults()));
+    }
+
+    private List<SpillUpdate> published() {
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(hub, atLeastOnce()).publish(isNull(), captor.capture(), any());
+        return captor.getAllValues().stream()
+                .map(SpillUpdate.class::cast)
+                .filter(update -> SpillUpdate.GRID_UPDATED.equals(update.getType()))
+                .toList();
+    }
+
+    private static Spill spill() {
+        Spill spill = new Spill();
+        spill.setId(UUID.randomUUID());
+        spill.setLatitude(new BigDecimal("29.7"));
+        spill.setLongitude(new BigDecimal("-95.3"));
+        return spill;
+    }
+}
@@ -0,0 +1,104 @@
+package com.dispersion.service;
+
+import com.dispersion.model.SpillSeverity;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SubscriptionIndexTest {
+
+    private static final UUID SPILL = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID OTHER_SPILL = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    @Test
+    void routesBySpillIdCellOrEverywhere() {
+        SubscriptionIndex<String> index = new SubscriptionIndex<>(1.0, 400);
+        index.add("spill", SubscriptionFilter.of(null, null, null, null, List.of(SPILL), null));
+        index.add("houston", SubscriptionFilter.of(29.0, 30.5, -96.0, -94.5, null, null));
+        index.add("world", SubscriptionFilter.of(-90.0, 90.0, -180.0, 180.0, null, null));
+        index.add("all", SubscriptionFilter.all());
+
+        assertEquals(Set.of("spill", "houston", "world", "all"),
+                index.candidates(new EventTopic(SPILL, 29.76, -95.37, SpillSeverity.LOW)));
+        assertEquals(Set.of("world", "all"),
+                index.candidates(new EventTopic(OTHER_SPILL, 40.7, -74.0, SpillSeverity.LOW)));
+        // No position: only spill-id and everywhere subscribers can match
+        assertEquals(Set.of("spill", "world", "all"),
+                index.candidates(new EventTopic(SPILL, Double.NaN, Double.NaN, null)));
+    }
+
+    @Test
+    void removedSubscribersAreNoLongerCandidates() {
+        SubscriptionIndex<String> index = new SubscriptionIndex<>(1.0, 400);
+        SubscriptionFilter bySpill = SubscriptionFilter.of(null, null, null, null, List.of(SPILL, OTHER_SPILL), null);
+        SubscriptionFilter byBox = SubscriptionFilter.of(29.0, 30.5, -96.0, -94.5, null, null);
+        index.add("spill", bySpill);
+        index.add("houston", byBox);
+        index.add("all", SubscriptionFilter.all());
+
+        index.remove("spill", bySpill);
+        index.remove("houston", byBox);
+        index.remove("all", SubscriptionFilter.all());
+
+        assertTrue(index.candidates(new EventTopic(SPILL, 29.76, -95.37, SpillSeverity.LOW)).isEmpty());
+        assertTrue(index.candidates(new EventTopic(OTHER_SPILL, 29.76, -95.37, SpillSeverity.LOW)).isEmpty());
+    }
+
+    @Test
+    void addRacingRemoveOfTheLastSubscriberIsKept() throws InterruptedException {
+        SubscriptionIndex<String> index = new SubscriptionIndex<>(1.0, 400);
+        SubscriptionFilter filter = SubscriptionFilter.of(null, null, null, null, List.of(SPILL), null);
+        EventTopic topic = new EventTopic(SPILL, 29.76, -95.37, SpillSeverity.LOW);
+        AtomicBoolean running = new AtomicBoolean(true);
+        // Keeps emptying and dropping the spill's set
+        Thread churn = new Thread(() -> {
+            while (running.get()) {
+                index.add("churn", filter);
+                index.remove("churn", filter);
+            }
+        });
+        churn.start();
+        try {
+            for (int k = 0; k < 20_000; k++) {
+                String client = "client-" + k;
+                index.add(client, filter);
+                assertTrue(index.candidates(topic).contains(client), "iteration " + k);
+                index.remove(client, filter);
+            }
+        } finally {
+            running.set(false);
+            churn.join();
+        }
+    }
+
+    @Test
+    void filterChecksEveryCriterion() {
+        SubscriptionFilter filter = SubscriptionFilter.of(29.0, 30.5, -96.0, -94.5, List.of(SPILL),
+                SpillSeverity.HIGH);
+        assertTrue(filter.matches(new EventTopic(SPILL, 29.76, -95.37, SpillSeverity.CRITICAL)));
+        assertFalse(filter.matches(new EventTopic(SPILL, 29.76, -95.37, SpillSeverity.MEDIUM)));
+        assertFalse(filter.matches(new EventTopic(SPILL, 29.76, -95.37, null)));
+        assertFalse(filter.matches(new EventTopic(SPILL, 40.7, -74.0, SpillSeverity.CRITICAL)));
+        assertFalse(filter.matches(new EventTopic(OTHER_SPILL, 29.76, -95.37, SpillSeverity.CRITICAL)));
+
+        assertTrue(SubscriptionFilter.all().matches(new EventTopic(null, Double.NaN, Double.NaN, null)));
+    }
+
+    @Test
+    void partialOrInvalidBoxIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SubscriptionFilter.of(29.0, 30.5, -96.0, null, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> SubscriptionFilter.of(30.5, 29.0, -96.0, -94.5, null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> SubscriptionFilter.of(29.0, 30.5, -196.0, -94.5, null, null));
+    }
+}
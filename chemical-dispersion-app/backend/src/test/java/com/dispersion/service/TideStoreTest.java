@@ -0,0 +1,72 @@
+package com.dispersion.service;
+
+import com.dispersion.model.TideData;
+import com.dispersion.repository.TideRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TideStoreTest {
+
+    @Test
+    void conflictingPointDoesNotLoseTheRestOfTheBatch() {
+        TideRepository repository = mock(TideRepository.class);
+        when(repository.findByStationIdAndTimestampBetweenOrderByTimestamp(eq("8770475"), any(), any()))
+                .thenReturn(List.of());
+        List<TideData> saved = new ArrayList<>();
+        when(repository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            // The batch is rolled back after ids were assigned
+            for (Object point : (Iterable<?>) invocation.getArgument(0)) {
+                ((TideData) point).setId(UUID.randomUUID());
+            }
+            throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+        });
+        when(repository.save(any(TideData.class))).thenAnswer(invocation -> {
+            TideData point = invocation.getArgument(0);
+            assertNull(point.getId(), "retry must insert, not merge a rolled-back id");
+            if (point.getTimestamp().getHour() == 3) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            saved.add(point);
+            return point;
+        });
+
+        TideStore store = new TideStore(repository, 24, 48, 1000, 500);
+        LocalDateTime day = LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+        List<TideData> fetched = new ArrayList<>();
+        for (int hour = 0; hour < 24; hour++) {
+            TideData point = new TideData();
+            point.setStationId("8770475");
+            point.setTimestamp(day.plusHours(hour));
+            point.setTideHeight(BigDecimal.valueOf(hour / 10.0));
+            fetched.add(point);
+        }
+        List<TideData> served = store.getRange("8770475", day, day.plusHours(23),
+                (start, end) -> Mono.just(fetched)).block();
+        assertEquals(24, served.size());
+
+        store.flush();
+
+        verify(repository, times(1)).saveAll(anyIterable());
+        verify(repository, times(24)).save(any(TideData.class));
+        assertEquals(23, saved.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.dispersion.service;
+
+import com.dispersion.model.WeatherData;
+import com.dispersion.service.NwsForecastParser.Period;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherServiceTest {
+
+    private static final Instant NOON = Instant.parse("2024-06-01T12:00:00Z");
+
+    @Test
+    void forecastRollingForwardAnHourIsTheSame() {
+        // The 12:00 period has ended and 18:00 is new; the hours in between are unchanged
+        assertTrue(WeatherService.sameForecast(forecast(0, 6, 4.0), forecast(1, 7, 4.0)));
+    }
+
+    @Test
+    void changeInASharedPeriodIsDetected() {
+        List<Period> current = forecast(1, 7, 4.0);
+        current.set(2, period(3, 9.5, 180.0));
+        assertFalse(WeatherService.sameForecast(forecast(0, 6, 4.0), current));
+
+        current = forecast(1, 7, 4.0);
+        current.set(0, period(1, 4.0, 200.0));
+        assertFalse(WeatherService.sameForecast(forecast(0, 6, 4.0), current));
+    }
+
+    @Test
+    void periodsOutsideTheOverlapAreNotCompared() {
+        List<Period> current = forecast(1, 7, 4.0);
+        current.set(current.size() - 1, period(6, 12.0, 90.0));
+        assertTrue(WeatherService.sameForecast(forecast(0, 6, 4.0), current));
+    }
+
+    private static List<Period> forecast(int fromHour, int toHour, double windSpeed) {
+        List<Period> periods = new ArrayList<>();
+        for (int hour = fromHour; hour < toHour; hour++) {
+            periods.add(period(hour, windSpeed, 180.0));
+        }
+        return periods;
+    }
+
+    private static Period period(int hour, double windSpeed, double windDirection) {
+        WeatherData weather = new WeatherData();
+        weather.setTemperature(new BigDecimal("25.00"));
+        weather.setWindSpeed(BigDecimal.valueOf(windSpeed).setScale(2));
+        weather.setWindDirection(BigDecimal.valueOf(windDirection).setScale(2));
+        return new Period(NOON.plus(Duration.ofHours(hour)), weather);
+    }
+}
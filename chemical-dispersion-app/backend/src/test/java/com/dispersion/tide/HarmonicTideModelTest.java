@@ -0,0 +1,123 @@
+package com.dispersion.tide;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HarmonicTideModelTest {
+
+    @Test
+    void constituentSpeedsMatchPublishedValues() {
+        // Degrees per hour, as listed with NOAA's harmonic constants
+        Map<Constituent, Double> published = new EnumMap<>(Constituent.class);
+        published.put(Constituent.M2, 28.9841042);
+        published.put(Constituent.S2, 30.0);
+        published.put(Constituent.N2, 28.4397295);
+        published.put(Constituent.K2, 30.0821373);
+        published.put(Constituent.K1, 15.0410686);
+        published.put(Constituent.O1, 13.9430356);
+        published.put(Constituent.P1, 14.9589314);
+        published.put(Constituent.Q1, 13.3986609);
+        published.put(Constituent.M4, 57.9682084);
+        for (Constituent constituent : Constituent.values()) {
+            assertEquals(published.get(constituent), constituent.speed(), 1e-6, constituent.name());
+        }
+    }
+
+    @Test
+    void nodeFactorsPeakAtTheMajorLunarStandstill() {
+        // Ascending node at the vernal equinox: the 2024-25 major standstill, diurnal tides strongest
+        assertEquals(1.113, diurnalRange(Constituent.K1, "2025-01-01T00:00:00Z"), 0.005);
+        assertEquals(1.183, diurnalRange(Constituent.O1, "2025-01-01T00:00:00Z"), 0.005);
+        assertEquals(0.963, diurnalRange(Constituent.M2, "2025-01-01T00:00:00Z"), 0.005);
+        // Node at the autumnal equinox: the 2015 minor standstill, diurnal tides weakest
+        assertEquals(0.883, diurnalRange(Constituent.K1, "2015-10-01T00:00:00Z"), 0.005);
+        assertEquals(0.806, diurnalRange(Constituent.O1, "2015-10-01T00:00:00Z"), 0.005);
+        assertEquals(1.037, diurnalRange(Constituent.M2, "2015-10-01T00:00:00Z"), 0.005);
+    }
+
+    @Test
+    void lunarAndSolarTidesPeakTogetherAtNewAndFullMoon() {
+        // Solar and lunar eclipses, i.e. exact syzygies
+        String[] syzygies = { "2000-01-21T04:44:00Z", "2017-08-21T18:25:00Z", "2024-04-08T18:17:00Z",
+                "2025-03-14T06:59:00Z" };
+        for (String syzygy : syzygies) {
+            Instant time = Instant.parse(syzygy);
+            Instant solarPeak = peakNear(model(Constituent.S2, 1.0, 0.0), time);
+            Instant lunarPeak = peakNear(model(Constituent.M2, 1.0, 0.0), solarPeak);
+            // Mean and true longitudes differ by a few degrees, about an hour of M2 phase at most
+            long minutesApart = Math.abs(Duration.between(solarPeak, lunarPeak).toMinutes());
+            assertTrue(minutesApart <= 75, syzygy + ": M2 peak " + minutesApart + " min from S2 peak");
+        }
+    }
+
+    @Test
+    void greenwichPhaseLagDelaysTheSolarTide() {
+        // S2 has no node correction; its equilibrium peaks are at 00:00 and 12:00 UTC
+        Instant noon = Instant.parse("2024-06-01T12:00:00Z");
+        assertEquals(2.0, model(Constituent.S2, 1.0, 0.0).heightAt(noon), 1e-6);
+        Instant peak = peakNear(model(Constituent.S2, 1.0, 90.0), noon);
+        assertEquals(noon.plus(Duration.ofHours(3)), peak);
+    }
+
+    @Test
+    void seriesMatchesPointwisePrediction() {
+        Map<Constituent, double[]> constants = new EnumMap<>(Constituent.class);
+        constants.put(Constituent.M2, new double[] { 0.25, 110.0 });
+        constants.put(Constituent.K1, new double[] { 0.15, 300.0 });
+        constants.put(Constituent.O1, new double[] { 0.14, 290.0 });
+        constants.put(Constituent.S2, new double[] { 0.05, 95.0 });
+        HarmonicTideModel model = HarmonicTideModel.of(0.35, constants);
+        Instant start = Instant.parse("2024-06-01T00:00:00Z");
+        Duration step = Duration.ofMinutes(6);
+
+        double[] series = model.heights(start, step, 480);
+        for (int i = 0; i < series.length; i += 37) {
+            // Node factors are held for a whole series, so allow their drift over two days
+            assertEquals(model.heightAt(start.plus(step.multipliedBy(i))), series[i], 1e-4, "point " + i);
+        }
+        assertEquals(0.35, model.meanLevel());
+        assertEquals(4, model.constituentCount());
+    }
+
+    private static HarmonicTideModel model(Constituent constituent, double amplitude, double phase) {
+        Map<Constituent, double[]> constants = new EnumMap<>(Constituent.class);
+        constants.put(constituent, new double[] { amplitude, phase });
+        return HarmonicTideModel.of(1.0, constants);
+    }
+
+    /**
+     * Half the range of a unit-amplitude constituent over two days, i.e. its node factor
+     */
+    private static double diurnalRange(Constituent constituent, String time) {
+        double[] heights = model(constituent, 1.0, 0.0).heights(Instant.parse(time), Duration.ofMinutes(1), 2880);
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double height : heights) {
+            min = Math.min(min, height);
+            max = Math.max(max, height);
+        }
+        return (max - min) / 2;
+    }
+
+    /**
+     * Time of the highest point within six hours either side, to the minute
+     */
+    private static Instant peakNear(HarmonicTideModel model, Instant time) {
+        Instant start = time.minus(Duration.ofHours(6));
+        double[] heights = model.heights(start, Duration.ofMinutes(1), 721);
+        int best = 0;
+        for (int i = 1; i < heights.length; i++) {
+            if (heights[i] > heights[best]) {
+                best = i;
+            }
+        }
+        return start.plus(Duration.ofMinutes(best));
+    }
+}
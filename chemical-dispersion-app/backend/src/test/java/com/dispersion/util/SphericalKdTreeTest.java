@@ -0,0 +1,130 @@
+package com.dispersion.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SphericalKdTreeTest {
+
+    @Test
+    void matchesBruteForceOnRandomStations() {
+        Random random = new Random(13);
+        List<double[]> stations = new ArrayList<>();
+        for (int k = 0; k < 3000; k++) {
+            stations.add(randomPoint(random));
+        }
+        SphericalKdTree<double[]> tree = build(stations);
+        assertEquals(3000, tree.size());
+
+        for (int k = 0; k < 20_000; k++) {
+            double[] query = randomPoint(random);
+            assertNearest(stations, tree, query[0], query[1]);
+        }
+    }
+
+    @Test
+    void matchesBruteForceNearThePoles() {
+        Random random = new Random(7);
+        List<double[]> stations = new ArrayList<>();
+        for (int k = 0; k < 500; k++) {
+            double latitude = 85.0 + random.nextDouble() * 5.0;
+            stations.add(new double[] { k % 2 == 0 ? latitude : -latitude, random.nextDouble() * 360.0 - 180.0 });
+        }
+        stations.add(new double[] { 90.0, 0.0 });
+        SphericalKdTree<double[]> tree = build(stations);
+
+        for (int k = 0; k < 2000; k++) {
+            double latitude = 80.0 + random.nextDouble() * 10.0;
+            assertNearest(stations, tree, k % 2 == 0 ? latitude : -latitude, random.nextDouble() * 360.0 - 180.0);
+        }
+        // Every longitude is the same point at the pole
+        assertSame(stations.get(stations.size() - 1), tree.nearest(90.0, 123.0));
+    }
+
+    @Test
+    void findsStationsAcrossTheAntimeridian() {
+        double[] east = { 10.0, 179.9 };
+        double[] west = { 10.0, -179.8 };
+        double[] farWest = { 10.0, 178.0 };
+        List<double[]> stations = List.of(east, west, farWest, new double[] { 10.0, 0.0 });
+        SphericalKdTree<double[]> tree = build(stations);
+
+        assertSame(west, tree.nearest(10.0, -179.7));
+        assertSame(east, tree.nearest(10.0, 180.0));
+        assertSame(east, tree.nearest(10.0, -180.0));
+        // Longitudes outside [-180, 180] wrap like any other
+        assertSame(west, tree.nearest(10.0, 180.3));
+
+        Random random = new Random(180);
+        List<double[]> band = new ArrayList<>();
+        for (int k = 0; k < 1000; k++) {
+            double longitude = 175.0 + random.nextDouble() * 10.0;
+            double latitude = random.nextDouble() * 20.0 - 10.0;
+            band.add(new double[] { latitude, longitude > 180.0 ? longitude - 360.0 : longitude });
+        }
+        SphericalKdTree<double[]> bandTree = build(band);
+        for (int k = 0; k < 5000; k++) {
+            double longitude = 170.0 + random.nextDouble() * 20.0;
+            assertNearest(band, bandTree, random.nextDouble() * 30.0 - 15.0,
+                    longitude > 180.0 ? longitude - 360.0 : longitude);
+        }
+    }
+
+    @Test
+    void emptyAndSingleStationTrees() {
+        assertNull(build(List.of()).nearest(29.0, -95.0));
+
+        double[] only = { -33.9, 151.2 };
+        assertSame(only, build(List.of(only)).nearest(29.0, -95.0));
+    }
+
+    private static SphericalKdTree<double[]> build(List<double[]> stations) {
+        return SphericalKdTree.build(stations, s -> s[0], s -> s[1]);
+    }
+
+    private static void assertNearest(List<double[]> stations, SphericalKdTree<double[]> tree, double latitude,
+            double longitude) {
+        // Largest cosine of the central angle is the smallest great-circle distance
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double bestCos = Double.NEGATIVE_INFINITY;
+        double[] best = null;
+        for (double[] station : stations) {
+            double stationLat = Math.toRadians(station[0]);
+            double cos = Math.sin(lat) * Math.sin(stationLat)
+                    + Math.cos(lat) * Math.cos(stationLat) * Math.cos(Math.toRadians(station[1]) - lon);
+            if (cos > bestCos) {
+                bestCos = cos;
+                best = station;
+            }
+        }
+        double[] found = tree.nearest(latitude, longitude);
+        // Ties may resolve to either station, so compare distances rather than identity
+        assertEquals(greatCircle(latitude, longitude, best), greatCircle(latitude, longitude, found), 1e-9,
+                "query " + latitude + "," + longitude);
+    }
+
+    private static double greatCircle(double latitude, double longitude, double[] station) {
+        double lat1 = Math.toRadians(latitude);
+        double lat2 = Math.toRadians(station[0]);
+        double dLat = lat2 - lat1;
+        double dLon = Math.toRadians(station[1] - longitude);
+        double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * Math.asin(Math.min(1.0, Math.sqrt(h)));
+    }
+
+    /**
+     * Uniform on the sphere, not in latitude, so the poles are not oversampled
+     */
+    private static double[] randomPoint(Random random) {
+        double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+        return new double[] { latitude, random.nextDouble() * 360.0 - 180.0 };
+    }
+}
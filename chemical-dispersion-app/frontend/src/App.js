@@ -41,6 +41,13 @@ function App() {
     if (updates && updates.length > 0) {
       updates.forEach(update => {
         switch (update.type) {
+          case 'snapshot':
+            // Active spills from the server replace their local copies; others are kept
+            setActiveSpills(prev => [
+              ...prev.filter(spill => !update.spills.some(s => s.id === spill.id)),
+              ...update.spills
+            ]);
+            break;
           case 'spill_created':
             setActiveSpills(prev => [...prev, update.data]);
             break;
@@ -60,6 +67,26 @@ function App() {
               )
             );
             break;
+          case 'spill_deleted':
+            setActiveSpills(prev => prev.filter(spill => spill.id !== update.spillId));
+            setSelectedSpill(prev => (prev && prev.id === update.spillId ? null : prev));
+            break;
+          case 'grid_updated':
+            // update.grid is the whole grid, already rebuilt from the tiles by the api service
+            setActiveSpills(prev =>
+              prev.map(spill =>
+                spill.id === update.spillId
+                  ? {
+                      ...spill,
+                      concentrationGrid: update.grid,
+                      maxConcentration: update.maxConcentration,
+                      affectedAreaKm2: update.affectedAreaKm2,
+                      lastCalculated: update.calculationTime || new Date().toISOString()
+                    }
+                  : spill
+              )
+            );
+            break;
           case 'emergency_alert':
             setEmergencyAlert(update.message);
             break;
@@ -152,7 +179,7 @@ function App() {
     }
   }, [selectedSpill]);
 
-  const handleCalculateDispersion = async (spillId, simulationHours = 24) => {
+  const handleCalculateDispersion = async (spillId, simulationHours) => {
     try {
       const result = await apiService.calculateDispersion(spillId, simulationHours);
       setActiveSpills(prev => 
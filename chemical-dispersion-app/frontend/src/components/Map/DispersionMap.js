@@ -201,7 +201,7 @@ function DispersionMap({ spills = [], selectedSpill, onSpillSelect, onSpillUpdat
         try {
             console.log(`[CALCULATING] Starting dispersion for spill ${spillId}`);
             
-            const result = await calculateDispersion(spillId, 24);
+            const result = await calculateDispersion(spillId);
             setDispersionData(result);
             hasCalculatedRef.current.add(spillId);
             
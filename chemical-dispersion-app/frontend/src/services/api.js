@@ -102,15 +102,16 @@ export const apiService = {
         }
     },
 
-    async calculateDispersion(spillId, simulationHours = 24) {
+    // Without simulationHours the server runs its default calculation, the one streamed to every client
+    async calculateDispersion(spillId, simulationHours) {
         try {
             const response = await api.post(`/dispersion/spills/${spillId}/calculate`, null, {
-                params: { simulationHours }
+                params: simulationHours ? { simulationHours } : {}
             });
             return response.data;
         } catch (error) {
             console.warn('Dispersion calculation service unavailable, using mock calculation');
-            return this.mockDispersionCalculation(spillId, simulationHours);
+            return this.mockDispersionCalculation(spillId, simulationHours || 24);
         }
     },
 
@@ -225,17 +226,80 @@ export const apiService = {
         let eventSource = null;
         let reconnectTimer = null;
         let reconnectAttempts = 0;
+        let lastEventId = null;
         const maxReconnectAttempts = 5;
+        // Concentration grid per spill, rebuilt from the streamed tiles
+        const grids = new Map();
+
+        const applyGridTiles = (update) => {
+            const { grid } = update;
+            let current = grids.get(update.spillId);
+            if (grid.reset || !current) {
+                current = {
+                    centerLat: grid.centerLat,
+                    centerLon: grid.centerLon,
+                    cellSize: grid.cellSize,
+                    gridSize: grid.gridSize,
+                    values: new Float32Array(grid.gridSize * grid.gridSize)
+                };
+            } else {
+                current = { ...current, values: current.values.slice() };
+            }
+            (grid.tiles || []).forEach(tile => {
+                for (let r = 0; r < tile.rows; r++) {
+                    const base = (tile.row + r) * current.gridSize + tile.col;
+                    for (let c = 0; c < tile.cols; c++) {
+                        current.values[base + c] = tile.values[r * tile.cols + c];
+                    }
+                }
+            });
+            grids.set(update.spillId, current);
+            return { ...update, grid: current };
+        };
+
+        const withGrids = (update) => {
+            if (update.type === 'grid_updated' && update.grid) {
+                return applyGridTiles(update);
+            }
+            if (update.type === 'spill_deleted') {
+                grids.delete(update.spillId);
+            }
+            return update;
+        };
 
         const connect = () => {
             try {
-                eventSource = new EventSource('/api/real-time-updates');
+                // Resume after the last change seen instead of starting over
+                const url = lastEventId
+                    ? `/api/real-time-updates?lastEventId=${encodeURIComponent(lastEventId)}`
+                    : '/api/real-time-updates';
+                eventSource = new EventSource(url);
+
+                // Sent instead of the missed changes when the stream cannot be resumed
+                eventSource.addEventListener('initial', (event) => {
+                    if (event.lastEventId) {
+                        lastEventId = event.lastEventId;
+                    }
+                    try {
+                        const snapshot = JSON.parse(event.data);
+                        grids.clear();
+                        const gridUpdates = (snapshot.grids || []).map(withGrids);
+                        if (onUpdate && typeof onUpdate === 'function') {
+                            onUpdate([{ type: 'snapshot', spills: snapshot.spills || [] }, ...gridUpdates]);
+                        }
+                    } catch (error) {
+                        console.error('Error parsing SSE snapshot:', error);
+                    }
+                });
                 
                 eventSource.onmessage = (event) => {
+                    if (event.lastEventId) {
+                        lastEventId = event.lastEventId;
+                    }
                     try {
                         const data = JSON.parse(event.data);
                         if (onUpdate && typeof onUpdate === 'function') {
-                            onUpdate(Array.isArray(data) ? data : [data]);
+                            onUpdate((Array.isArray(data) ? data : [data]).map(withGrids));
                         }
                         reconnectAttempts = 0; // Reset on successful message
                     } catch (error) {